@@ -1,6 +1,7 @@
 package com.example.ma2025;
 
 import android.content.Intent;
+import android.content.pm.ApplicationInfo;
 import android.os.Build;
 import android.os.Bundle;
 import android.util.Log;
@@ -13,7 +14,11 @@ import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.fragment.app.Fragment;
 import com.example.ma2025.data.DatabaseManager;
+import com.example.ma2025.data.database.instrumentation.QueryStats;
 import com.example.ma2025.data.preferences.PreferencesManager;
+import com.example.ma2025.data.repositories.AllianceContext;
+import com.example.ma2025.data.repositories.ProgressSyncCoalescer;
+import com.example.ma2025.data.repositories.SyncEngine;
 import com.example.ma2025.databinding.ActivityMainBinding;
 import com.example.ma2025.ui.auth.LoginActivity;
 import com.example.ma2025.ui.boss.BossFragment;
@@ -22,16 +27,21 @@ import com.example.ma2025.ui.missions.MissionsFragment;
 import com.example.ma2025.ui.profile.ProfileFragment;
 import com.example.ma2025.ui.tasks.CalendarFragment;
 import com.example.ma2025.ui.tasks.TaskDetailFragment;
+import com.example.ma2025.ui.statistics.StatisticsFragment;
 import com.example.ma2025.ui.tasks.TaskListFragment;
 import com.example.ma2025.ui.levels.LevelsFragment;
 import com.example.ma2025.ui.equipment.EquipmentFragment;
 import com.example.ma2025.ui.friends.FriendsFragment;
+import com.example.ma2025.utils.AppExecutors;
 import com.example.ma2025.utils.Constants;
+import com.example.ma2025.utils.DayKey;
 import com.example.ma2025.utils.TaskScheduler;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.FirebaseFirestore;
 import android.widget.ImageView;
+import java.io.File;
+import java.io.IOException;
 
 public class MainActivity extends AppCompatActivity {
 
@@ -125,6 +135,10 @@ public class MainActivity extends AppCompatActivity {
             if (isUserLoggedIn()) {
                 taskScheduler.startScheduler();
                 Log.d(TAG, "Task scheduler started for logged-in user");
+
+                // Šalje izmene ostale u outbox-u od prošlog pokretanja
+                SyncEngine.getInstance(this).requestSync();
+                watchUserAlliance();
             }
 
         } catch (Exception e) {
@@ -138,9 +152,12 @@ public class MainActivity extends AppCompatActivity {
                 if (isLoggedIn) {
                     taskScheduler.startScheduler();
                     taskScheduler.runImmediateCheck(); // Odmah proveri expired tasks
+                    SyncEngine.getInstance(this).requestSync();
+                    watchUserAlliance();
                     Log.d(TAG, "Task scheduler started after login");
                 } else {
                     taskScheduler.stopScheduler();
+                    AllianceContext.getInstance().stop();
                     Log.d(TAG, "Task scheduler stopped after logout");
                 }
             }
@@ -149,6 +166,13 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    // Savez i aktivna misija stižu pre prvog događaja u igri
+    private void watchUserAlliance() {
+        if (mAuth != null && mAuth.getCurrentUser() != null) {
+            AllianceContext.getInstance().start(mAuth.getCurrentUser().getUid());
+        }
+    }
+
     private boolean isUserLoggedIn() {
         try {
             boolean isLoggedInPrefs = preferencesManager.isLoggedIn();
@@ -203,6 +227,11 @@ public class MainActivity extends AppCompatActivity {
                 setSelectedNavigationItem(binding.navLevels);
             });
 
+            binding.navStats.setOnClickListener(v -> {
+                loadFragment(new StatisticsFragment());
+                setSelectedNavigationItem(binding.navStats);
+            });
+
             binding.navEquipment.setOnClickListener(v -> {
                 loadFragment(new EquipmentFragment());
                 setSelectedNavigationItem(binding.navEquipment);
@@ -317,6 +346,7 @@ public class MainActivity extends AppCompatActivity {
     public boolean onCreateOptionsMenu(Menu menu) {
         try {
             getMenuInflater().inflate(R.menu.main_menu, menu);
+            menu.findItem(R.id.action_debug_stats).setVisible(isDebuggable());
             return true;
         } catch (Exception e) {
             Log.e(TAG, "Error creating options menu", e);
@@ -331,6 +361,10 @@ public class MainActivity extends AppCompatActivity {
                 logout();
                 return true;
             }
+            if (item.getItemId() == R.id.action_debug_stats) {
+                dumpDebugStats();
+                return true;
+            }
             return super.onOptionsItemSelected(item);
 
         } catch (Exception e) {
@@ -339,6 +373,29 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    private boolean isDebuggable() {
+        return (getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+    }
+
+    /**
+     * Debug izveštaj: statistika SQL naredbi u log i u query_stats.tsv, i metrike izvršilaca u log
+     */
+    private void dumpDebugStats() {
+        File file = new File(getFilesDir(), "query_stats.tsv");
+        AppExecutors executors = AppExecutors.getInstance();
+        executors.logMetrics();
+        executors.diskIO().execute("DumpQueryStats", () -> {
+            QueryStats stats = QueryStats.getInstance();
+            stats.dumpToLogcat();
+            try {
+                stats.dumpToFile(file);
+            } catch (IOException e) {
+                Log.e(TAG, "Error writing query report", e);
+            }
+        });
+        Toast.makeText(this, "Izveštaj: " + file.getAbsolutePath(), Toast.LENGTH_SHORT).show();
+    }
+
     private void logout() {
         try {
             String userId = preferencesManager.getUserId();
@@ -450,6 +507,8 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onResume() {
         super.onResume();
+        // Zona je možda promenjena dok je aplikacija bila u pozadini
+        DayKey.refreshTimeZone();
 
         try {
             if (!isUserLoggedIn()) {
@@ -481,14 +540,23 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    @Override
+    protected void onStop() {
+        super.onStop();
+        try {
+            // Aplikacija odlazi u pozadinu - spojene izmene napretka se šalju odmah
+            ProgressSyncCoalescer.getInstance().flushNow();
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error in onStop", e);
+        }
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
         try {
-            if (taskScheduler != null && isFinishing()) {
-                taskScheduler.stopScheduler();
-                Log.d(TAG, "Task scheduler stopped - activity finishing");
-            }
+            // Održavanje zadataka je u WorkManager-u i nastavlja da radi i kada se aktivnost zatvori
 
             if (binding != null) {
                 binding = null;
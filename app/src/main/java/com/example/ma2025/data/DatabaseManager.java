@@ -6,16 +6,18 @@ import android.util.Log;
 import androidx.lifecycle.LiveData;
 import com.example.ma2025.data.repositories.TaskRepository;
 import com.example.ma2025.data.repositories.CategoryRepository;
+import com.example.ma2025.data.repositories.SyncEngine;
 import com.example.ma2025.data.database.AppDatabase;
 import com.example.ma2025.data.database.entities.TaskEntity;
 import com.example.ma2025.data.database.entities.CategoryEntity;
 import com.example.ma2025.data.database.entities.UserProgressEntity;
 import com.example.ma2025.data.database.entities.DailyStatsEntity;
+import com.example.ma2025.data.database.entities.LifetimeStatsEntity;
 import com.example.ma2025.utils.Constants;
+import com.example.ma2025.utils.AppExecutors;
 import com.google.firebase.firestore.FirebaseFirestore;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 
 /**
  * Central database manager that coordinates between SQLite and Firebase
@@ -28,7 +30,7 @@ public class DatabaseManager {
     private TaskRepository taskRepository;
     private CategoryRepository categoryRepository;
     private FirebaseFirestore firestore;
-    private ExecutorService executor;
+    private Executor executor;
 
     private static volatile DatabaseManager INSTANCE;
 
@@ -37,7 +39,7 @@ public class DatabaseManager {
         this.taskRepository = TaskRepository.getInstance(context);
         this.categoryRepository = CategoryRepository.getInstance(context);
         this.firestore = FirebaseFirestore.getInstance();
-        this.executor = Executors.newFixedThreadPool(4);
+        this.executor = AppExecutors.getInstance().diskIO();
     }
 
     public static DatabaseManager getInstance(Context context) {
@@ -183,6 +185,13 @@ public class DatabaseManager {
                     stats.longestStreak = progress.longestStreak;
                 }
 
+                // Ukupni zbirovi iz jednog reda lifetime_stats
+                LifetimeStatsEntity lifetime = AppDatabase.getDatabase(context).dailyStatsDao().getLifetimeStats(userId);
+                if (lifetime != null) {
+                    stats.totalTasksCompleted = lifetime.tasksCompleted;
+                    stats.activeDays = lifetime.activeDays;
+                }
+
                 if (callback != null) {
                     callback.onStatisticsLoaded(stats);
                 }
@@ -203,18 +212,13 @@ public class DatabaseManager {
      * Called periodically or when user explicitly requests sync
      */
     public void syncWithFirebase(String userId, OnSyncCallback callback) {
-        executor.execute(() -> {
+        // Mrežni poziv ne sme da zauzme diskIO red
+        AppExecutors.getInstance().io().execute("syncWithFirebase", () -> {
             try {
                 Log.d(TAG, "Starting sync with Firebase for user: " + userId);
 
-                // 1. Upload unsynced local data to Firebase
-                uploadUnsyncedData(userId);
-
-                // 2. Download user progress from Firebase to update local cache
-                downloadUserProgressFromFirebase(userId);
-
-                // 3. Sync categories if needed
-                syncCategoriesWithFirebase(userId);
+                // Preuzimanje promena (napredak, kategorije, zadaci), pa slanje outbox-a
+                SyncEngine.getInstance(context).sync(userId);
 
                 if (callback != null) {
                     callback.onSyncCompleted("Sinhronizacija završena uspešno");
@@ -229,20 +233,6 @@ public class DatabaseManager {
         });
     }
 
-    private void uploadUnsyncedData(String userId) {
-        // Upload unsynced tasks, categories, etc. to Firebase
-        // This would be implemented with actual Firebase operations
-    }
-
-    private void downloadUserProgressFromFirebase(String userId) {
-        // Download latest user progress from Firebase User document
-        // Update local SQLite with any changes
-    }
-
-    private void syncCategoriesWithFirebase(String userId) {
-        // Sync categories between local SQLite and Firebase
-    }
-
     // ========== DATA CLEANUP ==========
 
     /**
@@ -254,10 +244,15 @@ public class DatabaseManager {
                 AppDatabase db = AppDatabase.getDatabase(context);
 
                 // Delete all user-specific data
-                db.taskDao().deleteAllUserTasks(userId);
-                db.categoryDao().deleteAllUserCategories(userId);
-                db.dailyStatsDao().deleteAllUserStats(userId); // You'd need to add this
-                db.userProgressDao().deleteUserProgress(userId);
+                db.runInTransaction(() -> {
+                    db.taskDao().deleteAllUserTasks(userId);
+                    db.categoryDao().deleteAllUserCategories(userId);
+                    db.dailyStatsDao().deleteAllUserStats(userId); // You'd need to add this
+                    db.userProgressDao().deleteUserProgress(userId);
+                    // Lokalno brisanje pri odjavi ne sme da obriše podatke u Firestore-u
+                    db.syncOutboxDao().deleteAllForUser(userId);
+                });
+                taskRepository.invalidateXpQuotas(userId);
 
                 if (callback != null) {
                     callback.onDataCleared("Korisnički podaci su obrisani");
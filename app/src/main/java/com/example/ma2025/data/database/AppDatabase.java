@@ -1,35 +1,50 @@
 package com.example.ma2025.data.database;
 
 import android.content.Context;
+import android.content.pm.ApplicationInfo;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.migration.Migration;
 import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
 
 import com.example.ma2025.data.database.dao.BossDao;
 import com.example.ma2025.data.database.entities.BossEntity;
 import com.example.ma2025.data.database.entities.TaskEntity;
+import com.example.ma2025.data.database.entities.TaskFtsEntity;
 import com.example.ma2025.data.database.entities.CategoryEntity;
 import com.example.ma2025.data.database.entities.TaskCompletionEntity;
 import com.example.ma2025.data.database.entities.DailyStatsEntity;
+import com.example.ma2025.data.database.entities.WeeklyStatsEntity;
+import com.example.ma2025.data.database.entities.MonthlyStatsEntity;
+import com.example.ma2025.data.database.entities.LifetimeStatsEntity;
 import com.example.ma2025.data.database.entities.UserProgressEntity;
+import com.example.ma2025.data.database.entities.SyncOutboxEntity;
 import com.example.ma2025.data.database.dao.TaskDao;
 import com.example.ma2025.data.database.dao.CategoryDao;
 import com.example.ma2025.data.database.dao.TaskCompletionDao;
 import com.example.ma2025.data.database.dao.DailyStatsDao;
 import com.example.ma2025.data.database.dao.UserProgressDao;
+import com.example.ma2025.data.database.dao.SyncOutboxDao;
+import com.example.ma2025.data.database.instrumentation.InstrumentedOpenHelperFactory;
+import com.example.ma2025.data.database.instrumentation.QueryStats;
 
 @Database(
         entities = {
                 TaskEntity.class,
+                TaskFtsEntity.class,
                 CategoryEntity.class,
                 TaskCompletionEntity.class,
                 DailyStatsEntity.class,
+                WeeklyStatsEntity.class,
+                MonthlyStatsEntity.class,
+                LifetimeStatsEntity.class,
                 UserProgressEntity.class,
-                BossEntity.class
+                BossEntity.class,
+                SyncOutboxEntity.class
         },
-        version = 3,
+        version = 12,
         exportSchema = false
 )
 public abstract class AppDatabase extends RoomDatabase {
@@ -44,6 +59,7 @@ public abstract class AppDatabase extends RoomDatabase {
     public abstract DailyStatsDao dailyStatsDao();
     public abstract UserProgressDao userProgressDao();
     public abstract BossDao bossDao();
+    public abstract SyncOutboxDao syncOutboxDao();
 
     // Migration for adding parent_task_id field
     static final Migration MIGRATION_1_2 = new Migration(1, 2) {
@@ -73,20 +89,157 @@ public abstract class AppDatabase extends RoomDatabase {
         }
     };
 
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // Denormalizacija task_completions: user_id, difficulty, importance i lokalni day_key
+            database.execSQL("ALTER TABLE task_completions ADD COLUMN user_id TEXT NOT NULL DEFAULT ''");
+            database.execSQL("ALTER TABLE task_completions ADD COLUMN difficulty INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE task_completions ADD COLUMN importance INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE task_completions ADD COLUMN day_key INTEGER NOT NULL DEFAULT 0");
+
+            database.execSQL("UPDATE task_completions SET " +
+                    "user_id = COALESCE((SELECT t.user_id FROM tasks t WHERE t.id = task_completions.task_id), ''), " +
+                    "difficulty = COALESCE((SELECT t.difficulty FROM tasks t WHERE t.id = task_completions.task_id), 0), " +
+                    "importance = COALESCE((SELECT t.importance FROM tasks t WHERE t.id = task_completions.task_id), 0)");
+
+            // Broj dana od 1970-01-01 po lokalnom vremenu uređaja (isto kao DateUtils.getDayKey)
+            database.execSQL("UPDATE task_completions SET day_key = CAST(" +
+                    "julianday(completion_date / 1000, 'unixepoch', 'localtime', 'start of day') - 2440587.5 AS INTEGER)");
+
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_task_completions_user_id_day_key " +
+                    "ON task_completions(user_id, day_key)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_task_completions_user_id_difficulty_completion_date " +
+                    "ON task_completions(user_id, difficulty, completion_date)");
+        }
+    };
+
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // Poslednji aktivan dan za inkrementalno računanje niza (streak)
+            database.execSQL("ALTER TABLE user_progress ADD COLUMN last_active_day INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("UPDATE user_progress SET last_active_day = COALESCE(" +
+                    "(SELECT MAX(tc.day_key) FROM task_completions tc WHERE tc.user_id = user_progress.user_id), 0)");
+        }
+    };
+
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // Spoji duplirane dnevne redove (nastale trkom više niti) pre jedinstvenog indeksa
+            database.execSQL("UPDATE daily_stats SET " +
+                    "tasks_completed = (SELECT SUM(d.tasks_completed) FROM daily_stats d WHERE d.user_id = daily_stats.user_id AND d.date = daily_stats.date), " +
+                    "tasks_failed = (SELECT SUM(d.tasks_failed) FROM daily_stats d WHERE d.user_id = daily_stats.user_id AND d.date = daily_stats.date), " +
+                    "total_xp_earned = (SELECT SUM(d.total_xp_earned) FROM daily_stats d WHERE d.user_id = daily_stats.user_id AND d.date = daily_stats.date), " +
+                    "very_easy_completed = (SELECT SUM(d.very_easy_completed) FROM daily_stats d WHERE d.user_id = daily_stats.user_id AND d.date = daily_stats.date), " +
+                    "easy_completed = (SELECT SUM(d.easy_completed) FROM daily_stats d WHERE d.user_id = daily_stats.user_id AND d.date = daily_stats.date), " +
+                    "hard_completed = (SELECT SUM(d.hard_completed) FROM daily_stats d WHERE d.user_id = daily_stats.user_id AND d.date = daily_stats.date), " +
+                    "extreme_completed = (SELECT SUM(d.extreme_completed) FROM daily_stats d WHERE d.user_id = daily_stats.user_id AND d.date = daily_stats.date), " +
+                    "special_completed = (SELECT SUM(d.special_completed) FROM daily_stats d WHERE d.user_id = daily_stats.user_id AND d.date = daily_stats.date) " +
+                    "WHERE id IN (SELECT MAX(id) FROM daily_stats GROUP BY user_id, date HAVING COUNT(*) > 1)");
+            database.execSQL("DELETE FROM daily_stats WHERE id NOT IN " +
+                    "(SELECT MAX(id) FROM daily_stats GROUP BY user_id, date)");
+
+            database.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS index_daily_stats_user_id_date " +
+                    "ON daily_stats(user_id, date)");
+        }
+    };
+
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // Indeksi za straničnu listu zadataka (ORDER BY created_at / due_time bez sortiranja cele tabele)
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_tasks_user_id_created_at " +
+                    "ON tasks(user_id, created_at)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_tasks_user_id_status_due_time " +
+                    "ON tasks(user_id, status, due_time)");
+        }
+    };
+
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // FTS4 pretraga zadataka - isti SQL i triggeri koje Room generiše za @Fts4(contentEntity)
+            database.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `tasks_fts` " +
+                    "USING FTS4(`title` TEXT, `description` TEXT, tokenize=unicode61, content=`tasks`)");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_tasks_fts_BEFORE_UPDATE " +
+                    "BEFORE UPDATE ON `tasks` BEGIN DELETE FROM `tasks_fts` WHERE `docid`=OLD.`rowid`; END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_tasks_fts_BEFORE_DELETE " +
+                    "BEFORE DELETE ON `tasks` BEGIN DELETE FROM `tasks_fts` WHERE `docid`=OLD.`rowid`; END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_tasks_fts_AFTER_UPDATE " +
+                    "AFTER UPDATE ON `tasks` BEGIN INSERT INTO `tasks_fts`(`docid`, `title`, `description`) " +
+                    "VALUES (NEW.`rowid`, NEW.`title`, NEW.`description`); END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_tasks_fts_AFTER_INSERT " +
+                    "AFTER INSERT ON `tasks` BEGIN INSERT INTO `tasks_fts`(`docid`, `title`, `description`) " +
+                    "VALUES (NEW.`rowid`, NEW.`title`, NEW.`description`); END");
+
+            // Popuni indeks postojećim zadacima
+            database.execSQL("INSERT INTO `tasks_fts`(`tasks_fts`) VALUES('rebuild')");
+        }
+    };
+
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // Indeksi za mesečni prikaz kalendara (opseg po roku ili datumu početka)
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_tasks_user_id_due_time " +
+                    "ON tasks(user_id, due_time)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_tasks_user_id_start_date " +
+                    "ON tasks(user_id, start_date)");
+        }
+    };
+
+    static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // Nedeljni, mesečni i ukupni zbirovi daily_stats, održavani triggerima
+            StatsRollups.createTables(database);
+            StatsRollups.rebuild(database);
+            StatsRollups.createTriggers(database);
+        }
+    };
+
+    static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // Outbox za slanje zadataka i kategorija u Firestore, punjen triggerima
+            SyncOutbox.createTable(database);
+            SyncOutbox.enqueueUnsynced(database);
+            SyncOutbox.createTriggers(database);
+        }
+    };
+
+    static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // Pull sinhronizacija traži lokalni red po id-ju Firestore dokumenta
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_tasks_firebase_id ON tasks(firebase_id)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_categories_firebase_id ON categories(firebase_id)");
+        }
+    };
+
     // Singleton pattern
     public static AppDatabase getDatabase(final Context context) {
         if (INSTANCE == null) {
             synchronized (AppDatabase.class) {
                 if (INSTANCE == null) {
-                    INSTANCE = Room.databaseBuilder(
+                    RoomDatabase.Builder<AppDatabase> builder = Room.databaseBuilder(
                                     context.getApplicationContext(),
                                     AppDatabase.class,
                                     DATABASE_NAME
                             )
                             .addCallback(roomCallback)
-                            .addMigrations(MIGRATION_1_2, MIGRATION_2_3)
-                            .fallbackToDestructiveMigration() // For development only
-                            .build();
+                            .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7, MIGRATION_7_8, MIGRATION_8_9, MIGRATION_9_10, MIGRATION_10_11, MIGRATION_11_12)
+                            .fallbackToDestructiveMigration(); // For development only
+
+                    // U debug verziji meri se svaka naredba (izveštaj: QueryStats.dumpToLogcat/dumpToFile)
+                    if ((context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+                        builder.openHelperFactory(new InstrumentedOpenHelperFactory(
+                                new FrameworkSQLiteOpenHelperFactory(), QueryStats.getInstance()));
+                    }
+
+                    INSTANCE = builder.build();
                 }
             }
         }
@@ -98,6 +251,8 @@ public abstract class AppDatabase extends RoomDatabase {
         @Override
         public void onCreate(SupportSQLiteDatabase db) {
             super.onCreate(db);
+            StatsRollups.createTriggers(db);
+            SyncOutbox.createTriggers(db);
             // Insert default categories when database is created
             new Thread(() -> {
                 if (INSTANCE != null) {
@@ -105,6 +260,14 @@ public abstract class AppDatabase extends RoomDatabase {
                 }
             }).start();
         }
+
+        @Override
+        public void onDestructiveMigration(SupportSQLiteDatabase db) {
+            super.onDestructiveMigration(db);
+            // Tabele su ponovo napravljene bez triggera za zbirove i outbox
+            StatsRollups.createTriggers(db);
+            SyncOutbox.createTriggers(db);
+        }
     };
 
     // Populate default categories
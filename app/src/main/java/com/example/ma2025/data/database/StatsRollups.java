@@ -0,0 +1,103 @@
+package com.example.ma2025.data.database;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * SQL za weekly_stats, monthly_stats i lifetime_stats. Zbirovi se održavaju triggerima nad
+ * daily_stats: svaka promena dnevnog reda dodaje razliku (NEW - OLD) u nedeljni, mesečni i
+ * ukupni red u istoj transakciji, pa nijedan postojeći upis u daily_stats ne mora da se menja.
+ */
+final class StatsRollups {
+
+    // Isti ključevi kao DailyStatsDao.weekKey / monthKey (lokalno vreme uređaja)
+    private static final String WEEK_KEY = "CAST(julianday(NEW.date / 1000, 'unixepoch', 'localtime', " +
+            "'start of day', 'weekday 0', '-6 days') - 2440587.5 AS INTEGER)";
+    private static final String MONTH_KEY = "CAST(strftime('%Y%m', NEW.date / 1000, 'unixepoch', 'localtime') AS INTEGER)";
+
+    private static final String COUNTERS = "tasks_completed, tasks_failed, total_xp_earned, active_days, " +
+            "very_easy_completed, easy_completed, hard_completed, extreme_completed, special_completed";
+
+    private StatsRollups() {
+    }
+
+    static void createTables(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS `weekly_stats` (`user_id` TEXT NOT NULL, " +
+                "`week_key` INTEGER NOT NULL, " + counterColumns() + "PRIMARY KEY(`user_id`, `week_key`))");
+        db.execSQL("CREATE TABLE IF NOT EXISTS `monthly_stats` (`user_id` TEXT NOT NULL, " +
+                "`month_key` INTEGER NOT NULL, " + counterColumns() + "PRIMARY KEY(`user_id`, `month_key`))");
+        db.execSQL("CREATE TABLE IF NOT EXISTS `lifetime_stats` (`user_id` TEXT NOT NULL, " +
+                counterColumns() + "`longest_streak` INTEGER NOT NULL, PRIMARY KEY(`user_id`))");
+    }
+
+    /**
+     * Triggeri se ne opisuju u entitetima, pa se prave i u migraciji i pri kreiranju baze
+     */
+    static void createTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS daily_stats_rollup_AFTER_INSERT AFTER INSERT ON daily_stats BEGIN " +
+                rollupStatements("0", "0", "0", "0", "0", "0", "0", "0") + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS daily_stats_rollup_AFTER_UPDATE AFTER UPDATE ON daily_stats BEGIN " +
+                rollupStatements("OLD.tasks_completed", "OLD.tasks_failed", "OLD.total_xp_earned",
+                        "OLD.very_easy_completed", "OLD.easy_completed", "OLD.hard_completed",
+                        "OLD.extreme_completed", "OLD.special_completed") + "END");
+    }
+
+    /**
+     * Jednokratno punjenje zbirova iz postojećih daily_stats redova (migracija)
+     */
+    static void rebuild(SupportSQLiteDatabase db) {
+        String sums = "SUM(tasks_completed), SUM(tasks_failed), SUM(total_xp_earned), " +
+                "SUM(CASE WHEN tasks_completed > 0 THEN 1 ELSE 0 END), SUM(very_easy_completed), " +
+                "SUM(easy_completed), SUM(hard_completed), SUM(extreme_completed), SUM(special_completed)";
+
+        db.execSQL("DELETE FROM weekly_stats");
+        db.execSQL("DELETE FROM monthly_stats");
+        db.execSQL("DELETE FROM lifetime_stats");
+        db.execSQL("INSERT INTO weekly_stats (user_id, week_key, " + COUNTERS + ") " +
+                "SELECT user_id, " + WEEK_KEY.replace("NEW.", "") + " AS week_key, " + sums +
+                " FROM daily_stats GROUP BY user_id, week_key");
+        db.execSQL("INSERT INTO monthly_stats (user_id, month_key, " + COUNTERS + ") " +
+                "SELECT user_id, " + MONTH_KEY.replace("NEW.", "") + " AS month_key, " + sums +
+                " FROM daily_stats GROUP BY user_id, month_key");
+        db.execSQL("INSERT INTO lifetime_stats (user_id, " + COUNTERS + ", longest_streak) " +
+                "SELECT user_id, " + sums + ", MAX(streak_count) FROM daily_stats GROUP BY user_id");
+    }
+
+    private static String counterColumns() {
+        StringBuilder columns = new StringBuilder();
+        for (String column : COUNTERS.split(", ")) {
+            columns.append('`').append(column).append("` INTEGER NOT NULL, ");
+        }
+        return columns.toString();
+    }
+
+    // INSERT OR IGNORE + UPDATE umesto ON CONFLICT DO UPDATE, koji SQLite pre API 30 ne podržava
+    private static String rollupStatements(String oldCompleted, String oldFailed, String oldXp,
+                                           String oldVeryEasy, String oldEasy, String oldHard,
+                                           String oldExtreme, String oldSpecial) {
+        String activeDelta = "(CASE WHEN " + oldCompleted + " = 0 AND NEW.tasks_completed > 0 THEN 1 " +
+                "WHEN " + oldCompleted + " > 0 AND NEW.tasks_completed = 0 THEN -1 ELSE 0 END)";
+        String deltas = "tasks_completed = tasks_completed + (NEW.tasks_completed - " + oldCompleted + "), " +
+                "tasks_failed = tasks_failed + (NEW.tasks_failed - " + oldFailed + "), " +
+                "total_xp_earned = total_xp_earned + (NEW.total_xp_earned - " + oldXp + "), " +
+                "active_days = active_days + " + activeDelta + ", " +
+                "very_easy_completed = very_easy_completed + (NEW.very_easy_completed - " + oldVeryEasy + "), " +
+                "easy_completed = easy_completed + (NEW.easy_completed - " + oldEasy + "), " +
+                "hard_completed = hard_completed + (NEW.hard_completed - " + oldHard + "), " +
+                "extreme_completed = extreme_completed + (NEW.extreme_completed - " + oldExtreme + "), " +
+                "special_completed = special_completed + (NEW.special_completed - " + oldSpecial + ")";
+        String zeros = "0, 0, 0, 0, 0, 0, 0, 0, 0";
+
+        return "INSERT OR IGNORE INTO weekly_stats (user_id, week_key, " + COUNTERS + ") " +
+                "VALUES (NEW.user_id, " + WEEK_KEY + ", " + zeros + "); " +
+                "UPDATE weekly_stats SET " + deltas +
+                " WHERE user_id = NEW.user_id AND week_key = " + WEEK_KEY + "; " +
+                "INSERT OR IGNORE INTO monthly_stats (user_id, month_key, " + COUNTERS + ") " +
+                "VALUES (NEW.user_id, " + MONTH_KEY + ", " + zeros + "); " +
+                "UPDATE monthly_stats SET " + deltas +
+                " WHERE user_id = NEW.user_id AND month_key = " + MONTH_KEY + "; " +
+                "INSERT OR IGNORE INTO lifetime_stats (user_id, " + COUNTERS + ", longest_streak) " +
+                "VALUES (NEW.user_id, " + zeros + ", 0); " +
+                "UPDATE lifetime_stats SET " + deltas + ", longest_streak = MAX(longest_streak, NEW.streak_count)" +
+                " WHERE user_id = NEW.user_id; ";
+    }
+}
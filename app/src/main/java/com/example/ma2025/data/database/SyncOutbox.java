@@ -0,0 +1,69 @@
+package com.example.ma2025.data.database;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import com.example.ma2025.data.database.entities.SyncOutboxEntity;
+
+/**
+ * SQL za sync_outbox. Triggeri nad tasks i categories upisuju po jedan red po izmenjenom
+ * zadatku ili kategoriji, pa se u outbox-u nalazi svaka izmena bez obzira na to koji
+ * DAO upit ju je napravio (i grupni UPDATE-i poput isteka zadataka).
+ * Trigger za izmenu reaguje samo na kolone sa sadržajem (UPDATE OF), pa upisi
+ * synced_to_firebase i firebase_id iz sinhronizacije ne vraćaju red u outbox.
+ */
+final class SyncOutbox {
+
+    private static final String TASK_CONTENT_COLUMNS = "user_id, title, description, category_id, difficulty, " +
+            "importance, is_repeating, parent_task_id, repeat_interval, repeat_unit, start_date, end_date, " +
+            "due_time, status, created_at, updated_at";
+    private static final String CATEGORY_CONTENT_COLUMNS = "user_id, name, color, created_at, updated_at";
+
+    private SyncOutbox() {
+    }
+
+    static void createTable(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS `sync_outbox` (`seq` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                "`entity_type` TEXT NOT NULL, `entity_id` INTEGER NOT NULL, `user_id` TEXT NOT NULL, " +
+                "`operation` INTEGER NOT NULL, `firebase_id` TEXT)");
+        db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_sync_outbox_entity_type_entity_id` " +
+                "ON `sync_outbox` (`entity_type`, `entity_id`)");
+    }
+
+    static void createTriggers(SupportSQLiteDatabase db) {
+        createTriggers(db, "tasks", SyncOutboxEntity.TYPE_TASK, TASK_CONTENT_COLUMNS);
+        createTriggers(db, "categories", SyncOutboxEntity.TYPE_CATEGORY, CATEGORY_CONTENT_COLUMNS);
+    }
+
+    /**
+     * Jednokratno punjenje (migracija): raniji kod je postavljao synced_to_firebase bez slanja,
+     * pa se šalje sve što još nema dokument u Firestore-u
+     */
+    static void enqueueUnsynced(SupportSQLiteDatabase db) {
+        enqueueUnsynced(db, "tasks", SyncOutboxEntity.TYPE_TASK);
+        enqueueUnsynced(db, "categories", SyncOutboxEntity.TYPE_CATEGORY);
+    }
+
+    private static void createTriggers(SupportSQLiteDatabase db, String table, String type, String contentColumns) {
+        String upsert = "INSERT OR REPLACE INTO sync_outbox (entity_type, entity_id, user_id, operation, firebase_id) " +
+                "VALUES ('" + type + "', NEW.id, NEW.user_id, " + SyncOutboxEntity.OPERATION_UPSERT + ", NEW.firebase_id); ";
+
+        // Novi redovi iz pull sinhronizacije dolaze već označeni kao sinhronizovani
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + table + "_outbox_AFTER_INSERT AFTER INSERT ON " + table +
+                " WHEN NEW.synced_to_firebase = 0 BEGIN " + upsert + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + table + "_outbox_AFTER_UPDATE AFTER UPDATE OF " + contentColumns +
+                " ON " + table + " BEGIN " + upsert +
+                "UPDATE " + table + " SET synced_to_firebase = 0 WHERE id = NEW.id AND synced_to_firebase != 0; END");
+        // Red koji nikad nije poslat samo izlazi iz outbox-a
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + table + "_outbox_AFTER_DELETE AFTER DELETE ON " + table + " BEGIN " +
+                "DELETE FROM sync_outbox WHERE entity_type = '" + type + "' AND entity_id = OLD.id; " +
+                "INSERT INTO sync_outbox (entity_type, entity_id, user_id, operation, firebase_id) " +
+                "SELECT '" + type + "', OLD.id, OLD.user_id, " + SyncOutboxEntity.OPERATION_DELETE + ", OLD.firebase_id " +
+                "WHERE OLD.firebase_id IS NOT NULL; END");
+    }
+
+    private static void enqueueUnsynced(SupportSQLiteDatabase db, String table, String type) {
+        db.execSQL("UPDATE " + table + " SET synced_to_firebase = 0 WHERE firebase_id IS NULL");
+        db.execSQL("INSERT OR REPLACE INTO sync_outbox (entity_type, entity_id, user_id, operation, firebase_id) " +
+                "SELECT '" + type + "', id, user_id, " + SyncOutboxEntity.OPERATION_UPSERT + ", firebase_id " +
+                "FROM " + table + " WHERE synced_to_firebase = 0");
+    }
+}
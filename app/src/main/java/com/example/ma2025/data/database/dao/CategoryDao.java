@@ -24,6 +24,10 @@ public interface CategoryDao {
     @Query("SELECT * FROM categories WHERE user_id = :userId ORDER BY name ASC")
     LiveData<List<CategoryEntity>> getAllCategories(String userId);
 
+    // Za CategoryIndex (pozadinska nit)
+    @Query("SELECT * FROM categories WHERE user_id = :userId")
+    List<CategoryEntity> getCategoriesSync(String userId);
+
     @Query("SELECT * FROM categories WHERE id = :categoryId")
     LiveData<CategoryEntity> getCategoryById(long categoryId);
 
@@ -42,6 +46,16 @@ public interface CategoryDao {
     @Query("UPDATE categories SET synced_to_firebase = 1, firebase_id = :firebaseId WHERE id = :categoryId")
     void markCategoryAsSynced(long categoryId, String firebaseId);
 
+    // Menja samo firebase_id - ne pokreće outbox trigger (SyncOutbox)
+    @Query("UPDATE categories SET firebase_id = :firebaseId WHERE id = :categoryId")
+    void setFirebaseId(long categoryId, String firebaseId);
+
+    @Query("SELECT * FROM categories WHERE id = :categoryId")
+    CategoryEntity getCategoryByIdSync(long categoryId);
+
+    @Query("SELECT * FROM categories WHERE firebase_id = :firebaseId LIMIT 1")
+    CategoryEntity getCategoryByFirebaseIdSync(String firebaseId);
+
     @Query("DELETE FROM categories WHERE user_id = :userId")
     void deleteAllUserCategories(String userId);
 }
\ No newline at end of file
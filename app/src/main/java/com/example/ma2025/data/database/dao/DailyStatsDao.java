@@ -5,20 +5,62 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 import androidx.lifecycle.LiveData;
 import com.example.ma2025.data.database.entities.DailyStatsEntity;
+import com.example.ma2025.data.database.entities.LifetimeStatsEntity;
+import com.example.ma2025.data.database.entities.MonthlyStatsEntity;
+import com.example.ma2025.data.database.entities.TaskEntity;
+import com.example.ma2025.data.database.entities.WeeklyStatsEntity;
+import com.example.ma2025.utils.DayKey;
 import java.util.List;
 
 @Dao
 public interface DailyStatsDao {
 
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertOrUpdateDailyStats(DailyStatsEntity dailyStats);
+    /**
+     * REPLACE bi obrisao stari red bez okidanja DELETE triggera, pa bi se zbirovi
+     * duplirali; postojeći red za (user_id, date) se zato ažurira
+     */
+    @Transaction
+    default void insertOrUpdateDailyStats(DailyStatsEntity dailyStats) {
+        DailyStatsEntity existing = getDailyStats(dailyStats.userId, dailyStats.date);
+        if (existing != null) {
+            dailyStats.id = existing.id;
+            updateDailyStats(dailyStats);
+        } else {
+            insertDailyStats(dailyStats);
+        }
+    }
+
+    @Insert(onConflict = OnConflictStrategy.ABORT)
+    long insertDailyStats(DailyStatsEntity dailyStats);
 
     @Update
     void updateDailyStats(DailyStatsEntity dailyStats);
 
+    // Atomsko uvećanje brojača: red za dan se kreira ako ne postoji (jedinstven indeks user_id, date)
+    @Query("INSERT OR IGNORE INTO daily_stats (user_id, date, tasks_completed, tasks_failed, total_xp_earned, " +
+            "streak_count, very_easy_completed, easy_completed, hard_completed, extreme_completed, special_completed) " +
+            "VALUES (:userId, :date, 0, 0, 0, 0, 0, 0, 0, 0, 0)")
+    void ensureDailyStats(String userId, long date);
+
+    @Query("UPDATE daily_stats SET tasks_completed = tasks_completed + 1, " +
+            "total_xp_earned = total_xp_earned + :xp, " +
+            "very_easy_completed = very_easy_completed + (CASE WHEN :difficulty = " + TaskEntity.DIFFICULTY_VERY_EASY + " THEN 1 ELSE 0 END), " +
+            "easy_completed = easy_completed + (CASE WHEN :difficulty = " + TaskEntity.DIFFICULTY_EASY + " THEN 1 ELSE 0 END), " +
+            "hard_completed = hard_completed + (CASE WHEN :difficulty = " + TaskEntity.DIFFICULTY_HARD + " THEN 1 ELSE 0 END), " +
+            "extreme_completed = extreme_completed + (CASE WHEN :difficulty = " + TaskEntity.DIFFICULTY_EXTREME + " THEN 1 ELSE 0 END) " +
+            "WHERE user_id = :userId AND date = :date")
+    void incrementDailyCompleted(String userId, long date, int difficulty, int xp);
+
+    @Query("UPDATE daily_stats SET tasks_failed = tasks_failed + 1 WHERE user_id = :userId AND date = :date")
+    void incrementTasksFailed(String userId, long date);
+
+    @Query("UPDATE daily_stats SET tasks_failed = tasks_failed + :count WHERE user_id = :userId AND date = :date")
+    void addTasksFailed(String userId, long date, int count);
+
     @Query("SELECT * FROM daily_stats WHERE user_id = :userId AND date = :date LIMIT 1")
     DailyStatsEntity getDailyStats(String userId, long date);
 
@@ -31,21 +73,81 @@ public interface DailyStatsDao {
     @Query("SELECT * FROM daily_stats WHERE user_id = :userId AND date BETWEEN :startDate AND :endDate ORDER BY date ASC")
     List<DailyStatsEntity> getStatsForDateRange(String userId, long startDate, long endDate);
 
-    @Query("SELECT SUM(total_xp_earned) FROM daily_stats WHERE user_id = :userId")
+    // Ukupne vrednosti se čitaju iz jednog reda lifetime_stats umesto SUM/MAX/COUNT nad celom istorijom
+    @Query("SELECT COALESCE((SELECT total_xp_earned FROM lifetime_stats WHERE user_id = :userId), 0)")
     int getTotalXpEarned(String userId);
 
-    @Query("SELECT SUM(tasks_completed) FROM daily_stats WHERE user_id = :userId")
+    @Query("SELECT COALESCE((SELECT tasks_completed FROM lifetime_stats WHERE user_id = :userId), 0)")
     int getTotalTasksCompleted(String userId);
 
-    @Query("SELECT MAX(streak_count) FROM daily_stats WHERE user_id = :userId")
+    @Query("SELECT COALESCE((SELECT longest_streak FROM lifetime_stats WHERE user_id = :userId), 0)")
     int getLongestStreak(String userId);
 
-    @Query("SELECT COUNT(*) FROM daily_stats WHERE user_id = :userId AND tasks_completed > 0")
+    @Query("SELECT COALESCE((SELECT active_days FROM lifetime_stats WHERE user_id = :userId), 0)")
     int getActiveDaysCount(String userId);
 
+    // ========== ROLLUPS ==========
+    // Redove održavaju triggeri nad daily_stats (StatsRollups), ovde se samo čitaju
+
+    @Query("SELECT * FROM lifetime_stats WHERE user_id = :userId")
+    LifetimeStatsEntity getLifetimeStats(String userId);
+
+    @Query("SELECT * FROM lifetime_stats WHERE user_id = :userId")
+    LiveData<LifetimeStatsEntity> observeLifetimeStats(String userId);
+
+    @Query("SELECT * FROM weekly_stats WHERE user_id = :userId AND week_key = :weekKey")
+    WeeklyStatsEntity getWeeklyStats(String userId, int weekKey);
+
+    @Query("SELECT * FROM weekly_stats WHERE user_id = :userId AND week_key = :weekKey")
+    LiveData<WeeklyStatsEntity> observeWeeklyStats(String userId, int weekKey);
+
+    @Query("SELECT * FROM weekly_stats WHERE user_id = :userId ORDER BY week_key DESC LIMIT :limit")
+    LiveData<List<WeeklyStatsEntity>> getRecentWeeklyStats(String userId, int limit);
+
+    @Query("SELECT * FROM monthly_stats WHERE user_id = :userId AND month_key = :monthKey")
+    MonthlyStatsEntity getMonthlyStats(String userId, int monthKey);
+
+    @Query("SELECT * FROM monthly_stats WHERE user_id = :userId AND month_key = :monthKey")
+    LiveData<MonthlyStatsEntity> observeMonthlyStats(String userId, int monthKey);
+
+    @Query("SELECT * FROM monthly_stats WHERE user_id = :userId ORDER BY month_key DESC LIMIT :limit")
+    LiveData<List<MonthlyStatsEntity>> getRecentMonthlyStats(String userId, int limit);
+
+    /**
+     * Ključ nedelje za weekly_stats: DayKey ponedeljka
+     */
+    static int weekKey(long timestamp) {
+        return DayKey.weekStart(DayKey.of(timestamp));
+    }
+
+    /**
+     * Ključ meseca za monthly_stats: godina * 100 + mesec
+     */
+    static int monthKey(long timestamp) {
+        int dayKey = DayKey.of(timestamp);
+        return DayKey.year(dayKey) * 100 + DayKey.month(dayKey);
+    }
+
     // ADDED: Missing method for cleanup
+    @Transaction
+    default void deleteAllUserStats(String userId) {
+        deleteDailyStats(userId);
+        deleteWeeklyStats(userId);
+        deleteMonthlyStats(userId);
+        deleteLifetimeStats(userId);
+    }
+
     @Query("DELETE FROM daily_stats WHERE user_id = :userId")
-    void deleteAllUserStats(String userId);
+    void deleteDailyStats(String userId);
+
+    @Query("DELETE FROM weekly_stats WHERE user_id = :userId")
+    void deleteWeeklyStats(String userId);
+
+    @Query("DELETE FROM monthly_stats WHERE user_id = :userId")
+    void deleteMonthlyStats(String userId);
+
+    @Query("DELETE FROM lifetime_stats WHERE user_id = :userId")
+    void deleteLifetimeStats(String userId);
 
     // ADDED: Get today's stats
     @Query("SELECT * FROM daily_stats WHERE user_id = :userId " +
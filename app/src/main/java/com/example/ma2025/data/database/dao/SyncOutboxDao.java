@@ -0,0 +1,36 @@
+package com.example.ma2025.data.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+import com.example.ma2025.data.database.entities.SyncOutboxEntity;
+import java.util.List;
+
+@Dao
+public interface SyncOutboxDao {
+
+    // Kategorije pre zadataka, da bi zadatak u istoj seriji već imao firebase_id kategorije
+    @Query("SELECT * FROM sync_outbox WHERE user_id = :userId " +
+            "ORDER BY CASE entity_type WHEN '" + SyncOutboxEntity.TYPE_CATEGORY + "' THEN 0 ELSE 1 END, seq " +
+            "LIMIT :limit")
+    List<SyncOutboxEntity> getPending(String userId, int limit);
+
+    @Query("SELECT COUNT(*) FROM sync_outbox WHERE user_id = :userId")
+    int getPendingCount(String userId);
+
+    @Query("SELECT COUNT(*) FROM sync_outbox")
+    int getPendingCount();
+
+    @Query("SELECT EXISTS(SELECT 1 FROM sync_outbox WHERE entity_type = :entityType AND entity_id = :entityId)")
+    boolean isPending(String entityType, long entityId);
+
+    // Brišu se samo poslati redovi; red zamenjen novom izmenom ima drugi seq i ostaje
+    @Query("DELETE FROM sync_outbox WHERE seq IN (:seqs)")
+    void deleteSent(List<Long> seqs);
+
+    // Pull sinhronizacija: primenjena udaljena verzija zamenjuje lokalnu izmenu koja je čekala
+    @Query("DELETE FROM sync_outbox WHERE entity_type = :entityType AND entity_id = :entityId")
+    void delete(String entityType, long entityId);
+
+    @Query("DELETE FROM sync_outbox WHERE user_id = :userId")
+    void deleteAllForUser(String userId);
+}
@@ -3,31 +3,152 @@ package com.example.ma2025.data.database.dao;
 import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.lifecycle.LiveData;
+import com.example.ma2025.data.database.AppDatabase;
 import com.example.ma2025.data.database.entities.TaskCompletionEntity;
+import com.example.ma2025.data.database.entities.TaskEntity;
+import com.example.ma2025.data.database.entities.UserProgressEntity;
+import com.example.ma2025.utils.DayKey;
+import com.example.ma2025.utils.LevelTable;
+import com.example.ma2025.utils.RecurrenceEngine;
 import java.util.List;
 
+/**
+ * Apstraktna klasa (a ne interfejs) da bi completeTask u istoj transakciji pozivao postojeće
+ * upite UserProgressDao i DailyStatsDao umesto njihovih kopija.
+ */
 @Dao
-public interface TaskCompletionDao {
+public abstract class TaskCompletionDao {
+    private final AppDatabase database;
+
+    public TaskCompletionDao(AppDatabase database) {
+        this.database = database;
+    }
 
     @Insert
-    long insertTaskCompletion(TaskCompletionEntity completion);
+    public abstract long insertTaskCompletion(TaskCompletionEntity completion);
 
     @Query("SELECT * FROM task_completions WHERE task_id = :taskId ORDER BY completion_date DESC")
-    LiveData<List<TaskCompletionEntity>> getCompletionsForTask(long taskId);
+    public abstract LiveData<List<TaskCompletionEntity>> getCompletionsForTask(long taskId);
+
+    // Svi upiti ispod čitaju samo task_completions (user_id, difficulty, importance i
+    // day_key su denormalizovani), pa koriste indekse (user_id, day_key) i
+    // (user_id, difficulty, completion_date) umesto JOIN-a i DATE() nad kolonom
+    @Query("SELECT * FROM task_completions WHERE user_id = :userId AND day_key = :dayKey")
+    public abstract List<TaskCompletionEntity> getCompletionsForDay(String userId, int dayKey);
 
-    @Query("SELECT * FROM task_completions tc INNER JOIN tasks t ON tc.task_id = t.id WHERE t.user_id = :userId AND DATE(tc.completion_date/1000, 'unixepoch') = DATE(:date/1000, 'unixepoch')")
-    List<TaskCompletionEntity> getCompletionsForDate(String userId, long date);
+    @Query("SELECT COALESCE(SUM(xp_earned), 0) FROM task_completions WHERE user_id = :userId AND day_key = :dayKey")
+    public abstract int getTotalXpForDay(String userId, int dayKey);
 
-    @Query("SELECT SUM(xp_earned) FROM task_completions tc INNER JOIN tasks t ON tc.task_id = t.id WHERE t.user_id = :userId AND DATE(tc.completion_date/1000, 'unixepoch') = DATE(:date/1000, 'unixepoch')")
-    int getTotalXpForDate(String userId, long date);
+    @Query("SELECT COUNT(*) FROM task_completions WHERE user_id = :userId AND completion_date BETWEEN :startDate AND :endDate")
+    public abstract int getCompletionsCount(String userId, long startDate, long endDate);
 
-    @Query("SELECT COUNT(*) FROM task_completions tc INNER JOIN tasks t ON tc.task_id = t.id WHERE t.user_id = :userId AND tc.completion_date BETWEEN :startDate AND :endDate")
-    int getCompletionsCount(String userId, long startDate, long endDate);
+    @Query("SELECT * FROM task_completions WHERE user_id = :userId ORDER BY completion_date DESC LIMIT :limit")
+    public abstract LiveData<List<TaskCompletionEntity>> getRecentCompletions(String userId, int limit);
 
-    @Query("SELECT * FROM task_completions tc INNER JOIN tasks t ON tc.task_id = t.id WHERE t.user_id = :userId ORDER BY tc.completion_date DESC LIMIT :limit")
-    LiveData<List<TaskCompletionEntity>> getRecentCompletions(String userId, int limit);
+    // Završetak ponavljajućeg zadatka zapisan direktno na master za dati dan
+    @Query("SELECT EXISTS(SELECT 1 FROM task_completions WHERE task_id = :taskId AND day_key = :dayKey)")
+    public abstract boolean isCompletedOnDay(long taskId, int dayKey);
 
     @Query("DELETE FROM task_completions WHERE task_id = :taskId")
-    void deleteCompletionsForTask(long taskId);
+    public abstract void deleteCompletionsForTask(long taskId);
+
+    // Jedan grupisani upit za punjenje XpQuotaLedger-a (sve kvote od :since pa nadalje)
+    @Query("SELECT difficulty, importance, completion_date, COUNT(*) AS count " +
+            "FROM task_completions " +
+            "WHERE user_id = :userId AND completion_date >= :since " +
+            "GROUP BY difficulty, importance, completion_date")
+    public abstract List<QuotaBucket> getQuotaBuckets(String userId, long since);
+
+    // ========== COMPLETION PIPELINE ==========
+
+    /**
+     * Završava zadatak u jednoj transakciji (jedan commit/fsync): status zadatka, zapis o
+     * završetku, XP i nivo, dnevna statistika i niz. Brojači se uvećavaju u SQL-u, pa
+     * istovremeni završeci ne gube XP. Vraća null ako je zadatak u međuvremenu već završen,
+     * a za ponavljajući zadatak i ako se tog dana ne pojavljuje ili je pojavljivanje već obrađeno.
+     */
+    @Transaction
+    public CompletionResult completeTask(TaskEntity task, boolean quotaAvailable,
+                                         long now, long dayStart, int dayKey) {
+        if (task.isRepeating) {
+            if (!canCompleteOccurrence(task, now, dayStart, dayKey)) {
+                return null;
+            }
+        } else if (markTaskCompleted(task.id, now) == 0) {
+            return null;
+        }
+
+        UserProgressDao userProgressDao = database.userProgressDao();
+        DailyStatsDao dailyStatsDao = database.dailyStatsDao();
+
+        userProgressDao.ensureUserProgress(task.userId, now);
+        UserProgressEntity progress = userProgressDao.getUserProgressSync(task.userId);
+
+        // Kvota utiče SAMO na XP, ne na završavanje
+        int xpEarned = quotaAvailable ? task.calculateXpValue(progress.currentLevel) : 0;
+
+        TaskCompletionEntity completion = new TaskCompletionEntity(task, xpEarned);
+        completion.updateCompletionDate(dayStart);
+        insertTaskCompletion(completion);
+
+        int ppGained = 0;
+        if (xpEarned > 0) {
+            userProgressDao.addXp(task.userId, xpEarned, now);
+
+            LevelTable levelTable = LevelTable.getInstance();
+            if (progress.currentXp + xpEarned >= levelTable.getXpForLevel(progress.currentLevel + 1)) {
+                int newLevel = progress.currentLevel + 1;
+                ppGained = LevelTable.toInt(levelTable.getPpForLevel(newLevel));
+                userProgressDao.levelUp(task.userId, newLevel, ppGained, now);
+            }
+        }
+
+        dailyStatsDao.ensureDailyStats(task.userId, dayStart);
+        dailyStatsDao.incrementDailyCompleted(task.userId, dayStart, task.difficulty, xpEarned);
+        userProgressDao.recordActiveDay(task.userId, dayKey, now);
+
+        return new CompletionResult(userProgressDao.getUserProgressSync(task.userId), xpEarned, ppGained);
+    }
+
+    // Master ostaje aktivan, pa se isti dan proverava kao u TaskRepository.failTask: mora postojati
+    // pojavljivanje, bez zasebnog reda koji nije aktivan i bez završetka zapisanog na master
+    private boolean canCompleteOccurrence(TaskEntity master, long now, long dayStart, int dayKey) {
+        if (RecurrenceEngine.getOccurrenceOnDay(master, now) == null) {
+            return false;
+        }
+
+        TaskEntity occurrence = database.taskDao().getOccurrenceSync(master.id, dayStart, DayKey.endOf(dayKey));
+        if (occurrence != null && occurrence.status != TaskEntity.STATUS_ACTIVE) {
+            return false;
+        }
+        return !isCompletedOnDay(master.id, dayKey);
+    }
+
+    @Query("UPDATE tasks SET status = " + TaskEntity.STATUS_COMPLETED + ", updated_at = :timestamp, " +
+            "synced_to_firebase = 0 WHERE id = :taskId AND status = " + TaskEntity.STATUS_ACTIVE)
+    public abstract int markTaskCompleted(long taskId, long timestamp);
+
+    // Inner classes for query results
+    public static class QuotaBucket {
+        public int difficulty;
+        public int importance;
+        public long completion_date;
+        public int count;
+
+        public QuotaBucket() {}
+    }
+
+    public static class CompletionResult {
+        public final UserProgressEntity progress;
+        public final int xpEarned;
+        public final int ppGained;
+
+        public CompletionResult(UserProgressEntity progress, int xpEarned, int ppGained) {
+            this.progress = progress;
+            this.xpEarned = xpEarned;
+            this.ppGained = ppGained;
+        }
+    }
 }
\ No newline at end of file
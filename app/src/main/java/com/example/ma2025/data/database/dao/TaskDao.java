@@ -1,13 +1,19 @@
 // Fixed TaskDao.java
 package com.example.ma2025.data.database.dao;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Dao;
 import androidx.room.Delete;
+import androidx.room.Embedded;
+import androidx.room.Ignore;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 import androidx.lifecycle.LiveData;
+import androidx.paging.PagingSource;
 import com.example.ma2025.data.database.entities.TaskEntity;
+import com.example.ma2025.data.models.CategoryIndex;
 import java.util.List;
 
 @Dao
@@ -31,6 +37,72 @@ public interface TaskDao {
     @Query("SELECT * FROM tasks WHERE id = :taskId")
     LiveData<TaskEntity> getTaskById(long taskId);
 
+    // ========== SEARCH ==========
+
+    int SEARCH_RESULT_LIMIT = 200;
+
+    /**
+     * Pretraga po prefiksu svake reči iz :query (npr. "tren tek" -> "tren* tek*").
+     * Upit mora sadržati bar jednu reč - vidi ftsPrefixQuery.
+     */
+    default LiveData<List<TaskEntity>> searchTasks(String userId, String query) {
+        return searchTasksFts(userId, ftsPrefixQuery(query, null), ftsPrefixQuery(query, "title"),
+                SEARCH_RESULT_LIMIT);
+    }
+
+    // FTS4 pretraga (tasks_fts); :titleQuery je isti upit ograničen na naslov, pa se
+    // pogoci u naslovu rangiraju ispred pogodaka samo u opisu, a zatim najnoviji prvi
+    @Query("SELECT t.* FROM tasks t INNER JOIN tasks_fts ON t.id = tasks_fts.rowid " +
+            "WHERE tasks_fts MATCH :matchQuery AND t.user_id = :userId " +
+            "ORDER BY (t.id IN (SELECT rowid FROM tasks_fts WHERE tasks_fts MATCH :titleQuery)) DESC, " +
+            "t.created_at DESC LIMIT :limit")
+    LiveData<List<TaskEntity>> searchTasksFts(String userId, String matchQuery, String titleQuery, int limit);
+
+    /**
+     * Pravi FTS MATCH izraz od korisničkog unosa: specijalni znakovi se odbacuju,
+     * a svaka reč postaje prefiks upit (opciono ograničen na kolonu). Prazan string ako nema reči.
+     */
+    static String ftsPrefixQuery(String query, String column) {
+        StringBuilder match = new StringBuilder();
+        if (query == null) {
+            return "";
+        }
+        for (String token : query.split("[^\\p{L}\\p{N}]+")) {
+            if (token.isEmpty()) continue;
+            if (match.length() > 0) match.append(' ');
+            if (column != null) match.append(column).append(':');
+            match.append(token).append('*');
+        }
+        return match.toString();
+    }
+
+    // ========== PAGING ==========
+
+    @Query("SELECT * FROM tasks WHERE user_id = :userId ORDER BY created_at DESC")
+    PagingSource<Integer, TaskEntity> getAllTasksPaged(String userId);
+
+    @Query("SELECT * FROM tasks WHERE user_id = :userId AND status = :status ORDER BY due_time ASC")
+    PagingSource<Integer, TaskEntity> getTasksByStatusPaged(String userId, int status);
+
+    @Query("SELECT * FROM tasks WHERE user_id = :userId AND category_id = :categoryId ORDER BY created_at DESC")
+    PagingSource<Integer, TaskEntity> getTasksByCategoryPaged(String userId, long categoryId);
+
+    // Lista zadataka: tip (jednokratni/ponavljajući), efektivni status (aktivan sa prošlim
+    // rokom se prikazuje kao neurađen) i samo današnji/budući zadaci
+    // Materijalizovana pojavljivanja (parent_task_id) prikazuju se uz ponavljajuće zadatke
+    // Naziv i boja kategorije dolaze istim upitom (LEFT JOIN), pa kartica ne radi dodatne upite
+    @Query("SELECT t.*, c.name AS category_name, c.color AS category_color FROM tasks t " +
+            "LEFT JOIN categories c ON c.id = t.category_id " +
+            "WHERE t.user_id = :userId " +
+            "AND (t.is_repeating = 1 OR t.parent_task_id IS NOT NULL) = :repeating " +
+            "AND (t.due_time IS NULL OR t.due_time >= :startOfToday " +
+            "OR (t.status = " + TaskEntity.STATUS_COMPLETED + " AND t.updated_at >= :startOfToday)) " +
+            "AND (CASE WHEN t.status = " + TaskEntity.STATUS_ACTIVE + " AND t.due_time IS NOT NULL AND t.due_time < :now " +
+            "THEN " + TaskEntity.STATUS_FAILED + " ELSE t.status END) = :effectiveStatus " +
+            "ORDER BY t.created_at DESC")
+    PagingSource<Integer, TaskWithCategory> getTaskListPaged(String userId, boolean repeating, int effectiveStatus,
+                                                       long startOfToday, long now);
+
     @Query("SELECT * FROM tasks WHERE user_id = :userId AND category_id = :categoryId")
     LiveData<List<TaskEntity>> getTasksByCategory(String userId, long categoryId);
 
@@ -40,21 +112,21 @@ public interface TaskDao {
     @Query("SELECT * FROM tasks WHERE user_id = :userId AND status = 0 AND due_time <= :currentTime")
     List<TaskEntity> getOverdueTasks(String userId, long currentTime);
 
+    @Query("SELECT COUNT(*) FROM tasks WHERE user_id = :userId AND status = 0 AND due_time <= :currentTime")
+    int getOverdueTasksCount(String userId, long currentTime);
+
     @Query("SELECT * FROM tasks WHERE user_id = :userId AND is_repeating = 1 AND status != 3")
     List<TaskEntity> getRepeatingTasks(String userId);
 
-    // FIXED: Use JOIN with task_completions table for completion_date
-    @Query("SELECT COUNT(*) FROM tasks t " +
-            "INNER JOIN task_completions tc ON t.id = tc.task_id " +
-            "WHERE t.user_id = :userId AND t.difficulty = :difficulty " +
-            "AND DATE(tc.completion_date/1000, 'unixepoch') = DATE(:date/1000, 'unixepoch')")
-    int getCompletedTasksCountByDifficultyAndDate(String userId, int difficulty, long date);
+    // Upiti nad task_completions koriste denormalizovane kolone (bez JOIN-a sa tasks)
+    // i lokalni day_key (DateUtils.getDayKey) umesto DATE() nad kolonom
+    @Query("SELECT COUNT(*) FROM task_completions " +
+            "WHERE user_id = :userId AND day_key = :dayKey AND difficulty = :difficulty")
+    int getCompletedTasksCountByDifficultyAndDay(String userId, int difficulty, int dayKey);
 
-    @Query("SELECT COUNT(*) FROM tasks t " +
-            "INNER JOIN task_completions tc ON t.id = tc.task_id " +
-            "WHERE t.user_id = :userId AND t.importance = :importance " +
-            "AND DATE(tc.completion_date/1000, 'unixepoch') = DATE(:date/1000, 'unixepoch')")
-    int getCompletedTasksCountByImportanceAndDate(String userId, int importance, long date);
+    @Query("SELECT COUNT(*) FROM task_completions " +
+            "WHERE user_id = :userId AND day_key = :dayKey AND importance = :importance")
+    int getCompletedTasksCountByImportanceAndDay(String userId, int importance, int dayKey);
 
     @Query("UPDATE tasks SET status = :newStatus, updated_at = :timestamp WHERE id = :taskId")
     void updateTaskStatus(long taskId, int newStatus, long timestamp);
@@ -65,24 +137,44 @@ public interface TaskDao {
     @Query("UPDATE tasks SET synced_to_firebase = 1, firebase_id = :firebaseId WHERE id = :taskId")
     void markTaskAsSynced(long taskId, String firebaseId);
 
+    // Menja samo firebase_id - ne pokreće outbox trigger (SyncOutbox)
+    @Query("UPDATE tasks SET firebase_id = :firebaseId WHERE id = :taskId")
+    void setFirebaseId(long taskId, String firebaseId);
+
+    @Query("SELECT * FROM tasks WHERE firebase_id = :firebaseId LIMIT 1")
+    TaskEntity getTaskByFirebaseIdSync(String firebaseId);
+
+    // Zaseban red za pojavljivanje master zadatka u danu [dayStart, dayEnd]
+    @Query("SELECT * FROM tasks WHERE parent_task_id = :masterTaskId " +
+            "AND start_date BETWEEN :dayStart AND :dayEnd LIMIT 1")
+    TaskEntity getOccurrenceSync(long masterTaskId, long dayStart, long dayEnd);
+
+    // Veza ka master zadatku koji je stigao kasnije u istoj pull sinhronizaciji
+    @Query("UPDATE tasks SET parent_task_id = :parentTaskId WHERE id = :taskId")
+    void setParentTaskId(long taskId, long parentTaskId);
+
     @Query("SELECT COUNT(*) FROM tasks WHERE user_id = :userId AND status = 1")
     int getTotalCompletedTasks(String userId);
 
     @Query("SELECT COUNT(*) FROM tasks WHERE user_id = :userId")
     int getTotalTasks(String userId);
 
-    // FIXED: Use JOIN with task_completions for completion dates
-    @Query("SELECT COUNT(*) FROM tasks t " +
-            "INNER JOIN task_completions tc ON t.id = tc.task_id " +
-            "WHERE t.user_id = :userId " +
-            "AND DATE(tc.completion_date/1000, 'unixepoch') = DATE(:date/1000, 'unixepoch')")
-    int getTasksCompletedOnDate(String userId, long date);
+    @Query("SELECT COUNT(*) FROM task_completions WHERE user_id = :userId AND day_key = :dayKey")
+    int getTasksCompletedOnDay(String userId, int dayKey);
 
-    @Query("SELECT t.difficulty, COUNT(*) as count FROM tasks t " +
-            "INNER JOIN task_completions tc ON t.id = tc.task_id " +
-            "WHERE t.user_id = :userId GROUP BY t.difficulty")
+    // Za popravku niza: svi dani sa završenim zadacima, od najnovijeg (indeks user_id, day_key)
+    @Query("SELECT DISTINCT day_key FROM task_completions WHERE user_id = :userId ORDER BY day_key DESC")
+    List<Integer> getCompletionDaysDescending(String userId);
+
+    @Query("SELECT difficulty, COUNT(*) as count FROM task_completions " +
+            "WHERE user_id = :userId GROUP BY difficulty")
     List<DifficultyCount> getCompletedTasksByDifficulty(String userId);
 
+    // Zbir težina i broj završenih po danu - svi završeni zadaci, i specijalni (indeks user_id, day_key)
+    @Query("SELECT day_key, SUM(difficulty) as difficulty_sum, COUNT(*) as count FROM task_completions " +
+            "WHERE user_id = :userId AND day_key BETWEEN :fromDay AND :toDay GROUP BY day_key")
+    List<DayDifficulty> getDifficultyByDay(String userId, int fromDay, int toDay);
+
     @Query("SELECT t.category_id, COUNT(*) as count FROM tasks t " +
             "INNER JOIN task_completions tc ON t.id = tc.task_id " +
             "WHERE t.user_id = :userId AND t.category_id IS NOT NULL GROUP BY t.category_id")
@@ -106,16 +198,14 @@ public interface TaskDao {
             "AND DATE(due_time/1000, 'unixepoch') = DATE(:date/1000, 'unixepoch')")
     LiveData<List<TaskEntity>> getActiveTasksForDate(String userId, long date);
 
-    @Query("SELECT COUNT(*) FROM tasks t " +
-            "INNER JOIN task_completions tc ON t.id = tc.task_id " +
-            "WHERE t.user_id = :userId AND t.difficulty = :difficulty " +
-            "AND tc.completion_date BETWEEN :startTime AND :endTime")
+    @Query("SELECT COUNT(*) FROM task_completions " +
+            "WHERE user_id = :userId AND difficulty = :difficulty " +
+            "AND completion_date BETWEEN :startTime AND :endTime")
     int getCompletedTasksCountByDifficultyAndDateRange(String userId, int difficulty, long startTime, long endTime);
 
-    @Query("SELECT COUNT(*) FROM tasks t " +
-            "INNER JOIN task_completions tc ON t.id = tc.task_id " +
-            "WHERE t.user_id = :userId AND t.importance = :importance " +
-            "AND tc.completion_date BETWEEN :startTime AND :endTime")
+    @Query("SELECT COUNT(*) FROM task_completions " +
+            "WHERE user_id = :userId AND importance = :importance " +
+            "AND completion_date BETWEEN :startTime AND :endTime")
     int getCompletedTasksCountByImportanceAndDateRange(String userId, int importance, long startTime, long endTime);
 
     @Query("SELECT COUNT(*) FROM tasks WHERE user_id = :userId AND status = 2")
@@ -145,11 +235,86 @@ public interface TaskDao {
             " AND due_time IS NOT NULL AND due_time < :expirationThreshold")
     List<TaskEntity> getExpiredActiveTasks(String userId, long expirationThreshold);
 
+    @Query("SELECT id FROM tasks WHERE user_id = :userId AND status = " + TaskEntity.STATUS_ACTIVE +
+            " AND due_time IS NOT NULL AND due_time < :expirationThreshold")
+    List<Long> getExpiredActiveTaskIds(String userId, long expirationThreshold);
+
+    @Query("UPDATE tasks SET status = " + TaskEntity.STATUS_FAILED + ", updated_at = :now, synced_to_firebase = 0 " +
+            "WHERE user_id = :userId AND status = " + TaskEntity.STATUS_ACTIVE +
+            " AND due_time IS NOT NULL AND due_time < :expirationThreshold")
+    int failExpiredActiveTasks(String userId, long expirationThreshold, long now);
+
+    /**
+     * Označava sve aktivne zadatke kojima je prošao grace period kao neurađene jednim UPDATE-om
+     * i vraća njihove id-jeve (u istoj transakciji, pa se skup ne menja između upita)
+     */
+    @Transaction
+    default List<Long> expireActiveTasks(String userId, long expirationThreshold, long now) {
+        List<Long> ids = getExpiredActiveTaskIds(userId, expirationThreshold);
+        if (!ids.isEmpty()) {
+            failExpiredActiveTasks(userId, expirationThreshold, now);
+        }
+        return ids;
+    }
+
     @Query("SELECT * FROM tasks WHERE user_id = :userId " +
             "AND created_at >= :startTime AND created_at <= :endTime " +
             "ORDER BY created_at ASC")
     List<TaskEntity> getTasksCreatedInPeriod(String userId, long startTime, long endTime);
 
+    // Statistika zadataka u jednom prolazu kroz indeks (user_id, status, due_time):
+    // broj po statusu, a za aktivne i koliko ih je prošlo rok
+    @Query("SELECT status, COUNT(*) AS count, " +
+            "SUM(CASE WHEN status = " + TaskEntity.STATUS_ACTIVE + " AND due_time <= :now THEN 1 ELSE 0 END) AS overdue " +
+            "FROM tasks WHERE user_id = :userId GROUP BY status")
+    List<StatusCount> getStatusCounts(String userId, long now);
+
+    // ========== CALENDAR ==========
+
+    // Datum zadatka u kalendaru: rok, pa datum početka, pa (za završene bez datuma) vreme završetka.
+    // Svaka grana UNION ALL-a koristi svoj indeks, pa upit zavisi samo od opsega, ne od cele istorije.
+    // Ponavljajući (master) zadaci su isključeni - njihova pojavljivanja računa RecurrenceEngine.
+    String CALENDAR_TASKS_IN_RANGE =
+            "SELECT * FROM tasks WHERE user_id = :userId AND is_repeating = 0 AND due_time BETWEEN :startTime AND :endTime " +
+            "UNION ALL SELECT * FROM tasks WHERE user_id = :userId AND is_repeating = 0 AND (due_time IS NULL OR due_time <= 0) " +
+            "AND start_date BETWEEN :startTime AND :endTime " +
+            "UNION ALL SELECT * FROM tasks WHERE user_id = :userId AND is_repeating = 0 AND status = " + TaskEntity.STATUS_COMPLETED + " " +
+            "AND (due_time IS NULL OR due_time <= 0) AND (start_date IS NULL OR start_date <= 0) " +
+            "AND updated_at BETWEEN :startTime AND :endTime";
+
+    @Query("SELECT CAST(julianday(display_time / 1000, 'unixepoch', 'localtime', 'start of day') - 2440587.5 AS INTEGER) AS day_key, " +
+            "COUNT(*) AS total, SUM(CASE WHEN status = " + TaskEntity.STATUS_COMPLETED + " THEN 1 ELSE 0 END) AS completed " +
+            "FROM (" +
+            "SELECT due_time AS display_time, status FROM tasks WHERE user_id = :userId AND is_repeating = 0 " +
+            "AND due_time BETWEEN :startTime AND :endTime " +
+            "UNION ALL SELECT start_date, status FROM tasks WHERE user_id = :userId AND is_repeating = 0 " +
+            "AND (due_time IS NULL OR due_time <= 0) AND start_date BETWEEN :startTime AND :endTime " +
+            "UNION ALL SELECT updated_at, status FROM tasks WHERE user_id = :userId AND is_repeating = 0 AND status = " + TaskEntity.STATUS_COMPLETED + " " +
+            "AND (due_time IS NULL OR due_time <= 0) AND (start_date IS NULL OR start_date <= 0) " +
+            "AND updated_at BETWEEN :startTime AND :endTime" +
+            ") GROUP BY day_key ORDER BY day_key")
+    LiveData<List<CalendarDaySummary>> getCalendarDaySummaries(String userId, long startTime, long endTime);
+
+    @Query(CALENDAR_TASKS_IN_RANGE + " ORDER BY created_at DESC")
+    LiveData<List<TaskEntity>> getCalendarTasksInRange(String userId, long startTime, long endTime);
+
+    // Ponavljajući zadaci čije trajanje preseca opseg
+    @Query("SELECT * FROM tasks WHERE user_id = :userId AND is_repeating = 1 AND parent_task_id IS NULL " +
+            "AND status != " + TaskEntity.STATUS_CANCELED + " AND start_date <= :endTime " +
+            "AND (end_date IS NULL OR end_date <= 0 OR end_date >= :startTime)")
+    LiveData<List<TaskEntity>> getRecurringTasksInRange(String userId, long startTime, long endTime);
+
+    // Pojavljivanja ponavljajućih zadataka koja postoje u bazi: zasebni redovi (materialized = 1)
+    // i završeci zapisani direktno na master zadatak (materialized = 0)
+    @Query("SELECT parent_task_id AS task_id, " +
+            "CAST(julianday(start_date / 1000, 'unixepoch', 'localtime', 'start of day') - 2440587.5 AS INTEGER) AS day_key, " +
+            "1 AS materialized FROM tasks WHERE user_id = :userId AND is_repeating = 0 " +
+            "AND parent_task_id IS NOT NULL AND start_date BETWEEN :startTime AND :endTime " +
+            "UNION ALL SELECT tc.task_id, tc.day_key, 0 FROM task_completions tc " +
+            "INNER JOIN tasks t ON t.id = tc.task_id AND t.is_repeating = 1 " +
+            "WHERE tc.user_id = :userId AND tc.completion_date BETWEEN :startTime AND :endTime")
+    LiveData<List<OccurrenceMarker>> getOccurrenceMarkers(String userId, long startTime, long endTime);
+
     // Inner classes for query results
     public static class DifficultyCount {
         public int difficulty;
@@ -158,10 +323,78 @@ public interface TaskDao {
         public DifficultyCount() {}
     }
 
+    public static class DayDifficulty {
+        public int day_key;
+        public int difficulty_sum;
+        public int count;
+
+        public DayDifficulty() {}
+    }
+
     public static class CategoryCount {
         public long category_id;
         public int count;
 
         public CategoryCount() {}
     }
+
+    // Broj zadataka i završenih za jedan dan u kalendaru (day_key = DateUtils.getDayKey)
+    public static class CalendarDaySummary {
+        public int day_key;
+        public int total;
+        public int completed;
+
+        public CalendarDaySummary() {}
+
+        public float getCompletionRatio() {
+            return total > 0 ? (float) completed / total : 0f;
+        }
+    }
+
+    public static class OccurrenceMarker {
+        public long task_id;
+        public int day_key;
+        public boolean materialized;
+
+        public OccurrenceMarker() {}
+    }
+
+    // Zadatak sa nazivom i bojom kategorije iz LEFT JOIN-a (null ako nema kategorije)
+    public static class TaskWithCategory {
+        @Embedded
+        public TaskEntity task;
+
+        @ColumnInfo(name = "category_name")
+        public String categoryName;
+
+        @ColumnInfo(name = "category_color")
+        public String categoryColor;
+
+        // Boja se parsira jednom po učitanom redu, ne pri svakom bind-u
+        @Ignore
+        private CategoryIndex.Entry category;
+        @Ignore
+        private boolean categoryResolved;
+
+        public TaskWithCategory() {}
+
+        public CategoryIndex.Entry getCategory() {
+            if (!categoryResolved) {
+                if (task != null && task.categoryId != null && categoryName != null) {
+                    category = new CategoryIndex.Entry(task.categoryId, categoryName,
+                            CategoryIndex.parseColor(categoryColor));
+                }
+                categoryResolved = true;
+            }
+            return category;
+        }
+    }
+
+    public static class StatusCount {
+        public int status;
+        public int count;
+        public int overdue;
+
+        public StatusCount() {}
+    }
 }
\ No newline at end of file
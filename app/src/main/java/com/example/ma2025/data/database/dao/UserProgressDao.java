@@ -23,6 +23,12 @@ public interface UserProgressDao {
     @Query("SELECT * FROM user_progress WHERE user_id = :userId")
     UserProgressEntity getUserProgressSync(String userId);
 
+    // Početni red za korisnika koji još nema napredak; postojeći red ostaje netaknut
+    @Query("INSERT OR IGNORE INTO user_progress (user_id, current_level, current_xp, total_pp, coins, " +
+            "current_streak, longest_streak, last_active_day, last_sync_timestamp, updated_at) " +
+            "VALUES (:userId, 1, 0, 40, 0, 0, 0, 0, 0, :timestamp)")
+    void ensureUserProgress(String userId, long timestamp);
+
     @Query("UPDATE user_progress SET current_xp = current_xp + :xp, updated_at = :timestamp WHERE user_id = :userId")
     void addXp(String userId, int xp, long timestamp);
 
@@ -35,6 +41,22 @@ public interface UserProgressDao {
     @Query("UPDATE user_progress SET current_streak = :streak, longest_streak = CASE WHEN :streak > longest_streak THEN :streak ELSE longest_streak END, updated_at = :timestamp WHERE user_id = :userId")
     void updateStreak(String userId, int streak, long timestamp);
 
+    // Niz se nastavlja ako je poslednji aktivan dan bio juče, a resetuje na 1 ako je bilo pauze.
+    // SQLite računa sve SET izraze nad starim vrednostima reda, pa longest_streak vidi stari niz.
+    @Query("UPDATE user_progress SET " +
+            "current_streak = CASE WHEN last_active_day = :dayKey THEN current_streak " +
+            "WHEN last_active_day = :dayKey - 1 THEN current_streak + 1 ELSE 1 END, " +
+            "longest_streak = MAX(longest_streak, CASE WHEN last_active_day = :dayKey THEN current_streak " +
+            "WHEN last_active_day = :dayKey - 1 THEN current_streak + 1 ELSE 1 END), " +
+            "last_active_day = :dayKey, updated_at = :timestamp " +
+            "WHERE user_id = :userId AND last_active_day <= :dayKey")
+    void recordActiveDay(String userId, int dayKey, long timestamp);
+
+    @Query("UPDATE user_progress SET current_streak = :streak, " +
+            "longest_streak = CASE WHEN :longestStreak > longest_streak THEN :longestStreak ELSE longest_streak END, " +
+            "last_active_day = :lastActiveDay, updated_at = :timestamp WHERE user_id = :userId")
+    void repairStreak(String userId, int streak, int longestStreak, int lastActiveDay, long timestamp);
+
     @Query("UPDATE user_progress SET last_sync_timestamp = :timestamp WHERE user_id = :userId")
     void updateLastSyncTime(String userId, long timestamp);
 
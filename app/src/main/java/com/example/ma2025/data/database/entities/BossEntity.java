@@ -4,6 +4,7 @@ import androidx.room.Entity;
 import androidx.room.PrimaryKey;
 import androidx.room.ColumnInfo;
 import androidx.annotation.NonNull;
+import com.example.ma2025.utils.LevelTable;
 
 @Entity(tableName = "bosses")
 public class BossEntity {
@@ -61,12 +62,7 @@ public class BossEntity {
      * Sledeći: HP prethodnog bosa * 2 + HP prethodnog bosa / 2
      */
     private int calculateBossHp(int level) {
-        if (level == 1) {
-            return 200;
-        }
-
-        int previousBossHp = calculateBossHp(level - 1);
-        return previousBossHp * 2 + previousBossHp / 2;
+        return LevelTable.toInt(LevelTable.getInstance().getBossHp(level));
     }
 
     /**
@@ -75,12 +71,7 @@ public class BossEntity {
      * Sledeći: 20% više nego prethodnji
      */
     private int calculateCoinsReward(int level) {
-        if (level == 1) {
-            return 200;
-        }
-
-        int previousReward = calculateCoinsReward(level - 1);
-        return (int) (previousReward * 1.2); // 20% više
+        return LevelTable.toInt(LevelTable.getInstance().getBossReward(level));
     }
 
     /**
@@ -10,7 +10,7 @@ import java.io.Serializable;
 
 @Entity(
         tableName = "categories",
-        indices = {@Index("user_id")}
+        indices = {@Index("user_id"), @Index("firebase_id")}
 )
 public class CategoryEntity implements Serializable {
     @PrimaryKey(autoGenerate = true)
@@ -8,7 +8,11 @@ import androidx.annotation.NonNull;
 
 @Entity(
         tableName = "daily_stats",
-        indices = {@Index("user_id"), @Index("date")}
+        indices = {
+                @Index("user_id"),
+                @Index("date"),
+                @Index(value = {"user_id", "date"}, unique = true)
+        }
 )
 public class DailyStatsEntity {
     @PrimaryKey(autoGenerate = true)
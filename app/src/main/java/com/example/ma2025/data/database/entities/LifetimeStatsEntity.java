@@ -0,0 +1,56 @@
+package com.example.ma2025.data.database.entities;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+import androidx.annotation.NonNull;
+
+/**
+ * Ukupni zbir daily_stats za korisnika (jedan red), da profil ne bi sabirao celu istoriju.
+ * Održavaju ga triggeri nad daily_stats (StatsRollups).
+ */
+@Entity(tableName = "lifetime_stats")
+public class LifetimeStatsEntity {
+    @PrimaryKey
+    @NonNull
+    @ColumnInfo(name = "user_id")
+    public String userId;
+
+    @ColumnInfo(name = "tasks_completed")
+    public int tasksCompleted;
+
+    @ColumnInfo(name = "tasks_failed")
+    public int tasksFailed;
+
+    @ColumnInfo(name = "total_xp_earned")
+    public int totalXpEarned;
+
+    @ColumnInfo(name = "active_days")
+    public int activeDays; // dani sa bar jednim završenim zadatkom
+
+    @ColumnInfo(name = "very_easy_completed")
+    public int veryEasyCompleted;
+
+    @ColumnInfo(name = "easy_completed")
+    public int easyCompleted;
+
+    @ColumnInfo(name = "hard_completed")
+    public int hardCompleted;
+
+    @ColumnInfo(name = "extreme_completed")
+    public int extremeCompleted;
+
+    @ColumnInfo(name = "special_completed")
+    public int specialCompleted;
+
+    @ColumnInfo(name = "longest_streak")
+    public int longestStreak; // najveći streak_count iz daily_stats
+
+    public LifetimeStatsEntity() {
+        this.userId = "";
+    }
+
+    public LifetimeStatsEntity(String userId) {
+        this.userId = userId;
+    }
+}
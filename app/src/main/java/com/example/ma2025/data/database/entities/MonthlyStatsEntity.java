@@ -0,0 +1,55 @@
+package com.example.ma2025.data.database.entities;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.annotation.NonNull;
+
+/**
+ * Zbir daily_stats po kalendarskom mesecu. Održavaju ga triggeri nad daily_stats
+ * u istoj transakciji kao i dnevni red (StatsRollups).
+ */
+@Entity(tableName = "monthly_stats", primaryKeys = {"user_id", "month_key"})
+public class MonthlyStatsEntity {
+    @NonNull
+    @ColumnInfo(name = "user_id")
+    public String userId;
+
+    @ColumnInfo(name = "month_key")
+    public int monthKey; // godina * 100 + mesec, npr. 202510
+
+    @ColumnInfo(name = "tasks_completed")
+    public int tasksCompleted;
+
+    @ColumnInfo(name = "tasks_failed")
+    public int tasksFailed;
+
+    @ColumnInfo(name = "total_xp_earned")
+    public int totalXpEarned;
+
+    @ColumnInfo(name = "active_days")
+    public int activeDays; // dani sa bar jednim završenim zadatkom
+
+    @ColumnInfo(name = "very_easy_completed")
+    public int veryEasyCompleted;
+
+    @ColumnInfo(name = "easy_completed")
+    public int easyCompleted;
+
+    @ColumnInfo(name = "hard_completed")
+    public int hardCompleted;
+
+    @ColumnInfo(name = "extreme_completed")
+    public int extremeCompleted;
+
+    @ColumnInfo(name = "special_completed")
+    public int specialCompleted;
+
+    public MonthlyStatsEntity() {
+        this.userId = "";
+    }
+
+    public MonthlyStatsEntity(String userId, int monthKey) {
+        this.userId = userId;
+        this.monthKey = monthKey;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.ma2025.data.database.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Red za slanje u Firestore: jedan red po zadatku ili kategoriji koji čeka sinhronizaciju.
+ * Pune ga triggeri nad tasks i categories (SyncOutbox) sa INSERT OR REPLACE, pa više izmena
+ * istog reda pre slanja ostaje jedan upis. Svaka zamena dobija novi seq, po čemu se
+ * prepoznaje izmena nastala dok je slanje bilo u toku.
+ */
+@Entity(
+        tableName = "sync_outbox",
+        indices = {@Index(value = {"entity_type", "entity_id"}, unique = true)}
+)
+public class SyncOutboxEntity {
+    public static final String TYPE_TASK = "task";
+    public static final String TYPE_CATEGORY = "category";
+
+    public static final int OPERATION_UPSERT = 0;
+    public static final int OPERATION_DELETE = 1;
+
+    @PrimaryKey(autoGenerate = true)
+    public long seq;
+
+    @NonNull
+    @ColumnInfo(name = "entity_type")
+    public String entityType;
+
+    @ColumnInfo(name = "entity_id")
+    public long entityId;
+
+    @NonNull
+    @ColumnInfo(name = "user_id")
+    public String userId;
+
+    @ColumnInfo(name = "operation")
+    public int operation;
+
+    // Za brisanje - dokument koji treba obrisati (red u tabeli više ne postoji)
+    @ColumnInfo(name = "firebase_id")
+    public String firebaseId;
+
+    public SyncOutboxEntity() {
+        entityType = TYPE_TASK;
+        userId = "";
+    }
+}
@@ -5,6 +5,9 @@ import androidx.room.PrimaryKey;
 import androidx.room.ColumnInfo;
 import androidx.room.ForeignKey;
 import androidx.room.Index;
+import androidx.annotation.NonNull;
+
+import com.example.ma2025.utils.DateUtils;
 
 @Entity(
         tableName = "task_completions",
@@ -14,7 +17,12 @@ import androidx.room.Index;
                 childColumns = "task_id",
                 onDelete = ForeignKey.CASCADE
         ),
-        indices = {@Index("task_id"), @Index("completion_date")}
+        indices = {
+                @Index("task_id"),
+                @Index("completion_date"),
+                @Index({"user_id", "day_key"}),
+                @Index({"user_id", "difficulty", "completion_date"})
+        }
 )
 public class TaskCompletionEntity {
     @PrimaryKey(autoGenerate = true)
@@ -23,9 +31,23 @@ public class TaskCompletionEntity {
     @ColumnInfo(name = "task_id")
     public long taskId;
 
+    // Denormalizovano iz tasks tabele da upiti ne bi morali da rade JOIN
+    @ColumnInfo(name = "user_id", defaultValue = "''")
+    @NonNull
+    public String userId;
+
+    @ColumnInfo(name = "difficulty", defaultValue = "0")
+    public int difficulty;
+
+    @ColumnInfo(name = "importance", defaultValue = "0")
+    public int importance;
+
     @ColumnInfo(name = "completion_date")
     public long completionDate; // timestamp when completed
 
+    @ColumnInfo(name = "day_key", defaultValue = "0")
+    public int dayKey; // lokalni dan završetka (DateUtils.getDayKey)
+
     @ColumnInfo(name = "xp_earned")
     public int xpEarned;
 
@@ -33,8 +55,10 @@ public class TaskCompletionEntity {
     public long createdAt;
 
     public TaskCompletionEntity() {
+        this.userId = "";
         this.createdAt = System.currentTimeMillis();
         this.completionDate = System.currentTimeMillis();
+        this.dayKey = DateUtils.getDayKey(this.completionDate);
     }
 
     public TaskCompletionEntity(long taskId, int xpEarned) {
@@ -42,4 +66,16 @@ public class TaskCompletionEntity {
         this.taskId = taskId;
         this.xpEarned = xpEarned;
     }
-}
\ No newline at end of file
+
+    public TaskCompletionEntity(TaskEntity task, int xpEarned) {
+        this(task.id, xpEarned);
+        this.userId = task.userId;
+        this.difficulty = task.difficulty;
+        this.importance = task.importance;
+    }
+
+    public void updateCompletionDate(long completionDate) {
+        this.completionDate = completionDate;
+        this.dayKey = DateUtils.getDayKey(completionDate);
+    }
+}
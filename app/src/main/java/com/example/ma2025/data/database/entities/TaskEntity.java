@@ -15,7 +15,16 @@ import androidx.annotation.NonNull;
                 childColumns = "category_id",
                 onDelete = ForeignKey.SET_NULL
         ),
-        indices = {@Index("category_id"), @Index("user_id"), @Index("parent_task_id")}
+        indices = {
+                @Index("category_id"),
+                @Index("user_id"),
+                @Index("parent_task_id"),
+                @Index({"user_id", "created_at"}),
+                @Index({"user_id", "status", "due_time"}),
+                @Index({"user_id", "due_time"}),
+                @Index({"user_id", "start_date"}),
+                @Index("firebase_id")
+        }
 )
 public class TaskEntity {
     @PrimaryKey(autoGenerate = true)
@@ -0,0 +1,26 @@
+package com.example.ma2025.data.database.entities;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+
+/**
+ * FTS4 indeks nad naslovom i opisom zadataka (external content = tasks).
+ * Room ga sinhronizuje triggerima na tasks tabeli, a rowid je jednak tasks.id.
+ * unicode61 tokenizer ne razlikuje velika/mala slova ni dijakritike (č, ć, š, ž, đ).
+ */
+@Fts4(contentEntity = TaskEntity.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "tasks_fts")
+public class TaskFtsEntity {
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    public long rowId;
+
+    @ColumnInfo(name = "title")
+    public String title;
+
+    @ColumnInfo(name = "description")
+    public String description;
+}
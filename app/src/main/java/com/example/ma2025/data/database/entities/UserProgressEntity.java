@@ -30,6 +30,9 @@ public class UserProgressEntity {
     @ColumnInfo(name = "longest_streak")
     public int longestStreak;
 
+    @ColumnInfo(name = "last_active_day", defaultValue = "0")
+    public int lastActiveDay; // DateUtils.getDayKey poslednjeg dana sa završenim zadatkom
+
     @ColumnInfo(name = "last_sync_timestamp")
     public long lastSyncTimestamp;
 
@@ -44,6 +47,7 @@ public class UserProgressEntity {
         this.coins = 0;
         this.currentStreak = 0;
         this.longestStreak = 0;
+        this.lastActiveDay = 0;
         this.lastSyncTimestamp = 0;
         this.updatedAt = System.currentTimeMillis();
     }
@@ -0,0 +1,482 @@
+package com.example.ma2025.data.database.instrumentation;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.CursorWrapper;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteTransactionListener;
+import android.os.CancellationSignal;
+import android.os.SystemClock;
+import android.util.Pair;
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Omotač oko SupportSQLiteOpenHelper.Factory koji meri svaku naredbu i upisuje je u QueryStats.
+ * Upit se meri od izvršavanja do zatvaranja kursora (uključuje čitanje redova u DAO-u),
+ * a broj redova je broj redova kursora. Naredbe pripremljene preko compileStatement
+ * (INSERT/UPDATE/DELETE iz Room-a) mere se pri izvršavanju.
+ */
+public class InstrumentedOpenHelperFactory implements SupportSQLiteOpenHelper.Factory {
+
+    private final SupportSQLiteOpenHelper.Factory delegate;
+    private final QueryStats stats;
+
+    public InstrumentedOpenHelperFactory(SupportSQLiteOpenHelper.Factory delegate, QueryStats stats) {
+        this.delegate = delegate;
+        this.stats = stats;
+    }
+
+    @NonNull
+    @Override
+    public SupportSQLiteOpenHelper create(@NonNull SupportSQLiteOpenHelper.Configuration configuration) {
+        return new InstrumentedOpenHelper(delegate.create(configuration), stats);
+    }
+
+    // ========== OPEN HELPER ==========
+
+    private static class InstrumentedOpenHelper implements SupportSQLiteOpenHelper {
+        private final SupportSQLiteOpenHelper delegate;
+        private final QueryStats stats;
+        private InstrumentedDatabase database;
+
+        InstrumentedOpenHelper(SupportSQLiteOpenHelper delegate, QueryStats stats) {
+            this.delegate = delegate;
+            this.stats = stats;
+        }
+
+        @Override
+        public String getDatabaseName() {
+            return delegate.getDatabaseName();
+        }
+
+        @Override
+        public void setWriteAheadLoggingEnabled(boolean enabled) {
+            delegate.setWriteAheadLoggingEnabled(enabled);
+        }
+
+        @NonNull
+        @Override
+        public SupportSQLiteDatabase getWritableDatabase() {
+            return wrap(delegate.getWritableDatabase());
+        }
+
+        @NonNull
+        @Override
+        public SupportSQLiteDatabase getReadableDatabase() {
+            return wrap(delegate.getReadableDatabase());
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+
+        private synchronized SupportSQLiteDatabase wrap(SupportSQLiteDatabase db) {
+            if (database == null || database.delegate != db) {
+                database = new InstrumentedDatabase(db, stats);
+            }
+            return database;
+        }
+    }
+
+    // ========== DATABASE ==========
+
+    private static class InstrumentedDatabase implements SupportSQLiteDatabase {
+        final SupportSQLiteDatabase delegate;
+        private final QueryStats stats;
+
+        InstrumentedDatabase(SupportSQLiteDatabase delegate, QueryStats stats) {
+            this.delegate = delegate;
+            this.stats = stats;
+        }
+
+        // ---------- mereni pozivi ----------
+
+        @NonNull
+        @Override
+        public Cursor query(@NonNull String query) {
+            return query(new SimpleSQLiteQuery(query));
+        }
+
+        @NonNull
+        @Override
+        public Cursor query(@NonNull String query, @NonNull Object[] bindArgs) {
+            return query(new SimpleSQLiteQuery(query, bindArgs));
+        }
+
+        @NonNull
+        @Override
+        public Cursor query(@NonNull SupportSQLiteQuery query) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            return new TimedCursor(delegate.query(query), query.getSql(), start, stats);
+        }
+
+        @NonNull
+        @Override
+        public Cursor query(@NonNull SupportSQLiteQuery query, CancellationSignal cancellationSignal) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            return new TimedCursor(delegate.query(query, cancellationSignal), query.getSql(), start, stats);
+        }
+
+        @NonNull
+        @Override
+        public SupportSQLiteStatement compileStatement(@NonNull String sql) {
+            return new TimedStatement(delegate.compileStatement(sql), sql, stats);
+        }
+
+        @Override
+        public void execSQL(@NonNull String sql) throws SQLException {
+            long start = SystemClock.elapsedRealtimeNanos();
+            try {
+                delegate.execSQL(sql);
+            } finally {
+                stats.record(sql, SystemClock.elapsedRealtimeNanos() - start, -1);
+            }
+        }
+
+        @Override
+        public void execSQL(@NonNull String sql, @NonNull Object[] bindArgs) throws SQLException {
+            long start = SystemClock.elapsedRealtimeNanos();
+            try {
+                delegate.execSQL(sql, bindArgs);
+            } finally {
+                stats.record(sql, SystemClock.elapsedRealtimeNanos() - start, -1);
+            }
+        }
+
+        @Override
+        public long insert(@NonNull String table, int conflictAlgorithm, @NonNull ContentValues values) throws SQLException {
+            long start = SystemClock.elapsedRealtimeNanos();
+            try {
+                return delegate.insert(table, conflictAlgorithm, values);
+            } finally {
+                stats.record("INSERT INTO " + table, SystemClock.elapsedRealtimeNanos() - start, 1);
+            }
+        }
+
+        @Override
+        public int delete(@NonNull String table, String whereClause, Object[] whereArgs) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            int rows = -1;
+            try {
+                rows = delegate.delete(table, whereClause, whereArgs);
+                return rows;
+            } finally {
+                stats.record(String.format(Locale.US, "DELETE FROM %s WHERE %s", table, whereClause),
+                        SystemClock.elapsedRealtimeNanos() - start, rows);
+            }
+        }
+
+        @Override
+        public int update(@NonNull String table, int conflictAlgorithm, @NonNull ContentValues values,
+                          String whereClause, Object[] whereArgs) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            int rows = -1;
+            try {
+                rows = delegate.update(table, conflictAlgorithm, values, whereClause, whereArgs);
+                return rows;
+            } finally {
+                stats.record(String.format(Locale.US, "UPDATE %s WHERE %s", table, whereClause),
+                        SystemClock.elapsedRealtimeNanos() - start, rows);
+            }
+        }
+
+        // ---------- prosleđeni pozivi ----------
+
+        @Override
+        public void beginTransaction() {
+            delegate.beginTransaction();
+        }
+
+        @Override
+        public void beginTransactionNonExclusive() {
+            delegate.beginTransactionNonExclusive();
+        }
+
+        @Override
+        public void beginTransactionWithListener(@NonNull SQLiteTransactionListener transactionListener) {
+            delegate.beginTransactionWithListener(transactionListener);
+        }
+
+        @Override
+        public void beginTransactionWithListenerNonExclusive(@NonNull SQLiteTransactionListener transactionListener) {
+            delegate.beginTransactionWithListenerNonExclusive(transactionListener);
+        }
+
+        @Override
+        public void endTransaction() {
+            delegate.endTransaction();
+        }
+
+        @Override
+        public void setTransactionSuccessful() {
+            delegate.setTransactionSuccessful();
+        }
+
+        @Override
+        public boolean inTransaction() {
+            return delegate.inTransaction();
+        }
+
+        @Override
+        public boolean isDbLockedByCurrentThread() {
+            return delegate.isDbLockedByCurrentThread();
+        }
+
+        @Override
+        public boolean yieldIfContendedSafely() {
+            return delegate.yieldIfContendedSafely();
+        }
+
+        @Override
+        public boolean yieldIfContendedSafely(long sleepAfterYieldDelayMillis) {
+            return delegate.yieldIfContendedSafely(sleepAfterYieldDelayMillis);
+        }
+
+        @Override
+        public int getVersion() {
+            return delegate.getVersion();
+        }
+
+        @Override
+        public void setVersion(int version) {
+            delegate.setVersion(version);
+        }
+
+        @Override
+        public long getMaximumSize() {
+            return delegate.getMaximumSize();
+        }
+
+        @Override
+        public long setMaximumSize(long numBytes) {
+            return delegate.setMaximumSize(numBytes);
+        }
+
+        @Override
+        public long getPageSize() {
+            return delegate.getPageSize();
+        }
+
+        @Override
+        public void setPageSize(long numBytes) {
+            delegate.setPageSize(numBytes);
+        }
+
+        @Override
+        public boolean isReadOnly() {
+            return delegate.isReadOnly();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return delegate.isOpen();
+        }
+
+        @Override
+        public boolean needUpgrade(int newVersion) {
+            return delegate.needUpgrade(newVersion);
+        }
+
+        @Override
+        public String getPath() {
+            return delegate.getPath();
+        }
+
+        @Override
+        public void setLocale(@NonNull Locale locale) {
+            delegate.setLocale(locale);
+        }
+
+        @Override
+        public void setMaxSqlCacheSize(int cacheSize) {
+            delegate.setMaxSqlCacheSize(cacheSize);
+        }
+
+        @Override
+        public void setForeignKeyConstraintsEnabled(boolean enabled) {
+            delegate.setForeignKeyConstraintsEnabled(enabled);
+        }
+
+        @Override
+        public boolean enableWriteAheadLogging() {
+            return delegate.enableWriteAheadLogging();
+        }
+
+        @Override
+        public void disableWriteAheadLogging() {
+            delegate.disableWriteAheadLogging();
+        }
+
+        @Override
+        public boolean isWriteAheadLoggingEnabled() {
+            return delegate.isWriteAheadLoggingEnabled();
+        }
+
+        @Override
+        public List<Pair<String, String>> getAttachedDbs() {
+            return delegate.getAttachedDbs();
+        }
+
+        @Override
+        public boolean isDatabaseIntegrityOk() {
+            return delegate.isDatabaseIntegrityOk();
+        }
+
+        @Override
+        public void execPerConnectionSQL(@NonNull String sql, Object[] bindArgs) {
+            delegate.execPerConnectionSQL(sql, bindArgs);
+        }
+
+        @Override
+        public boolean isExecPerConnectionSQLSupported() {
+            return delegate.isExecPerConnectionSQLSupported();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+
+    // ========== CURSOR ==========
+
+    /**
+     * Beleži upit kada se kursor zatvori; SQLite izvršava upit tek pri prvom čitanju
+     */
+    private static class TimedCursor extends CursorWrapper {
+        private final String sql;
+        private final long start;
+        private final QueryStats stats;
+        private boolean recorded;
+
+        TimedCursor(Cursor cursor, String sql, long start, QueryStats stats) {
+            super(cursor);
+            this.sql = sql;
+            this.start = start;
+            this.stats = stats;
+        }
+
+        @Override
+        public void close() {
+            if (!recorded) {
+                recorded = true;
+                int rows = isClosed() ? -1 : getCount();
+                stats.record(sql, SystemClock.elapsedRealtimeNanos() - start, rows);
+            }
+            super.close();
+        }
+    }
+
+    // ========== STATEMENT ==========
+
+    private static class TimedStatement implements SupportSQLiteStatement {
+        private final SupportSQLiteStatement delegate;
+        private final String sql;
+        private final QueryStats stats;
+
+        TimedStatement(SupportSQLiteStatement delegate, String sql, QueryStats stats) {
+            this.delegate = delegate;
+            this.sql = sql;
+            this.stats = stats;
+        }
+
+        @Override
+        public void execute() {
+            long start = SystemClock.elapsedRealtimeNanos();
+            try {
+                delegate.execute();
+            } finally {
+                stats.record(sql, SystemClock.elapsedRealtimeNanos() - start, -1);
+            }
+        }
+
+        @Override
+        public int executeUpdateDelete() {
+            long start = SystemClock.elapsedRealtimeNanos();
+            int rows = -1;
+            try {
+                rows = delegate.executeUpdateDelete();
+                return rows;
+            } finally {
+                stats.record(sql, SystemClock.elapsedRealtimeNanos() - start, rows);
+            }
+        }
+
+        @Override
+        public long executeInsert() {
+            long start = SystemClock.elapsedRealtimeNanos();
+            long rowId = -1;
+            try {
+                rowId = delegate.executeInsert();
+                return rowId;
+            } finally {
+                stats.record(sql, SystemClock.elapsedRealtimeNanos() - start, rowId >= 0 ? 1 : 0);
+            }
+        }
+
+        @Override
+        public long simpleQueryForLong() {
+            long start = SystemClock.elapsedRealtimeNanos();
+            try {
+                return delegate.simpleQueryForLong();
+            } finally {
+                stats.record(sql, SystemClock.elapsedRealtimeNanos() - start, 1);
+            }
+        }
+
+        @Override
+        public String simpleQueryForString() {
+            long start = SystemClock.elapsedRealtimeNanos();
+            try {
+                return delegate.simpleQueryForString();
+            } finally {
+                stats.record(sql, SystemClock.elapsedRealtimeNanos() - start, 1);
+            }
+        }
+
+        @Override
+        public void bindNull(int index) {
+            delegate.bindNull(index);
+        }
+
+        @Override
+        public void bindLong(int index, long value) {
+            delegate.bindLong(index, value);
+        }
+
+        @Override
+        public void bindDouble(int index, double value) {
+            delegate.bindDouble(index, value);
+        }
+
+        @Override
+        public void bindString(int index, @NonNull String value) {
+            delegate.bindString(index, value);
+        }
+
+        @Override
+        public void bindBlob(int index, @NonNull byte[] value) {
+            delegate.bindBlob(index, value);
+        }
+
+        @Override
+        public void clearBindings() {
+            delegate.clearBindings();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.ma2025.data.database.instrumentation;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Statistika izvršavanja SQL naredbi po tekstu naredbe: broj izvršavanja, p50/p95/max
+ * trajanje i broj vraćenih redova. Puni je InstrumentedOpenHelperFactory, a izveštaj se
+ * može ispisati u logcat ili fajl (debug meni).
+ */
+public class QueryStats {
+    private static final String TAG = "QueryStats";
+
+    // Naredbe sporije od ovoga se odmah loguju i broje kao spore
+    public static final long SLOW_QUERY_MILLIS = 50;
+
+    // Koliko poslednjih merenja se čuva po naredbi za računanje percentila
+    private static final int SAMPLE_SIZE = 256;
+
+    private static final QueryStats INSTANCE = new QueryStats();
+
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+
+    public static QueryStats getInstance() {
+        return INSTANCE;
+    }
+
+    void record(String sql, long durationNanos, int rows) {
+        StatementStats stats = statements.get(sql);
+        if (stats == null) {
+            statements.putIfAbsent(sql, new StatementStats(sql));
+            stats = statements.get(sql);
+        }
+
+        long durationMillis = durationNanos / 1_000_000;
+        stats.record(durationNanos, rows, durationMillis >= SLOW_QUERY_MILLIS);
+
+        if (durationMillis >= SLOW_QUERY_MILLIS) {
+            Log.w(TAG, "Slow query (" + durationMillis + " ms, " + rows + " rows): " + sql);
+        }
+    }
+
+    public void reset() {
+        statements.clear();
+    }
+
+    /**
+     * Naredbe sortirane po ukupnom vremenu, najskuplje prve
+     */
+    public List<StatementStats> getStatements() {
+        List<StatementStats> result = new ArrayList<>();
+        for (StatementStats stats : statements.values()) {
+            result.add(stats.copy());
+        }
+        Collections.sort(result, (a, b) -> Long.compare(b.totalNanos, a.totalNanos));
+        return result;
+    }
+
+    public void dumpToLogcat() {
+        for (StatementStats stats : getStatements()) {
+            Log.d(TAG, stats.toString());
+        }
+    }
+
+    public void dumpToFile(File file) throws IOException {
+        try (Writer writer = new FileWriter(file)) {
+            writer.write("count\tp50_ms\tp95_ms\tmax_ms\ttotal_ms\tavg_rows\tslow\tsql\n");
+            for (StatementStats stats : getStatements()) {
+                writer.write(stats.toTsv());
+                writer.write('\n');
+            }
+        }
+        Log.d(TAG, "Query report written to " + file.getAbsolutePath());
+    }
+
+    // ========== STATEMENT STATS ==========
+
+    public static class StatementStats {
+        public final String sql;
+        public int count;
+        public int slowCount;
+        public long totalNanos;
+        public long maxNanos;
+        public long totalRows;
+
+        private final long[] samples = new long[SAMPLE_SIZE];
+        private int sampleCount;
+
+        StatementStats(String sql) {
+            this.sql = sql;
+        }
+
+        synchronized void record(long durationNanos, int rows, boolean slow) {
+            samples[count % SAMPLE_SIZE] = durationNanos;
+            sampleCount = Math.min(sampleCount + 1, SAMPLE_SIZE);
+            count++;
+            totalNanos += durationNanos;
+            maxNanos = Math.max(maxNanos, durationNanos);
+            if (rows > 0) {
+                totalRows += rows;
+            }
+            if (slow) {
+                slowCount++;
+            }
+        }
+
+        synchronized StatementStats copy() {
+            StatementStats copy = new StatementStats(sql);
+            copy.count = count;
+            copy.slowCount = slowCount;
+            copy.totalNanos = totalNanos;
+            copy.maxNanos = maxNanos;
+            copy.totalRows = totalRows;
+            System.arraycopy(samples, 0, copy.samples, 0, SAMPLE_SIZE);
+            copy.sampleCount = sampleCount;
+            return copy;
+        }
+
+        public double getPercentileMillis(double percentile) {
+            if (sampleCount == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(samples, sampleCount);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+
+        public double getAverageRows() {
+            return count > 0 ? (double) totalRows / count : 0;
+        }
+
+        String toTsv() {
+            return String.format(Locale.US, "%d\t%.2f\t%.2f\t%.2f\t%.1f\t%.1f\t%d\t%s",
+                    count, getPercentileMillis(50), getPercentileMillis(95), maxNanos / 1_000_000.0,
+                    totalNanos / 1_000_000.0, getAverageRows(), slowCount, sql.replace('\n', ' '));
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "%dx p50=%.2fms p95=%.2fms max=%.2fms rows~%.1f slow=%d | %s",
+                    count, getPercentileMillis(50), getPercentileMillis(95), maxNanos / 1_000_000.0,
+                    getAverageRows(), slowCount, sql);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.ma2025.data.models;
+
+import android.graphics.Color;
+import android.util.Log;
+import com.example.ma2025.data.database.entities.CategoryEntity;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Nepromenljiv indeks kategorija korisnika (id -> naziv i već parsirana boja) za
+ * popunjavanje kartica zadataka bez upita u bazu i bez Color.parseColor pri svakom bind-u.
+ * Drži ga CategoryRepository i zamenjuje novim kada se promeni tabela categories.
+ */
+public final class CategoryIndex {
+    private static final String TAG = "CategoryIndex";
+
+    public static final CategoryIndex EMPTY = new CategoryIndex(Collections.emptyMap());
+
+    private final Map<Long, Entry> entries;
+
+    private CategoryIndex(Map<Long, Entry> entries) {
+        this.entries = entries;
+    }
+
+    public static CategoryIndex of(List<CategoryEntity> categories) {
+        if (categories == null || categories.isEmpty()) {
+            return EMPTY;
+        }
+        Map<Long, Entry> entries = new HashMap<>();
+        for (CategoryEntity category : categories) {
+            entries.put(category.id, new Entry(category.id, category.name, parseColor(category.color)));
+        }
+        return new CategoryIndex(Collections.unmodifiableMap(entries));
+    }
+
+    /**
+     * Kategorija sa datim id-jem ili null (zadatak bez kategorije ili obrisana kategorija)
+     */
+    public Entry get(Long categoryId) {
+        return categoryId != null ? entries.get(categoryId) : null;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Hex boja kategorije kao int, ili null ako nije zadata ili nije ispravna
+     */
+    public static Integer parseColor(String color) {
+        if (color == null || color.isEmpty()) {
+            return null;
+        }
+        try {
+            return Color.parseColor(color);
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Invalid category color: " + color);
+            return null;
+        }
+    }
+
+    public static final class Entry {
+        public final long id;
+        public final String name;
+        // null ako boja nije ispravna
+        public final Integer color;
+
+        public Entry(long id, String name, Integer color) {
+            this.id = id;
+            this.name = name;
+            this.color = color;
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.example.ma2025.data.models;
 
 import com.example.ma2025.data.database.entities.TaskEntity;
+import com.example.ma2025.utils.Constants;
 
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Napredak jednog člana u specijalnoj misiji - dokument missions/{id}/members/{userId}.
+ * Dokument menja samo taj član; getteri i šteta uvek računaju sa vrednostima ograničenim kvotom.
+ */
 public class MissionProgress {
     private String userId;
     private int storeVisits;
@@ -13,9 +18,10 @@ public class MissionProgress {
     private int hardTasksCompleted;
     private boolean noFailedTasks;
     private List<String> messageDays; // Čuva datume kada su poslate poruke
-    private int totalDamageDealt;
 
     public MissionProgress() {
+        // Dokument člana bez polja noFailedTasks još nema neuspešnih zadataka
+        this.noFailedTasks = true;
         this.messageDays = new ArrayList<>();
     }
 
@@ -27,19 +33,27 @@ public class MissionProgress {
         this.hardTasksCompleted = 0;
         this.noFailedTasks = true;
         this.messageDays = new ArrayList<>();
-        this.totalDamageDealt = 0;
     }
 
     // Getteri
     public String getUserId() { return userId; }
-    public int getStoreVisits() { return storeVisits; }
-    public int getSuccessfulAttacks() { return successfulAttacks; }
-    public int getEasyTasksCompleted() { return easyTasksCompleted; }
-    public int getHardTasksCompleted() { return hardTasksCompleted; }
+    public int getStoreVisits() { return Math.min(storeVisits, Constants.MISSION_QUOTA_STORE_VISITS); }
+    public int getSuccessfulAttacks() { return Math.min(successfulAttacks, Constants.MISSION_QUOTA_SUCCESSFUL_ATTACKS); }
+    public int getEasyTasksCompleted() { return Math.min(easyTasksCompleted, Constants.MISSION_QUOTA_EASY_TASKS); }
+    public int getHardTasksCompleted() { return Math.min(hardTasksCompleted, Constants.MISSION_QUOTA_HARD_TASKS); }
     public boolean isNoFailedTasks() { return noFailedTasks; }
     public List<String> getMessageDays() { return messageDays; }
-    public int getMessageDaysCount() { return messageDays != null ? messageDays.size() : 0; }
-    public int getTotalDamageDealt() { return totalDamageDealt; }
+
+    // Izvedene vrednosti nisu bean svojstva, pa ih Firestore ne upisuje u dokument člana
+    public int countMessageDays() { return messageDays != null ? messageDays.size() : 0; }
+
+    public int calculateTotalDamage() {
+        return getStoreVisits() * Constants.MISSION_DAMAGE_STORE_VISIT
+                + getSuccessfulAttacks() * Constants.MISSION_DAMAGE_SUCCESSFUL_ATTACK
+                + getEasyTasksCompleted() * Constants.MISSION_DAMAGE_EASY_TASK
+                + getHardTasksCompleted() * Constants.MISSION_DAMAGE_HARD_TASK
+                + countMessageDays() * Constants.MISSION_DAMAGE_MESSAGE_DAY;
+    }
 
     // Setteri
     public void setUserId(String userId) { this.userId = userId; }
@@ -51,7 +65,6 @@ public class MissionProgress {
     public void setMessageDays(List<String> messageDays) {
         this.messageDays = messageDays != null ? messageDays : new ArrayList<>();
     }
-    public void setTotalDamageDealt(int totalDamageDealt) { this.totalDamageDealt = totalDamageDealt; }
 
     // ========== GLAVNE METODE ZA SPECIJALNE ZADATKE ==========
 
@@ -61,7 +74,6 @@ public class MissionProgress {
     public boolean incrementStoreVisits() {
         if (storeVisits < 5) {
             storeVisits++;
-            totalDamageDealt += 2;
             return true;
         }
         return false;
@@ -73,7 +85,6 @@ public class MissionProgress {
     public boolean incrementSuccessfulAttacks() {
         if (successfulAttacks < 10) {
             successfulAttacks++;
-            totalDamageDealt += 2;
             return true;
         }
         return false;
@@ -85,11 +96,7 @@ public class MissionProgress {
     public boolean incrementEasyTasks(boolean isEasyAndNormal) {
         if (easyTasksCompleted < 10) {
             int increment = isEasyAndNormal ? 2 : 1;
-            int newValue = Math.min(easyTasksCompleted + increment, 10);
-            int actualIncrement = newValue - easyTasksCompleted;
-
-            easyTasksCompleted = newValue;
-            totalDamageDealt += actualIncrement;
+            easyTasksCompleted = Math.min(easyTasksCompleted + increment, 10);
             return true;
         }
         return false;
@@ -101,7 +108,6 @@ public class MissionProgress {
     public boolean incrementHardTasks() {
         if (hardTasksCompleted < 6) {
             hardTasksCompleted++;
-            totalDamageDealt += 4;
             return true;
         }
         return false;
@@ -117,7 +123,6 @@ public class MissionProgress {
 
         if (!messageDays.contains(date)) {
             messageDays.add(date);
-            totalDamageDealt += 4;
             return true;
         }
         return false;
@@ -1,20 +1,31 @@
 package com.example.ma2025.data.models;
 
+import com.google.firebase.firestore.Exclude;
+
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Dokument misije (missions/{id}). Napredak članova nije deo dokumenta nego podkolekcije
+ * members; bossHp i totalDamage se na dokumentu menjaju samo increment-om.
+ */
 public class SpecialMission {
     private String id;
     private String allianceId;
     private int bossHp;
     private int maxBossHp;
+    private int totalDamage;
     private long startTime;
     private long endTime;
     private boolean isCompleted;
+    private List<String> memberIds; // Članovi pri pokretanju - za upit misija korisnika
     private Map<String, MissionProgress> memberProgress;
 
     public SpecialMission() {
         this.memberProgress = new HashMap<>();
+        this.memberIds = new ArrayList<>();
         this.isCompleted = false;
     }
 
@@ -31,11 +42,15 @@ public class SpecialMission {
     // Getteri
     public String getId() { return id; }
     public String getAllianceId() { return allianceId; }
-    public int getBossHp() { return bossHp; }
+    // Increment-i posle pada na 0 mogu odvesti polje ispod nule
+    public int getBossHp() { return Math.max(0, bossHp); }
     public int getMaxBossHp() { return maxBossHp; }
+    public int getTotalDamage() { return totalDamage; }
     public long getStartTime() { return startTime; }
     public long getEndTime() { return endTime; }
     public boolean isCompleted() { return isCompleted; }
+    public List<String> getMemberIds() { return memberIds; }
+    @Exclude
     public Map<String, MissionProgress> getMemberProgress() { return memberProgress; }
 
     // Setteri
@@ -43,9 +58,12 @@ public class SpecialMission {
     public void setAllianceId(String allianceId) { this.allianceId = allianceId; }
     public void setBossHp(int bossHp) { this.bossHp = bossHp; }
     public void setMaxBossHp(int maxBossHp) { this.maxBossHp = maxBossHp; }
+    public void setTotalDamage(int totalDamage) { this.totalDamage = totalDamage; }
     public void setStartTime(long startTime) { this.startTime = startTime; }
     public void setEndTime(long endTime) { this.endTime = endTime; }
     public void setCompleted(boolean completed) { isCompleted = completed; }
+    public void setMemberIds(List<String> memberIds) { this.memberIds = memberIds; }
+    @Exclude
     public void setMemberProgress(Map<String, MissionProgress> memberProgress) { this.memberProgress = memberProgress; }
 
     // Utility metode
@@ -56,25 +74,6 @@ public class SpecialMission {
         }
     }
 
-    /**
-     * Ažurira HP bosa na osnovu ukupne štete svih članova
-     */
-    public void updateBossHp() {
-        int totalDamage = 0;
-
-        if (memberProgress != null) {
-            for (MissionProgress progress : memberProgress.values()) {
-                totalDamage += progress.getTotalDamageDealt();
-            }
-        }
-
-        this.bossHp = Math.max(0, maxBossHp - totalDamage);
-
-        if (this.bossHp <= 0) {
-            this.isCompleted = true;
-        }
-    }
-
     public boolean isExpired() {
         return System.currentTimeMillis() > endTime;
     }
@@ -0,0 +1,279 @@
+package com.example.ma2025.data.repositories;
+
+import android.util.Log;
+import com.example.ma2025.data.models.Alliance;
+import com.example.ma2025.data.models.SpecialMission;
+import com.example.ma2025.utils.Constants;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Savez trenutnog korisnika (id i članovi) i njegova aktivna specijalna misija, koje drže
+ * ažurnim dva snapshot listener-a: jedan nad savezom korisnika i jedan nad misijom saveza.
+ * Repozitorijumi čitaju vrednosti sinhrono, pa događaji u igri (zadatak, napad, kupovina,
+ * poruka) pronalaze savez i misiju bez čitanja sa mreže.
+ */
+public class AllianceContext {
+    private static final String TAG = "AllianceContext";
+
+    private static volatile AllianceContext INSTANCE;
+
+    private final FirebaseFirestore db;
+
+    private String userId;
+    private boolean allianceLoaded;
+    private String allianceId;
+    private List<String> memberIds = Collections.emptyList();
+
+    private boolean missionLoaded;
+    private DocumentSnapshot missionDocument;
+
+    private ListenerRegistration allianceRegistration;
+    private ListenerRegistration missionRegistration;
+
+    // Pozivi stigli pre prvog snapshot-a saveza
+    private final List<OnAllianceResolvedListener> waiting = new ArrayList<>();
+
+    public interface OnAllianceResolvedListener {
+        // allianceId je null kada korisnik nije u savezu
+        void onResolved(String allianceId);
+    }
+
+    private AllianceContext() {
+        db = FirebaseFirestore.getInstance();
+    }
+
+    public static AllianceContext getInstance() {
+        if (INSTANCE == null) {
+            synchronized (AllianceContext.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new AllianceContext();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Počinje praćenje saveza korisnika; ponovni poziv za istog korisnika ne radi ništa
+     */
+    public synchronized void start(String userId) {
+        if (userId == null || userId.equals(this.userId)) {
+            return;
+        }
+        stop();
+
+        this.userId = userId;
+        allianceRegistration = db.collection(Constants.COLLECTION_ALLIANCES)
+                .whereArrayContains("memberIds", userId)
+                .addSnapshotListener((snapshot, e) -> onAllianceChanged(userId, snapshot, e));
+        Log.d(TAG, "Watching alliance for user: " + userId);
+    }
+
+    /**
+     * Odjava - uklanja listener-e i briše keš
+     */
+    public synchronized void stop() {
+        if (allianceRegistration != null) {
+            allianceRegistration.remove();
+            allianceRegistration = null;
+        }
+        watchMission(null);
+
+        userId = null;
+        allianceLoaded = false;
+        allianceId = null;
+        memberIds = Collections.emptyList();
+        waiting.clear();
+    }
+
+    /**
+     * Savez korisnika iz keša; odgovor čeka samo prvi snapshot posle start-a
+     */
+    public void resolveAlliance(String userId, OnAllianceResolvedListener listener) {
+        String resolvedId;
+        synchronized (this) {
+            start(userId);
+            if (!allianceLoaded) {
+                waiting.add(listener);
+                return;
+            }
+            ensureMissionWatched();
+            resolvedId = allianceId;
+        }
+        listener.onResolved(resolvedId);
+    }
+
+    public synchronized String getAllianceId() {
+        return allianceId;
+    }
+
+    public synchronized List<String> getMemberIds() {
+        return memberIds;
+    }
+
+    /**
+     * Da li je stanje misije saveza poznato (stigao je bar jedan snapshot)
+     */
+    public synchronized boolean isMissionLoaded(String allianceId) {
+        ensureMissionWatched();
+        return missionLoaded && allianceId != null && allianceId.equals(this.allianceId);
+    }
+
+    /**
+     * Aktivna misija saveza iz keša; svaki poziv vraća novi objekat koji pozivalac sme da menja
+     */
+    public SpecialMission getActiveMission(String allianceId) {
+        DocumentSnapshot document;
+        synchronized (this) {
+            if (!isMissionLoaded(allianceId) || missionDocument == null) {
+                return null;
+            }
+            document = missionDocument;
+        }
+
+        SpecialMission mission = document.toObject(SpecialMission.class);
+        if (mission != null) {
+            mission.setId(document.getId());
+        }
+        return mission;
+    }
+
+    public String getActiveMissionId(String allianceId) {
+        synchronized (this) {
+            if (!isMissionLoaded(allianceId) || missionDocument == null) {
+                return null;
+            }
+            return missionDocument.getId();
+        }
+    }
+
+    private void onAllianceChanged(String forUserId, QuerySnapshot snapshot, FirebaseFirestoreException e) {
+        boolean failed = e != null || snapshot == null;
+        List<OnAllianceResolvedListener> ready;
+        String resolvedId;
+
+        synchronized (this) {
+            // Listener prethodnog korisnika
+            if (!forUserId.equals(userId)) {
+                return;
+            }
+
+            if (failed) {
+                // Firestore je uklonio listener - sledeći start/resolveAlliance ga ponovo kači
+                Log.e(TAG, "Error listening to user alliance", e);
+                allianceRegistration = null;
+                userId = null;
+                allianceLoaded = false;
+                allianceId = null;
+                memberIds = Collections.emptyList();
+                watchMission(null);
+            } else {
+                String newAllianceId = null;
+                List<String> newMemberIds = Collections.emptyList();
+
+                if (!snapshot.isEmpty()) {
+                    DocumentSnapshot document = snapshot.getDocuments().get(0);
+                    Alliance alliance = document.toObject(Alliance.class);
+                    newAllianceId = document.getId();
+                    if (alliance != null && alliance.getMemberIds() != null) {
+                        newMemberIds = Collections.unmodifiableList(new ArrayList<>(alliance.getMemberIds()));
+                    }
+                }
+
+                boolean allianceChanged = !Objects.equals(newAllianceId, allianceId);
+                allianceId = newAllianceId;
+                memberIds = newMemberIds;
+                allianceLoaded = true;
+
+                if (allianceChanged) {
+                    watchMission(newAllianceId);
+                }
+            }
+
+            resolvedId = allianceId;
+            ready = new ArrayList<>(waiting);
+            waiting.clear();
+        }
+
+        for (OnAllianceResolvedListener listener : ready) {
+            if (failed) {
+                resolveFromServer(forUserId, listener);
+            } else {
+                listener.onResolved(resolvedId);
+            }
+        }
+    }
+
+    // Posle greške listener-a čekaoci dobijaju odgovor jednim upitom, da ne bi ostali zaglavljeni
+    private void resolveFromServer(String userId, OnAllianceResolvedListener listener) {
+        new AllianceRepository().getUserAlliance(userId, new AllianceRepository.OnAllianceLoadedListener() {
+            @Override
+            public void onSuccess(Alliance alliance) {
+                listener.onResolved(alliance.getId());
+            }
+
+            @Override
+            public void onError(String error) {
+                Log.e(TAG, "Alliance fallback failed: " + error);
+                listener.onResolved(null);
+            }
+
+            @Override
+            public void onNotInAlliance() {
+                listener.onResolved(null);
+            }
+        });
+    }
+
+    // Listener misije uklonjen posle greške - ponovo se kači pri sledećem čitanju
+    private void ensureMissionWatched() {
+        if (allianceLoaded && allianceId != null && missionRegistration == null) {
+            watchMission(allianceId);
+        }
+    }
+
+    private void watchMission(String forAllianceId) {
+        if (missionRegistration != null) {
+            missionRegistration.remove();
+            missionRegistration = null;
+        }
+        missionLoaded = false;
+        missionDocument = null;
+
+        if (forAllianceId == null) {
+            return;
+        }
+
+        missionRegistration = db.collection(Constants.COLLECTION_MISSIONS)
+                .whereEqualTo("allianceId", forAllianceId)
+                .whereEqualTo("completed", false)
+                .limit(1)
+                .addSnapshotListener((snapshot, e) -> {
+                    synchronized (this) {
+                        if (!forAllianceId.equals(allianceId)) {
+                            return;
+                        }
+                        if (e != null || snapshot == null) {
+                            // Firestore je uklonio listener - keš se briše da se ne bi vraćala zastarela misija
+                            Log.e(TAG, "Error listening to active mission", e);
+                            missionRegistration = null;
+                            missionLoaded = false;
+                            missionDocument = null;
+                            return;
+                        }
+
+                        missionDocument = snapshot.isEmpty() ? null : snapshot.getDocuments().get(0);
+                        missionLoaded = true;
+                    }
+                });
+    }
+}
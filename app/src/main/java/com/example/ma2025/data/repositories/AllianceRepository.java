@@ -8,15 +8,14 @@ import com.example.ma2025.data.models.AllianceMessage;
 import com.example.ma2025.data.models.SpecialMission;
 import com.example.ma2025.data.models.User;
 import com.example.ma2025.utils.Constants;
+import com.example.ma2025.utils.DateUtils;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 
 public class AllianceRepository {
     private static final String TAG = "AllianceRepository";
@@ -429,8 +428,7 @@ public class AllianceRepository {
     }
 
     private void updateSpecialMissionForMessage(String allianceId, String senderId) {
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-        String currentDate = sdf.format(new Date());
+        String currentDate = DateUtils.formatStorageDate(System.currentTimeMillis());
 
         SpecialMissionRepository.getInstance().recordMessageSent(
                 allianceId,
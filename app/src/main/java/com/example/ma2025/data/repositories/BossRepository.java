@@ -1,8 +1,6 @@
 package com.example.ma2025.data.repositories;
 
 import android.content.Context;
-import android.os.Handler;
-import android.os.Looper;
 import android.util.Log;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
@@ -13,12 +11,11 @@ import com.example.ma2025.data.database.dao.TaskDao;
 import com.example.ma2025.data.database.entities.BossEntity;
 import com.example.ma2025.data.database.entities.UserProgressEntity;
 import com.example.ma2025.data.database.entities.TaskEntity;
-import com.example.ma2025.data.models.Alliance;
 import com.example.ma2025.data.models.SpecialMission;
+import com.example.ma2025.utils.AppExecutors;
 
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 
 public class BossRepository {
     private static final String TAG = "BossRepository";
@@ -26,7 +23,7 @@ public class BossRepository {
     private BossDao bossDao;
     private UserProgressDao userProgressDao;
     private TaskDao taskDao;
-    private ExecutorService executor;
+    private Executor executor;
     private static volatile BossRepository INSTANCE;
 
     private BossRepository(Context context) {
@@ -34,7 +31,7 @@ public class BossRepository {
         bossDao = database.bossDao();
         userProgressDao = database.userProgressDao();
         taskDao = database.taskDao();
-        executor = Executors.newFixedThreadPool(2);
+        executor = AppExecutors.getInstance().diskIO();
     }
 
     public static BossRepository getInstance(Context context) {
@@ -61,13 +58,13 @@ public class BossRepository {
                 boss.id = bossId;
 
                 if (callback != null) {
-                    new Handler(Looper.getMainLooper()).post(() ->
+                    AppExecutors.getInstance().mainThread().execute(() ->
                             callback.onSuccess("Bos kreiran za nivo " + level));
                 }
             } catch (Exception e) {
                 Log.e(TAG, "Error creating boss", e);
                 if (callback != null) {
-                    new Handler(Looper.getMainLooper()).post(() ->
+                    AppExecutors.getInstance().mainThread().execute(() ->
                             callback.onError("Greška pri kreiranju bosa: " + e.getMessage()));
                 }
             }
@@ -90,7 +87,7 @@ public class BossRepository {
                     // Provjeri da li bos za trenutni nivo postoji
                     LiveData<BossEntity> bossLiveData = bossDao.getBossForLevel(userId, currentLevel);
 
-                    new Handler(Looper.getMainLooper()).post(() -> {
+                    AppExecutors.getInstance().mainThread().execute(() -> {
                         bossLiveData.observeForever(boss -> {
                             if (boss == null) {
                                 // Ako bos ne postoji, kreiraj ga
@@ -130,7 +127,7 @@ public class BossRepository {
 
                 if (boss == null || userProgress == null) {
                     if (callback != null) {
-                        new Handler(Looper.getMainLooper()).post(() ->
+                        AppExecutors.getInstance().mainThread().execute(() ->
                                 callback.onAttackFailed("Bos ili korisnik nisu pronađeni"));
                     }
                     return;
@@ -138,7 +135,7 @@ public class BossRepository {
 
                 if (!boss.isAlive()) {
                     if (callback != null) {
-                        new Handler(Looper.getMainLooper()).post(() ->
+                        AppExecutors.getInstance().mainThread().execute(() ->
                                 callback.onAttackFailed("Bos je već poražen"));
                     }
                     return;
@@ -165,14 +162,14 @@ public class BossRepository {
                         rewardPlayer(userId, boss, callback);
                     } else {
                         if (callback != null) {
-                            new Handler(Looper.getMainLooper()).post(() ->
+                            AppExecutors.getInstance().mainThread().execute(() ->
                                     callback.onAttackSuccess(damage, boss.currentHp, false));
                         }
                     }
                 } else {
                     // Napad promašuje
                     if (callback != null) {
-                        new Handler(Looper.getMainLooper()).post(() ->
+                        AppExecutors.getInstance().mainThread().execute(() ->
                                 callback.onAttackMissed());
                     }
                 }
@@ -180,7 +177,7 @@ public class BossRepository {
             } catch (Exception e) {
                 Log.e(TAG, "Error attacking boss", e);
                 if (callback != null) {
-                    new Handler(Looper.getMainLooper()).post(() ->
+                    AppExecutors.getInstance().mainThread().execute(() ->
                             callback.onAttackFailed("Greška pri napadu: " + e.getMessage()));
                 }
             }
@@ -193,42 +190,30 @@ public class BossRepository {
     private void recordSuccessfulAttackInMission(String userId) {
         Log.d(TAG, "=== RECORDING ATTACK FOR USER: " + userId + " ===");
 
-        AllianceRepository allianceRepository = new AllianceRepository();
-        allianceRepository.getUserAlliance(userId,
-                new AllianceRepository.OnAllianceLoadedListener() {
-                    @Override
-                    public void onSuccess(Alliance alliance) {
-                        Log.d(TAG, "✅ Alliance found: " + alliance.getId() + ", name: " + alliance.getName());
-
-                        SpecialMissionRepository.getInstance().recordSuccessfulAttack(
-                                alliance.getId(),
-                                userId,
-                                new SpecialMissionRepository.OnTaskRecordedCallback() {
-                                    @Override
-                                    public void onSuccess(SpecialMission mission) {
-                                        Log.d(TAG, "✅✅ ATTACK RECORDED! Attacks: " +
-                                                mission.getMemberProgress().get(userId).getSuccessfulAttacks() +
-                                                ", Boss HP: " + mission.getBossHp());
-                                    }
-
-                                    @Override
-                                    public void onError(String error) {
-                                        Log.e(TAG, "❌ Failed to record attack: " + error);
-                                    }
-                                }
-                        );
-                    }
+        AllianceContext.getInstance().resolveAlliance(userId, allianceId -> {
+            if (allianceId == null) {
+                Log.e(TAG, "❌ User NOT in alliance");
+                return;
+            }
 
-                    @Override
-                    public void onError(String error) {
-                        Log.e(TAG, "❌ Alliance error: " + error);
-                    }
+            SpecialMissionRepository.getInstance().recordSuccessfulAttack(
+                    allianceId,
+                    userId,
+                    new SpecialMissionRepository.OnTaskRecordedCallback() {
+                        @Override
+                        public void onSuccess(SpecialMission mission) {
+                            Log.d(TAG, "✅✅ ATTACK RECORDED! Attacks: " +
+                                    mission.getMemberProgress().get(userId).getSuccessfulAttacks() +
+                                    ", Boss HP: " + mission.getBossHp());
+                        }
 
-                    @Override
-                    public void onNotInAlliance() {
-                        Log.e(TAG, "❌ User NOT in alliance");
+                        @Override
+                        public void onError(String error) {
+                            Log.e(TAG, "❌ Failed to record attack: " + error);
+                        }
                     }
-                });
+            );
+        });
     }
 
     /**
@@ -301,6 +286,7 @@ public class BossRepository {
                     if (userProgress != null) {
                         userProgress.addCoins(coinsReward);
                         userProgressDao.updateUserProgress(userProgress);
+                        ProgressSyncCoalescer.getInstance().recordDelta(userProgress, 0, 0, coinsReward);
                     }
                 }
 
@@ -309,7 +295,7 @@ public class BossRepository {
                 final boolean finalBossDefeated = bossDefeated;
 
                 if (callback != null) {
-                    new Handler(Looper.getMainLooper()).post(() -> {
+                    AppExecutors.getInstance().mainThread().execute(() -> {
                         if (finalBossDefeated) {
                             callback.onBossDefeated(finalCoinsReward, finalEquipmentType);
                         } else {
@@ -346,14 +332,14 @@ public class BossRepository {
                 }
 
                 if (callback != null) {
-                    new Handler(Looper.getMainLooper()).post(() ->
+                    AppExecutors.getInstance().mainThread().execute(() ->
                             callback.onSuccess("Neporaženi bosovi kreirani"));
                 }
 
             } catch (Exception e) {
                 Log.e(TAG, "Error creating undefeated bosses", e);
                 if (callback != null) {
-                    new Handler(Looper.getMainLooper()).post(() ->
+                    AppExecutors.getInstance().mainThread().execute(() ->
                             callback.onError("Greška: " + e.getMessage()));
                 }
             }
@@ -384,9 +370,10 @@ public class BossRepository {
 
             // Ažuriraj korisnikov progres
             userProgressDao.updateUserProgress(userProgress);
+            ProgressSyncCoalescer.getInstance().recordDelta(userProgress, 0, 0, defeatedBoss.coinsReward);
 
             if (callback != null) {
-                new Handler(Looper.getMainLooper()).post(() ->
+                AppExecutors.getInstance().mainThread().execute(() ->
                         callback.onBossDefeated(defeatedBoss.coinsReward, equipmentType));
             }
 
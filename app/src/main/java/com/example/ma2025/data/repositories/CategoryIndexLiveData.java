@@ -0,0 +1,70 @@
+package com.example.ma2025.data.repositories;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.room.InvalidationTracker;
+import com.example.ma2025.data.database.AppDatabase;
+import com.example.ma2025.data.database.dao.CategoryDao;
+import com.example.ma2025.data.models.CategoryIndex;
+
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * CategoryIndex korisnika koji se ponovo gradi samo kada Room javi izmenu tabele
+ * categories (InvalidationTracker). Instanca se čuva u CategoryRepository, pa novi
+ * posmatrač odmah dobija poslednji indeks.
+ */
+class CategoryIndexLiveData extends LiveData<CategoryIndex> {
+    private static final String TAG = "CategoryIndexLiveData";
+
+    private final AppDatabase database;
+    private final CategoryDao categoryDao;
+    private final Executor executor;
+    private final String userId;
+
+    // Više izmena pre nego što se upit izvrši spaja se u jedno čitanje
+    private final AtomicBoolean refreshPending = new AtomicBoolean(false);
+
+    private final InvalidationTracker.Observer categoriesObserver = new InvalidationTracker.Observer("categories") {
+        @Override
+        public void onInvalidated(@NonNull Set<String> tables) {
+            refresh();
+        }
+    };
+
+    CategoryIndexLiveData(AppDatabase database, Executor executor, String userId) {
+        super(CategoryIndex.EMPTY);
+        this.database = database;
+        this.categoryDao = database.categoryDao();
+        this.executor = executor;
+        this.userId = userId;
+    }
+
+    @Override
+    protected void onActive() {
+        database.getInvalidationTracker().addObserver(categoriesObserver);
+        refresh();
+    }
+
+    @Override
+    protected void onInactive() {
+        database.getInvalidationTracker().removeObserver(categoriesObserver);
+    }
+
+    private void refresh() {
+        if (!refreshPending.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            refreshPending.set(false);
+            try {
+                postValue(CategoryIndex.of(categoryDao.getCategoriesSync(userId)));
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading category index", e);
+            }
+        });
+    }
+}
@@ -6,25 +6,29 @@ import androidx.lifecycle.LiveData;
 import com.example.ma2025.data.database.AppDatabase;
 import com.example.ma2025.data.database.entities.CategoryEntity;
 import com.example.ma2025.data.database.dao.CategoryDao;
-import com.google.firebase.firestore.FirebaseFirestore;
+import com.example.ma2025.data.models.CategoryIndex;
+import com.example.ma2025.utils.AppExecutors;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 public class CategoryRepository {
     private static final String TAG = "CategoryRepository";
 
+    private AppDatabase database;
     private CategoryDao categoryDao;
-    private FirebaseFirestore firestore;
-    private ExecutorService executor;
+    private Executor executor;
+
+    // Indeks kategorija po korisniku - živi koliko i repozitorijum
+    private final Map<String, CategoryIndexLiveData> categoryIndexes = new ConcurrentHashMap<>();
 
     private static volatile CategoryRepository INSTANCE;
 
     private CategoryRepository(Context context) {
-        AppDatabase database = AppDatabase.getDatabase(context);
+        database = AppDatabase.getDatabase(context);
         categoryDao = database.categoryDao();
-        firestore = FirebaseFirestore.getInstance();
-        executor = Executors.newFixedThreadPool(2);
+        executor = AppExecutors.getInstance().diskIO();
     }
 
     public static CategoryRepository getInstance(Context context) {
@@ -68,9 +72,6 @@ public class CategoryRepository {
                 long categoryId = categoryDao.insertCategory(category);
                 category.id = categoryId;
 
-                // Sync to Firebase
-                syncCategoryToFirebase(category);
-
                 if (callback != null) {
                     callback.onSuccess("Kategorija je uspešno kreirana");
                 }
@@ -107,7 +108,6 @@ public class CategoryRepository {
                 }
 
                 categoryDao.updateCategory(category);
-                syncCategoryToFirebase(category);
 
                 if (callback != null) {
                     callback.onSuccess("Kategorija je uspešno ažurirana");
@@ -127,11 +127,6 @@ public class CategoryRepository {
             try {
                 categoryDao.deleteCategory(category);
 
-                // Delete from Firebase if synced
-                if (category.firebaseId != null) {
-                    deleteCategoryFromFirebase(category.firebaseId);
-                }
-
                 if (callback != null) {
                     callback.onSuccess("Kategorija je uspešno obrisana");
                 }
@@ -153,6 +148,20 @@ public class CategoryRepository {
         return categoryDao.getCategoryById(categoryId);
     }
 
+    /**
+     * Keširan indeks kategorija (naziv i parsirana boja po id-ju) za liste zadataka;
+     * ponovo se čita samo kada se promeni tabela categories
+     */
+    public LiveData<CategoryIndex> getCategoryIndex(String userId) {
+        CategoryIndexLiveData index = categoryIndexes.get(userId);
+        if (index == null) {
+            categoryIndexes.putIfAbsent(userId,
+                    new CategoryIndexLiveData(database, AppExecutors.getInstance().io(), userId));
+            index = categoryIndexes.get(userId);
+        }
+        return index;
+    }
+
     // ========== DEFAULT CATEGORIES ==========
 
     public void createDefaultCategories(String userId, OnCategoryOperationCallback callback) {
@@ -188,11 +197,7 @@ public class CategoryRepository {
                             defaultColors[i]
                     );
 
-                    long categoryId = categoryDao.insertCategory(category);
-                    category.id = categoryId;
-
-                    // Sync to Firebase
-                    syncCategoryToFirebase(category);
+                    categoryDao.insertCategory(category);
                 }
 
                 if (callback != null) {
@@ -243,38 +248,6 @@ public class CategoryRepository {
         return CategoryEntity.AVAILABLE_COLORS;
     }
 
-    // ========== FIREBASE SYNC ==========
-
-    private void syncCategoryToFirebase(CategoryEntity category) {
-        if (category.syncedToFirebase) return;
-
-        executor.execute(() -> {
-            try {
-                // TODO: Implement Firebase sync for categories
-                // Categories might be stored per user for backup/sync across devices
-                category.syncedToFirebase = true;
-                categoryDao.updateCategory(category);
-
-            } catch (Exception e) {
-                Log.e(TAG, "Error syncing category to Firebase", e);
-            }
-        });
-    }
-
-    private void deleteCategoryFromFirebase(String firebaseId) {
-        executor.execute(() -> {
-            try {
-                // TODO: Delete category from Firebase
-                firestore.collection("user_categories")
-                        .document(firebaseId)
-                        .delete();
-
-            } catch (Exception e) {
-                Log.e(TAG, "Error deleting category from Firebase", e);
-            }
-        });
-    }
-
     // ========== CALLBACKS ==========
 
     public interface OnCategoryOperationCallback {
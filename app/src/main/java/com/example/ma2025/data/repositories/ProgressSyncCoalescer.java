@@ -0,0 +1,204 @@
+package com.example.ma2025.data.repositories;
+
+import android.util.Log;
+import com.example.ma2025.data.database.entities.UserProgressEntity;
+import com.example.ma2025.utils.AppExecutors;
+import com.example.ma2025.utils.Constants;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Spaja izmene napretka (users/{uid}) i šalje ih najviše jednom po prozoru, ili odmah kada
+ * aplikacija ode u pozadinu (flushNow). Brojači (xp, pp, coins) se šalju kao FieldValue.increment
+ * zbira razlika, pa spojeni upis ostaje tačan i kada isti dokument menja i drugi uređaj;
+ * nivo i nizovi se šalju kao poslednja lokalna vrednost.
+ */
+public class ProgressSyncCoalescer {
+    private static final String TAG = "ProgressSyncCoalescer";
+
+    public static final long DEFAULT_FLUSH_WINDOW_MS = 30_000;
+
+    private static volatile ProgressSyncCoalescer INSTANCE;
+
+    private final FirebaseFirestore firestore;
+    private final Map<String, PendingProgress> pending = new HashMap<>();
+    private final Runnable flushRunnable = this::flush;
+
+    private long flushWindowMs = DEFAULT_FLUSH_WINDOW_MS;
+    private boolean flushScheduled;
+
+    // Izmene jednog korisnika od poslednjeg slanja
+    private static final class PendingProgress {
+        int xpDelta;
+        int ppDelta;
+        int coinsDelta;
+        // Reset - šalju se apsolutne vrednosti umesto increment-a
+        boolean replace;
+
+        int level;
+        int xp;
+        int pp;
+        int coins;
+        int currentStreak;
+        int longestStreak;
+        long updatedAt;
+
+        void setLatest(UserProgressEntity progress) {
+            level = progress.currentLevel;
+            xp = progress.currentXp;
+            pp = progress.totalPp;
+            coins = progress.coins;
+            currentStreak = progress.currentStreak;
+            longestStreak = progress.longestStreak;
+            updatedAt = progress.updatedAt;
+        }
+    }
+
+    private ProgressSyncCoalescer() {
+        firestore = FirebaseFirestore.getInstance();
+    }
+
+    public static ProgressSyncCoalescer getInstance() {
+        if (INSTANCE == null) {
+            synchronized (ProgressSyncCoalescer.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new ProgressSyncCoalescer();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    public synchronized void setFlushWindow(long flushWindowMs) {
+        this.flushWindowMs = flushWindowMs;
+    }
+
+    /**
+     * Beleži izmenu napretka: progress je stanje posle izmene, a delta vrednosti su
+     * promene brojača koje je ta izmena napravila
+     */
+    public synchronized void recordDelta(UserProgressEntity progress, int xpDelta, int ppDelta, int coinsDelta) {
+        PendingProgress change = pendingFor(progress.userId);
+        change.xpDelta += xpDelta;
+        change.ppDelta += ppDelta;
+        change.coinsDelta += coinsDelta;
+        change.setLatest(progress);
+        scheduleFlush();
+    }
+
+    /**
+     * Beleži izmenu kao razliku između sačuvanog i novog stanja
+     */
+    public void recordChange(UserProgressEntity before, UserProgressEntity after) {
+        recordDelta(after,
+                after.currentXp - before.currentXp,
+                after.totalPp - before.totalPp,
+                after.coins - before.coins);
+    }
+
+    /**
+     * Napredak je postavljen iz početka (reset) - dokument dobija tačne vrednosti
+     */
+    public synchronized void recordReplace(UserProgressEntity progress) {
+        PendingProgress change = pendingFor(progress.userId);
+        change.replace = true;
+        change.xpDelta = 0;
+        change.ppDelta = 0;
+        change.coinsDelta = 0;
+        change.setLatest(progress);
+        scheduleFlush();
+    }
+
+    /**
+     * Šalje odmah sve što čeka (aplikacija odlazi u pozadinu)
+     */
+    public void flushNow() {
+        AppExecutors.getInstance().mainHandler().removeCallbacks(flushRunnable);
+        flush();
+    }
+
+    private PendingProgress pendingFor(String userId) {
+        PendingProgress change = pending.get(userId);
+        if (change == null) {
+            change = new PendingProgress();
+            pending.put(userId, change);
+        }
+        return change;
+    }
+
+    private void scheduleFlush() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            AppExecutors.getInstance().mainHandler().postDelayed(flushRunnable, flushWindowMs);
+        }
+    }
+
+    private void flush() {
+        Map<String, PendingProgress> toSend;
+        synchronized (this) {
+            flushScheduled = false;
+            if (pending.isEmpty()) {
+                return;
+            }
+            toSend = new HashMap<>(pending);
+            pending.clear();
+        }
+
+        // Firestore čuva upis i bez mreže i šalje ga kada se veza vrati
+        for (Map.Entry<String, PendingProgress> entry : toSend.entrySet()) {
+            firestore.collection(Constants.COLLECTION_USERS)
+                    .document(entry.getKey())
+                    .set(toDocument(entry.getValue()), SetOptions.merge())
+                    .addOnSuccessListener(aVoid ->
+                            Log.d(TAG, "UserProgress synced to Firebase"))
+                    .addOnFailureListener(e ->
+                            Log.e(TAG, "Error syncing UserProgress to Firebase", e));
+        }
+    }
+
+    private static Map<String, Object> toDocument(PendingProgress change) {
+        Map<String, Object> progressData = new HashMap<>();
+        if (change.replace) {
+            progressData.put("xp", change.xp);
+            progressData.put("pp", change.pp);
+            progressData.put("coins", change.coins);
+        } else {
+            putIncrement(progressData, "xp", change.xpDelta);
+            putIncrement(progressData, "pp", change.ppDelta);
+            putIncrement(progressData, "coins", change.coinsDelta);
+        }
+        progressData.put("level", change.level);
+        progressData.put("currentStreak", change.currentStreak);
+        progressData.put("longestStreak", change.longestStreak);
+        progressData.put("title", getTitleForLevel(change.level));
+        progressData.put("updatedAt", change.updatedAt);
+        return progressData;
+    }
+
+    private static void putIncrement(Map<String, Object> data, String field, int delta) {
+        if (delta != 0) {
+            data.put(field, FieldValue.increment(delta));
+        }
+    }
+
+    private static String getTitleForLevel(int level) {
+        switch (level) {
+            case 0: return "Novajlija";
+            case 1: return "Početnik";
+            case 2: return "Istraživač";
+            case 3: return "Ratnik";
+            case 4: return "Veteran";
+            case 5: return "Majstor";
+            case 6: return "Ekspert";
+            case 7: return "Šampion";
+            case 8: return "Legenda";
+            case 9: return "Mitska Legenda";
+            case 10: return "Besmrtni";
+            default: return "Legenda (Nivo " + level + ")";
+        }
+    }
+}
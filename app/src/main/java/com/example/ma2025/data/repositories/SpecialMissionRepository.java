@@ -9,27 +9,41 @@ import com.example.ma2025.data.models.MissionProgress;
 import com.example.ma2025.data.models.Equipment;
 import com.example.ma2025.data.models.Badge;
 import com.example.ma2025.utils.Constants;
+import com.example.ma2025.utils.AppExecutors;
+import com.example.ma2025.utils.DateUtils;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+/**
+ * Specijalne misije saveza. Napredak svakog člana je poseban dokument u podkolekciji members
+ * koji menja samo taj član (transakcija čita samo njegov dokument), pa se događaji različitih
+ * članova ne sudaraju. HP bosa i ukupna šteta su na dokumentu misije i menjaju se samo kroz
+ * FieldValue.increment, bez čitanja misije u transakciji.
+ */
 public class SpecialMissionRepository {
     private static final String TAG = "SpecialMissionRepo";
+    private static final String SUBCOLLECTION_MEMBERS = "members";
 
     private FirebaseFirestore db;
-    private ExecutorService executor;
+    private Executor executor;
     private static volatile SpecialMissionRepository INSTANCE;
 
     private SpecialMissionRepository() {
         db = FirebaseFirestore.getInstance();
-        executor = Executors.newFixedThreadPool(2);
+        executor = AppExecutors.getInstance().io();
     }
 
     public static SpecialMissionRepository getInstance() {
@@ -59,17 +73,25 @@ public class SpecialMissionRepository {
                 mission.setEndTime(mission.getStartTime() +
                         (Constants.MISSION_DURATION_DAYS * 24 * 60 * 60 * 1000L));
                 mission.setCompleted(false);
+                mission.setMemberIds(new ArrayList<>(memberIds));
+
+                DocumentReference missionRef = db.collection(Constants.COLLECTION_MISSIONS).document();
+                mission.setId(missionRef.getId());
+
+                // Misija i dokumenti svih članova nastaju zajedno
+                WriteBatch batch = db.batch();
+                batch.set(missionRef, mission);
 
                 Map<String, MissionProgress> memberProgress = new HashMap<>();
                 for (String memberId : memberIds) {
-                    memberProgress.put(memberId, new MissionProgress(memberId));
+                    MissionProgress progress = new MissionProgress(memberId);
+                    memberProgress.put(memberId, progress);
+                    batch.set(membersCollection(mission.getId()).document(memberId), progress);
                 }
                 mission.setMemberProgress(memberProgress);
 
-                db.collection(Constants.COLLECTION_MISSIONS)
-                        .add(mission)
-                        .addOnSuccessListener(documentReference -> {
-                            mission.setId(documentReference.getId());
+                batch.commit()
+                        .addOnSuccessListener(aVoid -> {
                             Log.d(TAG, "Special mission created with ID: " + mission.getId());
                             callback.onSuccess(mission);
                         })
@@ -127,66 +149,85 @@ public class SpecialMissionRepository {
     public void recordTaskCompleted(String allianceId, String userId,
                                     int tezina, int bitnost, boolean isSuccess,
                                     OnTaskRecordedCallback callback) {
-        db.collection(Constants.COLLECTION_MISSIONS)
-                .whereEqualTo("allianceId", allianceId)
-                .whereEqualTo("completed", false)
-                .limit(1)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    if (querySnapshot.isEmpty()) {
-                        callback.onError("Nema aktivne misije");
-                        return;
-                    }
+        String actionType;
+        if (!isSuccess) {
+            actionType = "task_failed";
+        } else if (MissionProgress.isEasyTask(tezina, bitnost)) {
+            // "easy and normal" se računa 2 puta
+            actionType = MissionProgress.isEasyAndNormal(tezina, bitnost) ? "easy_normal_task" : "easy_task";
+        } else {
+            // Težak zadatak
+            actionType = "hard_task";
+        }
 
-                    DocumentSnapshot document = querySnapshot.getDocuments().get(0);
-                    SpecialMission mission = document.toObject(SpecialMission.class);
+        recordProgress(allianceId, userId, actionType, null, callback);
+    }
 
-                    if (mission == null || mission.isExpired()) {
-                        callback.onError("Misija je istekla");
-                        return;
-                    }
+    /**
+     * Registruje kupovinu u prodavnici
+     */
+    public void recordStoreVisit(String allianceId, String userId,
+                                 OnTaskRecordedCallback callback) {
+        recordProgress(allianceId, userId, "store_visit", null, callback);
+    }
 
-                    MissionProgress progress = mission.getMemberProgress().get(userId);
-                    if (progress == null) {
-                        progress = new MissionProgress(userId);
-                    }
+    /**
+     * Registruje uspešan udarac u regularnoj borbi
+     */
+    public void recordSuccessfulAttack(String allianceId, String userId,
+                                       OnTaskRecordedCallback callback) {
+        recordProgress(allianceId, userId, "successful_attack", null, callback);
+    }
 
-                    if (!isSuccess) {
-                        progress.taskFailed();
-                    } else {
-                        // Proveri da li je "easy and normal" (računa se 2 puta)
-                        boolean isEasyAndNormal = MissionProgress.isEasyAndNormal(tezina, bitnost);
+    /**
+     * Registruje poruku poslatu u savezu
+     */
+    public void recordMessageSent(String allianceId, String userId, String date,
+                                  OnTaskRecordedCallback callback) {
+        recordProgress(allianceId, userId, "message_day", date, callback);
+    }
 
-                        // Proveri da li je "easy" zadatak
-                        if (MissionProgress.isEasyTask(tezina, bitnost)) {
-                            progress.incrementEasyTasks(isEasyAndNormal);
-                        } else {
-                            // Težak zadatak
-                            progress.incrementHardTasks();
-                        }
+    private void recordProgress(String allianceId, String userId, String actionType, String date,
+                                OnTaskRecordedCallback callback) {
+        findActiveMission(allianceId, new OnMissionLoadedCallback() {
+            @Override
+            public void onSuccess(SpecialMission mission) {
+                applyProgress(mission, userId, actionType, date, new OnProgressUpdatedCallback() {
+                    @Override
+                    public void onSuccess(int damageDealt, int remainingBossHp) {
+                        Log.d(TAG, "Action " + actionType + " recorded for user " + userId);
+                        callback.onSuccess(mission);
                     }
 
-                    mission.getMemberProgress().put(userId, progress);
-                    mission.updateBossHp();
+                    @Override
+                    public void onError(String error) {
+                        callback.onError(error);
+                    }
+                });
+            }
 
-                    // Ažuriraj u bazi
-                    db.collection(Constants.COLLECTION_MISSIONS)
-                            .document(document.getId())
-                            .set(mission)
-                            .addOnSuccessListener(aVoid -> {
-                                Log.d(TAG, "Task recorded for user " + userId);
-                                callback.onSuccess(mission);
-                            })
-                            .addOnFailureListener(e -> callback.onError(e.getMessage()));
-                })
-                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        });
     }
 
-    /**
-     * Registruje kupovinu u prodavnici
-     */
-    public void recordStoreVisit(String allianceId, String userId,
-                                 OnTaskRecordedCallback callback) {
+    private void findActiveMission(String allianceId, OnMissionLoadedCallback callback) {
+        // Misija saveza iz keša (snapshot listener) - upit samo dok listener ne javi prvo stanje
+        AllianceContext allianceContext = AllianceContext.getInstance();
+        if (allianceContext.isMissionLoaded(allianceId)) {
+            SpecialMission mission = allianceContext.getActiveMission(allianceId);
+            if (mission == null) {
+                callback.onError("Nema aktivne misije");
+            } else if (mission.isExpired()) {
+                callback.onError("Misija je istekla");
+            } else {
+                callback.onSuccess(mission);
+            }
+            return;
+        }
+
         db.collection(Constants.COLLECTION_MISSIONS)
                 .whereEqualTo("allianceId", allianceId)
                 .whereEqualTo("completed", false)
@@ -206,66 +247,65 @@ public class SpecialMissionRepository {
                         return;
                     }
 
-                    MissionProgress progress = mission.getMemberProgress().get(userId);
-                    if (progress == null) {
-                        progress = new MissionProgress(userId);
-                    }
-
-                    progress.incrementStoreVisits();
-                    mission.getMemberProgress().put(userId, progress);
-                    mission.updateBossHp();
-
-                    db.collection(Constants.COLLECTION_MISSIONS)
-                            .document(document.getId())
-                            .set(mission)
-                            .addOnSuccessListener(aVoid -> {
-                                Log.d(TAG, "Store visit recorded for user " + userId);
-                                callback.onSuccess(mission);
-                            })
-                            .addOnFailureListener(e -> callback.onError(e.getMessage()));
+                    mission.setId(document.getId());
+                    callback.onSuccess(mission);
                 })
                 .addOnFailureListener(e -> callback.onError(e.getMessage()));
     }
 
     /**
-     * Registruje uspešan udarac u regularnoj borbi
+     * Primenjuje akciju člana. Transakcija čita samo dokument tog člana (kvote), a HP bosa i
+     * ukupnu štetu na dokumentu misije menja increment-om, pa se istovremeni događaji različitih
+     * članova ne ponavljaju. Posle upisa čita se samo dokument misije, i to kada je bilo štete.
+     * Član bez svog dokumenta (misija pokrenuta pre podkolekcije members) počinje od napretka
+     * iz stare mape memberProgress na dokumentu misije, da se kvote i bonus ne bi izgubili.
      */
-    public void recordSuccessfulAttack(String allianceId, String userId,
-                                       OnTaskRecordedCallback callback) {
-        db.collection(Constants.COLLECTION_MISSIONS)
-                .whereEqualTo("allianceId", allianceId)
-                .whereEqualTo("completed", false)
-                .limit(1)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    if (querySnapshot.isEmpty()) {
-                        callback.onError("Nema aktivne misije");
-                        return;
+    private void applyProgress(SpecialMission mission, String userId, String actionType, String date,
+                               OnProgressUpdatedCallback callback) {
+        DocumentReference missionRef = db.collection(Constants.COLLECTION_MISSIONS).document(mission.getId());
+        DocumentReference memberRef = membersCollection(mission.getId()).document(userId);
+
+        db.runTransaction(transaction -> {
+                    DocumentSnapshot memberDocument = transaction.get(memberRef);
+                    MissionProgress progress = memberDocument.toObject(MissionProgress.class);
+                    if (progress == null) {
+                        DocumentSnapshot missionDocument = transaction.get(missionRef);
+                        progress = legacyProgress(userId,
+                                missionDocument.get(FieldPath.of("memberProgress", userId)));
                     }
+                    progress.setUserId(userId);
 
-                    DocumentSnapshot document = querySnapshot.getDocuments().get(0);
-                    SpecialMission mission = document.toObject(SpecialMission.class);
+                    int damageDealt = updateUserProgress(progress, actionType, date);
+                    transaction.set(memberRef, progress);
+                    if (damageDealt > 0) {
+                        transaction.update(missionRef,
+                                "bossHp", FieldValue.increment(-damageDealt),
+                                "totalDamage", FieldValue.increment(damageDealt));
+                    }
 
-                    if (mission == null || mission.isExpired()) {
-                        callback.onError("Misija je istekla");
+                    mission.updateMemberProgress(userId, progress);
+                    return damageDealt;
+                })
+                .addOnSuccessListener(damageDealt -> {
+                    if (damageDealt == 0) {
+                        callback.onSuccess(0, mission.getBossHp());
                         return;
                     }
 
-                    MissionProgress progress = mission.getMemberProgress().get(userId);
-                    if (progress == null) {
-                        progress = new MissionProgress(userId);
-                    }
+                    missionRef.get()
+                            .addOnSuccessListener(document -> {
+                                Long bossHp = document.getLong("bossHp");
+                                Long totalDamage = document.getLong("totalDamage");
+                                if (bossHp != null) mission.setBossHp(bossHp.intValue());
+                                if (totalDamage != null) mission.setTotalDamage(totalDamage.intValue());
 
-                    progress.incrementSuccessfulAttacks();
-                    mission.getMemberProgress().put(userId, progress);
-                    mission.updateBossHp();
+                                Log.d(TAG, "Mission progress updated: " + damageDealt + " damage dealt");
 
-                    db.collection(Constants.COLLECTION_MISSIONS)
-                            .document(document.getId())
-                            .set(mission)
-                            .addOnSuccessListener(aVoid -> {
-                                Log.d(TAG, "Successful attack recorded for user " + userId);
-                                callback.onSuccess(mission);
+                                if (bossHp != null && bossHp <= 0
+                                        && !Boolean.TRUE.equals(document.getBoolean("completed"))) {
+                                    completeMission(mission);
+                                }
+                                callback.onSuccess(damageDealt, mission.getBossHp());
                             })
                             .addOnFailureListener(e -> callback.onError(e.getMessage()));
                 })
@@ -273,48 +313,95 @@ public class SpecialMissionRepository {
     }
 
     /**
-     * Registruje poruku poslatu u savezu
+     * Zatvara misiju u transakciji nad njenim dokumentom - kada više članova istovremeno
+     * obori bosa, nagrade deli samo onaj čija transakcija prva postavi completed
      */
-    public void recordMessageSent(String allianceId, String userId, String date,
-                                  OnTaskRecordedCallback callback) {
-        db.collection(Constants.COLLECTION_MISSIONS)
-                .whereEqualTo("allianceId", allianceId)
-                .whereEqualTo("completed", false)
-                .limit(1)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    if (querySnapshot.isEmpty()) {
-                        callback.onError("Nema aktivne misije");
-                        return;
+    private void completeMission(SpecialMission mission) {
+        DocumentReference missionRef = db.collection(Constants.COLLECTION_MISSIONS).document(mission.getId());
+
+        db.runTransaction(transaction -> {
+                    DocumentSnapshot snapshot = transaction.get(missionRef);
+                    if (Boolean.TRUE.equals(snapshot.getBoolean("completed"))) {
+                        return false;
+                    }
+                    transaction.update(missionRef, "completed", true, "bossHp", 0);
+                    return true;
+                })
+                .addOnSuccessListener(completedNow -> {
+                    if (Boolean.TRUE.equals(completedNow)) {
+                        handleMissionCompletion(mission);
                     }
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Error completing mission", e));
+    }
 
-                    DocumentSnapshot document = querySnapshot.getDocuments().get(0);
-                    SpecialMission mission = document.toObject(SpecialMission.class);
+    private CollectionReference membersCollection(String missionId) {
+        return db.collection(Constants.COLLECTION_MISSIONS)
+                .document(missionId)
+                .collection(SUBCOLLECTION_MEMBERS);
+    }
 
-                    if (mission == null || mission.isExpired()) {
-                        callback.onError("Misija je istekla");
-                        return;
-                    }
+    private static Map<String, MissionProgress> legacyMemberProgress(DocumentSnapshot missionDocument) {
+        Map<String, MissionProgress> memberProgress = new HashMap<>();
+        Object legacy = missionDocument.get("memberProgress");
+        if (legacy instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) legacy).entrySet()) {
+                String userId = String.valueOf(entry.getKey());
+                memberProgress.put(userId, legacyProgress(userId, entry.getValue()));
+            }
+        }
+        return memberProgress;
+    }
 
-                    MissionProgress progress = mission.getMemberProgress().get(userId);
-                    if (progress == null) {
-                        progress = new MissionProgress(userId);
-                    }
+    /**
+     * Napredak člana iz stare mape memberProgress (polja kao u MissionProgress);
+     * bez unosa član počinje od nule
+     */
+    private static MissionProgress legacyProgress(String userId, Object raw) {
+        MissionProgress progress = new MissionProgress(userId);
+        if (!(raw instanceof Map)) {
+            return progress;
+        }
 
-                    progress.addMessageDay(date != null ? date : getCurrentDate());
-                    mission.getMemberProgress().put(userId, progress);
-                    mission.updateBossHp();
+        Map<?, ?> fields = (Map<?, ?>) raw;
+        progress.setStoreVisits(intField(fields, "storeVisits"));
+        progress.setSuccessfulAttacks(intField(fields, "successfulAttacks"));
+        progress.setEasyTasksCompleted(intField(fields, "easyTasksCompleted"));
+        progress.setHardTasksCompleted(intField(fields, "hardTasksCompleted"));
 
-                    db.collection(Constants.COLLECTION_MISSIONS)
-                            .document(document.getId())
-                            .set(mission)
-                            .addOnSuccessListener(aVoid -> {
-                                Log.d(TAG, "Message day recorded for user " + userId);
-                                callback.onSuccess(mission);
-                            })
-                            .addOnFailureListener(e -> callback.onError(e.getMessage()));
-                })
-                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+        Object noFailedTasks = fields.get("noFailedTasks");
+        if (noFailedTasks instanceof Boolean) {
+            progress.setNoFailedTasks((Boolean) noFailedTasks);
+        }
+
+        Object messageDays = fields.get("messageDays");
+        if (messageDays instanceof List) {
+            List<String> days = new ArrayList<>();
+            for (Object day : (List<?>) messageDays) {
+                if (day instanceof String) {
+                    days.add((String) day);
+                }
+            }
+            progress.setMessageDays(days);
+        }
+        return progress;
+    }
+
+    private static int intField(Map<?, ?> fields, String name) {
+        Object value = fields.get(name);
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+
+    private static Map<String, MissionProgress> toMemberProgress(QuerySnapshot snapshot) {
+        Map<String, MissionProgress> memberProgress = new HashMap<>();
+        for (DocumentSnapshot document : snapshot.getDocuments()) {
+            MissionProgress progress = document.toObject(MissionProgress.class);
+            if (progress != null) {
+                progress.setUserId(document.getId());
+                memberProgress.put(document.getId(), progress);
+            }
+        }
+        return memberProgress;
     }
 
     public void updateMissionProgress(String missionId, String userId,
@@ -340,40 +427,15 @@ public class SpecialMissionRepository {
                         callback.onError("Misija je završena ili je istekla");
                         return;
                     }
+                    mission.setId(missionId);
 
-                    MissionProgress userProgress = mission.getMemberProgress().get(userId);
-                    if (userProgress == null) {
-                        userProgress = new MissionProgress(userId);
-                        mission.getMemberProgress().put(userId, userProgress);
-                    }
-
-                    int damageDealt = updateUserProgress(userProgress, actionType, date);
-
-                    if (damageDealt > 0) {
-                        mission.dealDamage(damageDealt);
-
-                        db.collection(Constants.COLLECTION_MISSIONS)
-                                .document(missionId)
-                                .set(mission)
-                                .addOnSuccessListener(aVoid -> {
-                                    Log.d(TAG, "Mission progress updated: " + damageDealt + " damage dealt");
-
-                                    if (mission.isCompleted()) {
-                                        handleMissionCompletion(mission, callback);
-                                    } else {
-                                        callback.onSuccess(damageDealt, mission.getBossHp());
-                                    }
-                                })
-                                .addOnFailureListener(e -> callback.onError(e.getMessage()));
-                    } else {
-                        callback.onSuccess(0, mission.getBossHp());
-                    }
+                    applyProgress(mission, userId, actionType, date, callback);
                 })
                 .addOnFailureListener(e -> callback.onError(e.getMessage()));
     }
 
     private int updateUserProgress(MissionProgress progress, String actionType, String date) {
-        int initialDamage = progress.getTotalDamageDealt();
+        int initialDamage = progress.calculateTotalDamage();
         boolean actionPerformed = false;
 
         switch (actionType) {
@@ -386,6 +448,9 @@ public class SpecialMissionRepository {
             case "easy_task":
                 actionPerformed = progress.incrementEasyTasks(false);
                 break;
+            case "easy_normal_task":
+                actionPerformed = progress.incrementEasyTasks(true);
+                break;
             case "hard_task":
                 actionPerformed = progress.incrementHardTasks();
                 break;
@@ -406,7 +471,7 @@ public class SpecialMissionRepository {
         }
 
         if (actionPerformed) {
-            int damageDealt = progress.getTotalDamageDealt() - initialDamage;
+            int damageDealt = progress.calculateTotalDamage() - initialDamage;
             Log.d(TAG, "Action " + actionType + " performed. Damage dealt: " + damageDealt);
             return damageDealt;
         } else {
@@ -416,8 +481,7 @@ public class SpecialMissionRepository {
     }
 
     private String getCurrentDate() {
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-        return sdf.format(new Date());
+        return DateUtils.formatStorageDate(System.currentTimeMillis());
     }
 
     public void getActiveMissionOnce(String allianceId, OnMissionLoadedCallback callback) {
@@ -442,25 +506,41 @@ public class SpecialMissionRepository {
                 });
     }
 
-    private void handleMissionCompletion(SpecialMission mission, OnProgressUpdatedCallback callback) {
+    private void handleMissionCompletion(SpecialMission mission) {
         Log.d(TAG, "Mission completed! Distributing rewards...");
 
-        Map<String, MissionProgress> memberProgress = mission.getMemberProgress();
-        for (Map.Entry<String, MissionProgress> entry : memberProgress.entrySet()) {
-            String userId = entry.getKey();
-            MissionProgress progress = entry.getValue();
+        // Dokumenti svih članova se čitaju samo jednom, pri zatvaranju misije; članovi bez
+        // dokumenta (starije misije) dobijaju napredak iz mape memberProgress na misiji
+        db.collection(Constants.COLLECTION_MISSIONS)
+                .document(mission.getId())
+                .get()
+                .continueWithTask(missionTask -> {
+                    DocumentSnapshot missionDocument = missionTask.getResult();
+                    return membersCollection(mission.getId()).get()
+                            .continueWith(membersTask -> {
+                                Map<String, MissionProgress> memberProgress = legacyMemberProgress(missionDocument);
+                                memberProgress.putAll(toMemberProgress(membersTask.getResult()));
+                                return memberProgress;
+                            });
+                })
+                .addOnSuccessListener(memberProgress -> {
+                    mission.setMemberProgress(memberProgress);
 
-            int finalBonus = progress.calculateFinalBonus();
-            if (finalBonus > 0) {
-                mission.dealDamage(finalBonus);
-                Log.d(TAG, "User " + userId + " gets " + finalBonus + " bonus for no failed tasks");
-            }
+                    for (Map.Entry<String, MissionProgress> entry : mission.getMemberProgress().entrySet()) {
+                        String userId = entry.getKey();
+                        MissionProgress progress = entry.getValue();
 
-            distributeRewardsToUser(userId, mission.getAllianceId(), progress);
-            createMissionBadge(userId, progress);
-        }
+                        int finalBonus = progress.calculateFinalBonus();
+                        if (finalBonus > 0) {
+                            mission.dealDamage(finalBonus);
+                            Log.d(TAG, "User " + userId + " gets " + finalBonus + " bonus for no failed tasks");
+                        }
 
-        callback.onSuccess(0, 0);
+                        distributeRewardsToUser(userId, mission.getAllianceId(), progress);
+                        createMissionBadge(userId, progress);
+                    }
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Error loading members for mission rewards", e));
     }
 
     private void distributeRewardsToUser(String userId, String allianceId, MissionProgress progress) {
@@ -518,7 +598,7 @@ public class SpecialMissionRepository {
                 progress.getSuccessfulAttacks() +
                 progress.getEasyTasksCompleted() +
                 progress.getHardTasksCompleted() +
-                progress.getMessageDaysCount();
+                progress.countMessageDays();
 
         Badge missionBadge = new Badge();
         missionBadge.setUserId(userId);
@@ -580,6 +660,7 @@ public class SpecialMissionRepository {
 
     public LiveData<SpecialMission> getActiveMission(String allianceId) {
         MutableLiveData<SpecialMission> missionLiveData = new MutableLiveData<>();
+        ActiveMissionState state = new ActiveMissionState(missionLiveData);
 
         db.collection(Constants.COLLECTION_MISSIONS)
                 .whereEqualTo("allianceId", allianceId)
@@ -595,18 +676,100 @@ public class SpecialMissionRepository {
                             SpecialMission mission = doc.toObject(SpecialMission.class);
                             if (mission != null && !mission.isExpired()) {
                                 mission.setId(doc.getId());
-                                missionLiveData.setValue(mission);
+                                state.setMission(mission);
                                 return;
                             }
                         }
                     }
 
-                    missionLiveData.setValue(null);
+                    state.setMission(null);
                 });
 
         return missionLiveData;
     }
 
+    /**
+     * Spaja dokument aktivne misije (HP bosa) i podkolekciju members (poseban listener) u jedan
+     * SpecialMission sa napretkom članova - članovi se čitaju samo dok je ekran misija otvoren
+     */
+    private class ActiveMissionState {
+        private final MutableLiveData<SpecialMission> target;
+        private SpecialMission mission;
+        private Map<String, MissionProgress> memberProgress;
+        private ListenerRegistration membersRegistration;
+
+        ActiveMissionState(MutableLiveData<SpecialMission> target) {
+            this.target = target;
+        }
+
+        void setMission(SpecialMission newMission) {
+            String oldId = mission != null ? mission.getId() : null;
+            String newId = newMission != null ? newMission.getId() : null;
+            mission = newMission;
+
+            if (!Objects.equals(oldId, newId)) {
+                if (membersRegistration != null) {
+                    membersRegistration.remove();
+                    membersRegistration = null;
+                }
+                memberProgress = null;
+
+                if (newId != null) {
+                    membersRegistration = membersCollection(newId).addSnapshotListener((snapshot, e) -> {
+                        if (e != null || snapshot == null) {
+                            Log.e(TAG, "Error listening to mission members", e);
+                            return;
+                        }
+                        memberProgress = toMemberProgress(snapshot);
+                        publish();
+                    });
+                }
+            }
+            publish();
+        }
+
+        private void publish() {
+            if (mission == null) {
+                target.setValue(null);
+                return;
+            }
+            // Ekran prikazuje napredak članova - čeka se prvi snapshot podkolekcije
+            if (memberProgress == null) {
+                return;
+            }
+            mission.setMemberProgress(memberProgress);
+            target.setValue(mission);
+        }
+    }
+
+    // ========== USER STATISTICS ==========
+
+    /**
+     * Broj specijalnih misija u kojima je korisnik učestvovao ("started") i završenih ("completed")
+     */
+    public void getUserMissionStatistics(String userId, OnMissionStatisticsCallback callback) {
+        db.collection(Constants.COLLECTION_MISSIONS)
+                .whereArrayContains("memberIds", userId)
+                .get()
+                .addOnSuccessListener(querySnapshot -> {
+                    int completed = 0;
+                    for (DocumentSnapshot document : querySnapshot.getDocuments()) {
+                        if (Boolean.TRUE.equals(document.getBoolean("completed"))) {
+                            completed++;
+                        }
+                    }
+
+                    Map<String, Object> statistics = new HashMap<>();
+                    statistics.put("started", querySnapshot.size());
+                    statistics.put("completed", completed);
+                    callback.onSuccess(statistics);
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error loading mission statistics", e);
+                    callback.onError(e.getMessage());
+                });
+    }
+
     // ========== CALLBACK INTERFACES ==========
 
     public interface OnMissionCreatedCallback {
@@ -0,0 +1,232 @@
+package com.example.ma2025.data.repositories;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.room.InvalidationTracker;
+import com.example.ma2025.data.database.AppDatabase;
+import com.example.ma2025.data.database.dao.DailyStatsDao;
+import com.example.ma2025.data.database.dao.TaskDao;
+import com.example.ma2025.data.database.entities.DailyStatsEntity;
+import com.example.ma2025.data.database.entities.LifetimeStatsEntity;
+import com.example.ma2025.data.database.entities.TaskEntity;
+import com.example.ma2025.utils.AppExecutors;
+import com.example.ma2025.utils.DayKey;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Računa sve serije za ekran statistike (završeni po težini i kategoriji, XP po danu,
+ * istorija nizova, uspešnost) jednim prolazom u pozadini i kešira nepromenljiv StatsSnapshot
+ * po korisniku. Keš se proglašava zastarelim samo kada Room javi izmenu tabela
+ * task_completions ili daily_stats, pa ponovni ulazak na ekran odmah prikazuje keširane podatke.
+ */
+public class StatisticsEngine {
+    private static final String TAG = "StatisticsEngine";
+
+    private static volatile StatisticsEngine INSTANCE;
+
+    private final AppDatabase database;
+    private final TaskDao taskDao;
+    private final DailyStatsDao dailyStatsDao;
+    private final AppExecutors.Lane executor;
+
+    private final Map<String, SnapshotLiveData> snapshots = new ConcurrentHashMap<>();
+
+    // Jedan posmatrač za ceo engine; samo označava keš zastarelim i osvežava aktivne ekrane
+    private final InvalidationTracker.Observer statsObserver =
+            new InvalidationTracker.Observer("task_completions", "daily_stats") {
+                @Override
+                public void onInvalidated(@NonNull Set<String> tables) {
+                    for (SnapshotLiveData snapshot : snapshots.values()) {
+                        snapshot.invalidate();
+                    }
+                }
+            };
+
+    private StatisticsEngine(Context context) {
+        database = AppDatabase.getDatabase(context);
+        taskDao = database.taskDao();
+        dailyStatsDao = database.dailyStatsDao();
+        executor = AppExecutors.getInstance().io();
+        database.getInvalidationTracker().addObserver(statsObserver);
+    }
+
+    public static StatisticsEngine getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (StatisticsEngine.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new StatisticsEngine(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Keširan snapshot korisnika; novi posmatrač odmah dobija poslednju vrednost,
+     * a ponovno računanje se pokreće samo ako je keš zastareo
+     */
+    public LiveData<StatsSnapshot> getSnapshot(String userId) {
+        SnapshotLiveData snapshot = snapshots.get(userId);
+        if (snapshot == null) {
+            snapshots.putIfAbsent(userId, new SnapshotLiveData(userId));
+            snapshot = snapshots.get(userId);
+        }
+        return snapshot;
+    }
+
+    // ========== RAČUNANJE ==========
+
+    StatsSnapshot compute(String userId) {
+        // Svi upiti u jednoj transakciji da bi serije bile međusobno usklađene
+        return database.runInTransaction(() -> computeSnapshot(userId));
+    }
+
+    private StatsSnapshot computeSnapshot(String userId) {
+        int[] byDifficulty = new int[TaskEntity.DIFFICULTY_EXTREME + 1];
+        for (TaskDao.DifficultyCount row : taskDao.getCompletedTasksByDifficulty(userId)) {
+            if (row.difficulty > 0 && row.difficulty < byDifficulty.length) {
+                byDifficulty[row.difficulty] = row.count;
+            }
+        }
+
+        Map<Long, Integer> byCategory = new LinkedHashMap<>();
+        for (TaskDao.CategoryCount row : taskDao.getCompletedTasksByCategory(userId)) {
+            byCategory.put(row.category_id, row.count);
+        }
+
+        // XP za poslednjih StatsSnapshot.DAYS dana iz daily_stats
+        int today = DayKey.today();
+        int firstDay = today - (StatsSnapshot.DAYS - 1);
+        int[] dayKeys = new int[StatsSnapshot.DAYS];
+        int[] xpPerDay = new int[StatsSnapshot.DAYS];
+        for (int i = 0; i < StatsSnapshot.DAYS; i++) {
+            dayKeys[i] = firstDay + i;
+        }
+
+        List<DailyStatsEntity> days = dailyStatsDao.getStatsForDateRange(
+                userId, DayKey.startOf(firstDay), DayKey.endOf(today));
+        for (DailyStatsEntity day : days) {
+            int index = DayKey.of(day.date) - firstDay;
+            if (index < 0 || index >= StatsSnapshot.DAYS) {
+                continue;
+            }
+            xpPerDay[index] += day.totalXpEarned;
+        }
+
+        // Prosečna težina iz task_completions - kolone težine u daily_stats ne obuhvataju specijalne zadatke
+        float[] averageDifficulty = new float[StatsSnapshot.DAYS];
+        for (TaskDao.DayDifficulty row : taskDao.getDifficultyByDay(userId, firstDay, today)) {
+            int index = row.day_key - firstDay;
+            if (index >= 0 && index < StatsSnapshot.DAYS && row.count > 0) {
+                averageDifficulty[index] = (float) row.difficulty_sum / row.count;
+            }
+        }
+
+        // Istorija nizova iz dana sa završenim zadacima (od najnovijeg)
+        List<Integer> completionDays = taskDao.getCompletionDaysDescending(userId);
+        List<Integer> runs = new ArrayList<>();
+        int run = 0;
+        int previousDay = 0;
+        for (int day : completionDays) {
+            if (run > 0 && day != previousDay - 1) {
+                runs.add(run);
+                run = 0;
+            }
+            run++;
+            previousDay = day;
+        }
+        if (run > 0) {
+            runs.add(run);
+        }
+        Collections.reverse(runs);
+
+        int[] streakHistory = new int[runs.size()];
+        int longestRun = 0;
+        for (int i = 0; i < streakHistory.length; i++) {
+            streakHistory[i] = runs.get(i);
+            longestRun = Math.max(longestRun, streakHistory[i]);
+        }
+
+        // Niz traje dok je poslednji aktivan dan danas ili juče
+        int currentStreak = 0;
+        if (!completionDays.isEmpty() && completionDays.get(0) >= today - 1) {
+            currentStreak = streakHistory[streakHistory.length - 1];
+        }
+
+        LifetimeStatsEntity lifetime = dailyStatsDao.getLifetimeStats(userId);
+        int completed = lifetime != null ? lifetime.tasksCompleted : 0;
+        int failed = lifetime != null ? lifetime.tasksFailed : 0;
+        int activeDays = lifetime != null ? lifetime.activeDays : completionDays.size();
+        long totalXp = lifetime != null ? lifetime.totalXpEarned : 0;
+        int longestStreak = Math.max(longestRun, lifetime != null ? lifetime.longestStreak : 0);
+
+        return new StatsSnapshot(userId, System.currentTimeMillis(), byDifficulty, byCategory,
+                dayKeys, xpPerDay, averageDifficulty, streakHistory, currentStreak, longestStreak,
+                completed, failed, activeDays, totalXp);
+    }
+
+    // ========== KEŠ ==========
+
+    /**
+     * Drži poslednji snapshot korisnika. Zastareo snapshot se ponovo računa čim ga neko
+     * posmatra; izmene bez posmatrača samo postavljaju oznaku.
+     */
+    private class SnapshotLiveData extends LiveData<StatsSnapshot> {
+        private final String userId;
+
+        private final AtomicBoolean dirty = new AtomicBoolean(true);
+        // Više izmena tokom računanja spaja se u još jedan prolaz
+        private final AtomicBoolean computing = new AtomicBoolean(false);
+
+        SnapshotLiveData(String userId) {
+            this.userId = userId;
+        }
+
+        @Override
+        protected void onActive() {
+            if (dirty.get()) {
+                refresh();
+            }
+        }
+
+        void invalidate() {
+            dirty.set(true);
+            if (hasActiveObservers()) {
+                refresh();
+            }
+        }
+
+        private void refresh() {
+            if (!computing.compareAndSet(false, true)) {
+                return;
+            }
+            executor.execute("stats-snapshot", () -> {
+                try {
+                    while (dirty.getAndSet(false)) {
+                        postValue(compute(userId));
+                    }
+                } catch (Exception e) {
+                    Log.e(TAG, "Error computing statistics snapshot", e);
+                    dirty.set(true);
+                    return;
+                } finally {
+                    computing.set(false);
+                }
+                // Izmena stigla posle poslednje provere, a pre oslobađanja oznake
+                if (dirty.get() && hasActiveObservers()) {
+                    refresh();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.ma2025.data.repositories;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Nepromenljiv presek statistike korisnika za ekran statistike. Pravi ga StatisticsEngine
+ * jednim prolazom kroz bazu; nizovi se kopiraju pri kreiranju i čitanju pa se snapshot
+ * bezbedno deli između niti i ponovo prikazuje iz keša.
+ */
+public final class StatsSnapshot {
+
+    // Broj dana u serijama XP-a i prosečne težine (poslednji je danas)
+    public static final int DAYS = 7;
+
+    public final String userId;
+    public final long computedAt;
+
+    // Indeks je težina (TaskEntity.DIFFICULTY_*), indeks 0 se ne koristi
+    private final int[] completedByDifficulty;
+    // category_id -> broj završenih, redosled kako ga vraća upit
+    private final Map<Long, Integer> completedByCategory;
+
+    // Serije za poslednjih DAYS dana, od najstarijeg ka danas
+    private final int[] dayKeys;
+    private final int[] xpPerDay;
+    private final float[] averageDifficultyPerDay;
+
+    // Dužine uzastopnih nizova aktivnih dana, od najstarijeg ka najnovijem
+    private final int[] streakHistory;
+    public final int currentStreak;
+    public final int longestStreak;
+
+    public final int tasksCompleted;
+    public final int tasksFailed;
+    public final int activeDays;
+    public final long totalXpEarned;
+
+    StatsSnapshot(String userId, long computedAt, int[] completedByDifficulty,
+                  Map<Long, Integer> completedByCategory, int[] dayKeys, int[] xpPerDay,
+                  float[] averageDifficultyPerDay, int[] streakHistory, int currentStreak,
+                  int longestStreak, int tasksCompleted, int tasksFailed, int activeDays,
+                  long totalXpEarned) {
+        this.userId = userId;
+        this.computedAt = computedAt;
+        this.completedByDifficulty = completedByDifficulty.clone();
+        this.completedByCategory = Collections.unmodifiableMap(new LinkedHashMap<>(completedByCategory));
+        this.dayKeys = dayKeys.clone();
+        this.xpPerDay = xpPerDay.clone();
+        this.averageDifficultyPerDay = averageDifficultyPerDay.clone();
+        this.streakHistory = streakHistory.clone();
+        this.currentStreak = currentStreak;
+        this.longestStreak = longestStreak;
+        this.tasksCompleted = tasksCompleted;
+        this.tasksFailed = tasksFailed;
+        this.activeDays = activeDays;
+        this.totalXpEarned = totalXpEarned;
+    }
+
+    public int getCompletedByDifficulty(int difficulty) {
+        if (difficulty <= 0 || difficulty >= completedByDifficulty.length) {
+            return 0;
+        }
+        return completedByDifficulty[difficulty];
+    }
+
+    public Map<Long, Integer> getCompletedByCategory() {
+        return completedByCategory;
+    }
+
+    public int[] getDayKeys() {
+        return dayKeys.clone();
+    }
+
+    public int[] getXpPerDay() {
+        return xpPerDay.clone();
+    }
+
+    public float[] getAverageDifficultyPerDay() {
+        return averageDifficultyPerDay.clone();
+    }
+
+    public int[] getStreakHistory() {
+        return streakHistory.clone();
+    }
+
+    /**
+     * Uspešnost u procentima: završeni / (završeni + neurađeni)
+     */
+    public double getSuccessRate() {
+        int resolved = tasksCompleted + tasksFailed;
+        return resolved > 0 ? (double) tasksCompleted / resolved * 100 : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "StatsSnapshot{userId=" + userId +
+                ", completed=" + tasksCompleted +
+                ", failed=" + tasksFailed +
+                ", byDifficulty=" + Arrays.toString(completedByDifficulty) +
+                ", categories=" + completedByCategory.size() +
+                ", currentStreak=" + currentStreak +
+                ", longestStreak=" + longestStreak + '}';
+    }
+}
@@ -0,0 +1,569 @@
+package com.example.ma2025.data.repositories;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.room.InvalidationTracker;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import com.example.ma2025.data.database.AppDatabase;
+import com.example.ma2025.data.database.dao.CategoryDao;
+import com.example.ma2025.data.database.dao.SyncOutboxDao;
+import com.example.ma2025.data.database.dao.TaskDao;
+import com.example.ma2025.data.database.dao.UserProgressDao;
+import com.example.ma2025.data.database.entities.CategoryEntity;
+import com.example.ma2025.data.database.entities.SyncOutboxEntity;
+import com.example.ma2025.data.database.entities.TaskEntity;
+import com.example.ma2025.data.database.entities.UserProgressEntity;
+import com.example.ma2025.utils.AppExecutors;
+import com.example.ma2025.utils.Constants;
+import com.example.ma2025.workers.SyncWorker;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Source;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sinhronizacija zadataka i kategorija sa Firestore-om (users/{uid}/tasks i users/{uid}/categories).
+ * Slanje: triggeri upisuju izmene u sync_outbox (jedan red po zadatku, pa se više izmena spaja
+ * u jedan upis), a SyncWorker prazni outbox u WriteBatch serijama do MAX_BATCH_OPERATIONS operacija,
+ * sa eksponencijalnim ponavljanjem kada nema mreže.
+ * Preuzimanje: samo dokumenti promenjeni posle user_progress.last_sync_timestamp, po stranicama,
+ * uz pravilo da pobeđuje novija izmena (updatedAt). Brisanja putuju kao dokumenti sa deleted = true.
+ */
+public class SyncEngine {
+    private static final String TAG = "SyncEngine";
+
+    // Firestore ograničenje za jedan WriteBatch
+    static final int MAX_BATCH_OPERATIONS = 500;
+
+    private static final String WORK_NAME = "outbox_sync";
+    // Kratko čekanje pre slanja da bi se niz brzih izmena poslao zajedno
+    private static final long SYNC_DELAY_SECONDS = 10;
+    private static final long BACKOFF_SECONDS = 30;
+    private static final long COMMIT_TIMEOUT_SECONDS = 60;
+
+    static final int PULL_PAGE_SIZE = 200;
+
+    static final String FIELD_UPDATED_AT = "updatedAt";
+    // Vreme upisa na serveru - po njemu se traže promene, nezavisno od sata na uređaju
+    static final String FIELD_SYNCED_AT = "syncedAt";
+    static final String FIELD_DELETED = "deleted";
+
+    private static volatile SyncEngine INSTANCE;
+
+    private final AppDatabase database;
+    private final TaskDao taskDao;
+    private final CategoryDao categoryDao;
+    private final SyncOutboxDao outboxDao;
+    private final UserProgressDao userProgressDao;
+    private final FirebaseFirestore firestore;
+    private final WorkManager workManager;
+
+    // Preuzimanje i slanje se ne preklapaju (SyncWorker i ručna sinhronizacija)
+    private final Object syncLock = new Object();
+
+    // Svaki upis u outbox (iz bilo kog upita) zakazuje slanje
+    private final InvalidationTracker.Observer outboxObserver = new InvalidationTracker.Observer("sync_outbox") {
+        @Override
+        public void onInvalidated(@NonNull Set<String> tables) {
+            AppExecutors.getInstance().io().execute("outbox-check", () -> {
+                if (outboxDao.getPendingCount() > 0) {
+                    requestSync();
+                }
+            });
+        }
+    };
+
+    private SyncEngine(Context context) {
+        database = AppDatabase.getDatabase(context);
+        taskDao = database.taskDao();
+        categoryDao = database.categoryDao();
+        outboxDao = database.syncOutboxDao();
+        userProgressDao = database.userProgressDao();
+        firestore = FirebaseFirestore.getInstance();
+        workManager = WorkManager.getInstance(context);
+        database.getInvalidationTracker().addObserver(outboxObserver);
+    }
+
+    public static SyncEngine getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (SyncEngine.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new SyncEngine(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Zakazuje pražnjenje outbox-a; KEEP - dok posao čeka, novi zahtevi se pridružuju njemu
+     */
+    public void requestSync() {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(SyncWorker.class)
+                .setConstraints(constraints)
+                .setInitialDelay(SYNC_DELAY_SECONDS, TimeUnit.SECONDS)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, BACKOFF_SECONDS, TimeUnit.SECONDS)
+                .build();
+
+        workManager.enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.KEEP, request);
+    }
+
+    /**
+     * Preuzima udaljene promene, pa šalje outbox. Redosled je bitan: lokalna izmena koju je
+     * novija udaljena verzija zamenila izlazi iz outbox-a pre slanja i ne prepisuje je.
+     * Blokira pozivajuću nit; greška se prosleđuje da bi se posao ponovio.
+     */
+    public void sync(String userId) throws Exception {
+        synchronized (syncLock) {
+            pullSync(userId);
+            flushSync(userId);
+        }
+    }
+
+    // ========== SLANJE ==========
+
+    // Vraća broj obrađenih redova outbox-a
+    private int flushSync(String userId) throws Exception {
+        int processed = 0;
+
+        while (true) {
+            List<SyncOutboxEntity> pending = outboxDao.getPending(userId, MAX_BATCH_OPERATIONS);
+            if (pending.isEmpty()) {
+                return processed;
+            }
+
+            WriteBatch batch = firestore.batch();
+            List<Long> seqs = new ArrayList<>();
+            Map<Long, String> sentTasks = new HashMap<>();
+            Map<Long, String> sentCategories = new HashMap<>();
+            int operations = 0;
+
+            for (SyncOutboxEntity entry : pending) {
+                seqs.add(entry.seq);
+                if (addToBatch(batch, entry, sentTasks, sentCategories)) {
+                    operations++;
+                }
+            }
+
+            if (operations > 0) {
+                Tasks.await(batch.commit(), COMMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+
+            database.runInTransaction(() -> {
+                outboxDao.deleteSent(seqs);
+                // Red izmenjen tokom slanja je ponovo u outbox-u i ostaje neoznačen
+                for (Map.Entry<Long, String> sent : sentCategories.entrySet()) {
+                    if (!outboxDao.isPending(SyncOutboxEntity.TYPE_CATEGORY, sent.getKey())) {
+                        categoryDao.markCategoryAsSynced(sent.getKey(), sent.getValue());
+                    }
+                }
+                for (Map.Entry<Long, String> sent : sentTasks.entrySet()) {
+                    if (!outboxDao.isPending(SyncOutboxEntity.TYPE_TASK, sent.getKey())) {
+                        taskDao.markTaskAsSynced(sent.getKey(), sent.getValue());
+                    }
+                }
+            });
+
+            processed += pending.size();
+            Log.d(TAG, "Sent batch of " + operations + " writes (" + pending.size() + " outbox rows)");
+        }
+    }
+
+    private boolean addToBatch(WriteBatch batch, SyncOutboxEntity entry,
+                               Map<Long, String> sentTasks, Map<Long, String> sentCategories) {
+        boolean isTask = SyncOutboxEntity.TYPE_TASK.equals(entry.entityType);
+        CollectionReference collection = isTask ? tasksCollection(entry.userId) : categoriesCollection(entry.userId);
+
+        if (entry.operation == SyncOutboxEntity.OPERATION_DELETE) {
+            if (entry.firebaseId == null) {
+                return false;
+            }
+            // Dokument ostaje kao oznaka brisanja, da bi ga drugi uređaji videli u preuzimanju
+            Map<String, Object> tombstone = new HashMap<>();
+            tombstone.put(FIELD_DELETED, true);
+            tombstone.put(FIELD_UPDATED_AT, System.currentTimeMillis());
+            tombstone.put(FIELD_SYNCED_AT, FieldValue.serverTimestamp());
+            batch.set(collection.document(entry.firebaseId), tombstone, SetOptions.merge());
+            return true;
+        }
+
+        if (isTask) {
+            TaskEntity task = taskDao.getTaskByIdSync(entry.entityId);
+            if (task == null) {
+                // Obrisan posle upisa u outbox - brisanje je već poseban red
+                return false;
+            }
+            String firebaseId = ensureTaskFirebaseId(task);
+            batch.set(collection.document(firebaseId), toDocument(task));
+            sentTasks.put(task.id, firebaseId);
+        } else {
+            CategoryEntity category = categoryDao.getCategoryByIdSync(entry.entityId);
+            if (category == null) {
+                return false;
+            }
+            String firebaseId = ensureCategoryFirebaseId(category);
+            batch.set(collection.document(firebaseId), toDocument(category));
+            sentCategories.put(category.id, firebaseId);
+        }
+        return true;
+    }
+
+    // ========== FIREBASE ID ==========
+
+    // Id dokumenta se pravi na uređaju i čuva pre slanja, pa je ponovljeno slanje idempotentno
+
+    private String ensureTaskFirebaseId(TaskEntity task) {
+        if (task.firebaseId == null) {
+            task.firebaseId = tasksCollection(task.userId).document().getId();
+            taskDao.setFirebaseId(task.id, task.firebaseId);
+        }
+        return task.firebaseId;
+    }
+
+    private String ensureCategoryFirebaseId(CategoryEntity category) {
+        if (category.firebaseId == null) {
+            category.firebaseId = categoriesCollection(category.userId).document().getId();
+            categoryDao.setFirebaseId(category.id, category.firebaseId);
+        }
+        return category.firebaseId;
+    }
+
+    private String categoryFirebaseId(Long categoryId) {
+        if (categoryId == null) {
+            return null;
+        }
+        CategoryEntity category = categoryDao.getCategoryByIdSync(categoryId);
+        return category != null ? ensureCategoryFirebaseId(category) : null;
+    }
+
+    private String parentTaskFirebaseId(Long parentTaskId) {
+        if (parentTaskId == null) {
+            return null;
+        }
+        TaskEntity parent = taskDao.getTaskByIdSync(parentTaskId);
+        return parent != null ? ensureTaskFirebaseId(parent) : null;
+    }
+
+    // ========== DOKUMENTI ==========
+
+    CollectionReference tasksCollection(String userId) {
+        return firestore.collection(Constants.COLLECTION_USERS).document(userId)
+                .collection(Constants.COLLECTION_TASKS);
+    }
+
+    CollectionReference categoriesCollection(String userId) {
+        return firestore.collection(Constants.COLLECTION_USERS).document(userId)
+                .collection(Constants.COLLECTION_CATEGORIES);
+    }
+
+    // Veze ka kategoriji i master zadatku se šalju kao firebase_id, lokalni id važi samo na uređaju
+    private Map<String, Object> toDocument(TaskEntity task) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("title", task.title);
+        data.put("description", task.description);
+        data.put("categoryId", categoryFirebaseId(task.categoryId));
+        data.put("difficulty", task.difficulty);
+        data.put("importance", task.importance);
+        data.put("isRepeating", task.isRepeating);
+        data.put("parentTaskId", parentTaskFirebaseId(task.parentTaskId));
+        data.put("repeatInterval", task.repeatInterval);
+        data.put("repeatUnit", task.repeatUnit);
+        data.put("startDate", task.startDate);
+        data.put("endDate", task.endDate);
+        data.put("dueTime", task.dueTime);
+        data.put("status", task.status);
+        data.put("createdAt", task.createdAt);
+        data.put(FIELD_UPDATED_AT, task.updatedAt);
+        data.put(FIELD_SYNCED_AT, FieldValue.serverTimestamp());
+        data.put(FIELD_DELETED, false);
+        return data;
+    }
+
+    private Map<String, Object> toDocument(CategoryEntity category) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", category.name);
+        data.put("color", category.color);
+        data.put("createdAt", category.createdAt);
+        data.put(FIELD_UPDATED_AT, category.updatedAt);
+        data.put(FIELD_SYNCED_AT, FieldValue.serverTimestamp());
+        data.put(FIELD_DELETED, false);
+        return data;
+    }
+
+    // ========== PREUZIMANJE ==========
+
+    private interface DocumentApplier {
+        void apply(DocumentSnapshot document);
+    }
+
+    private void pullSync(String userId) throws Exception {
+        UserProgressEntity progress = userProgressDao.getUserProgressSync(userId);
+        long lastSync = progress != null ? progress.lastSyncTimestamp : 0;
+
+        pullProgress(userId, lastSync == 0);
+
+        // Kategorije pre zadataka, da bi zadatak odmah dobio lokalni id kategorije
+        Map<Long, String> unresolvedParents = new HashMap<>();
+        long newest = pullCollection(categoriesCollection(userId), lastSync,
+                document -> applyCategory(userId, document));
+        newest = Math.max(newest, pullCollection(tasksCollection(userId), lastSync,
+                document -> applyTask(userId, document, unresolvedParents)));
+
+        // Granica se pomera tek kada su sve stranice primenjene; prekid znači ponovno preuzimanje
+        // istih dokumenata, što je bezbedno jer se primenjuju samo novije verzije.
+        // 0 znači da preuzimanje nikad nije završeno, pa se i prazan rezultat beleži kao 1.
+        long watermark = Math.max(newest, 1);
+        database.runInTransaction(() -> {
+            linkParentTasks(unresolvedParents);
+            userProgressDao.updateLastSyncTime(userId, watermark);
+        });
+    }
+
+    /**
+     * Pita server za dokumente sa syncedAt posle granice, po PULL_PAGE_SIZE, i svaku stranicu
+     * primenjuje u jednoj transakciji. Vraća najnovije viđeno syncedAt.
+     */
+    private long pullCollection(CollectionReference collection, long since, DocumentApplier applier) throws Exception {
+        Query query = collection
+                .whereGreaterThan(FIELD_SYNCED_AT, new Timestamp(new Date(since)))
+                .orderBy(FIELD_SYNCED_AT)
+                .limit(PULL_PAGE_SIZE);
+
+        long newest = since;
+        int pulled = 0;
+        DocumentSnapshot last = null;
+
+        while (true) {
+            Query pageQuery = last == null ? query : query.startAfter(last);
+            QuerySnapshot page = Tasks.await(pageQuery.get(Source.SERVER), COMMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            List<DocumentSnapshot> documents = page.getDocuments();
+            if (documents.isEmpty()) {
+                break;
+            }
+
+            database.runInTransaction(() -> {
+                for (DocumentSnapshot document : documents) {
+                    applier.apply(document);
+                }
+            });
+
+            for (DocumentSnapshot document : documents) {
+                Timestamp syncedAt = document.getTimestamp(FIELD_SYNCED_AT);
+                if (syncedAt != null) {
+                    newest = Math.max(newest, toMillis(syncedAt));
+                }
+            }
+            pulled += documents.size();
+
+            if (documents.size() < PULL_PAGE_SIZE) {
+                break;
+            }
+            last = documents.get(documents.size() - 1);
+        }
+
+        Log.d(TAG, "Pulled " + pulled + " documents from " + collection.getPath());
+        return newest;
+    }
+
+    /**
+     * Napredak je jedan dokument (users/{uid}); pri prvom preuzimanju udaljena verzija uvek
+     * pobeđuje, jer je lokalni red tek napravljen sa početnim vrednostima
+     */
+    private void pullProgress(String userId, boolean firstSync) throws Exception {
+        DocumentSnapshot document = Tasks.await(
+                firestore.collection(Constants.COLLECTION_USERS).document(userId).get(Source.SERVER),
+                COMMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        if (!document.exists() || document.getLong("level") == null) {
+            return;
+        }
+
+        long remoteUpdatedAt = longValue(document, FIELD_UPDATED_AT, 0);
+        database.runInTransaction(() -> {
+            UserProgressEntity local = userProgressDao.getUserProgressSync(userId);
+            if (local == null) {
+                local = new UserProgressEntity(userId);
+            } else if (!firstSync && remoteUpdatedAt <= local.updatedAt) {
+                return;
+            }
+
+            local.currentLevel = intValue(document, "level", local.currentLevel);
+            local.currentXp = intValue(document, "xp", local.currentXp);
+            local.totalPp = intValue(document, "pp", local.totalPp);
+            local.coins = intValue(document, "coins", local.coins);
+            local.currentStreak = intValue(document, "currentStreak", local.currentStreak);
+            local.longestStreak = intValue(document, "longestStreak", local.longestStreak);
+            local.updatedAt = remoteUpdatedAt;
+            userProgressDao.insertOrUpdateUserProgress(local);
+        });
+    }
+
+    private void applyCategory(String userId, DocumentSnapshot document) {
+        CategoryEntity local = categoryDao.getCategoryByFirebaseIdSync(document.getId());
+        long remoteUpdatedAt = longValue(document, FIELD_UPDATED_AT, 0);
+
+        if (isDeleted(document)) {
+            if (local != null && remoteUpdatedAt > local.updatedAt) {
+                categoryDao.deleteCategory(local);
+                outboxDao.delete(SyncOutboxEntity.TYPE_CATEGORY, local.id);
+            }
+            return;
+        }
+
+        String name = document.getString("name");
+        if (local == null) {
+            // Podrazumevane kategorije nove instalacije još nisu poslate - preuzimaju udaljeni dokument
+            CategoryEntity sameName = categoryDao.getCategoryByName(userId, name);
+            if (sameName != null && sameName.firebaseId == null) {
+                local = sameName;
+                local.updatedAt = 0;
+            }
+        }
+        if (local != null && remoteUpdatedAt <= local.updatedAt) {
+            return;
+        }
+
+        CategoryEntity category = local != null ? local : new CategoryEntity();
+        category.userId = userId;
+        category.name = name;
+        category.color = document.getString("color");
+        category.createdAt = longValue(document, "createdAt", category.createdAt);
+        category.updatedAt = remoteUpdatedAt;
+        category.firebaseId = document.getId();
+        category.syncedToFirebase = true;
+
+        if (local == null) {
+            categoryDao.insertCategory(category);
+        } else {
+            categoryDao.updateCategory(category);
+            outboxDao.delete(SyncOutboxEntity.TYPE_CATEGORY, category.id);
+            categoryDao.markCategoryAsSynced(category.id, category.firebaseId);
+        }
+    }
+
+    private void applyTask(String userId, DocumentSnapshot document, Map<Long, String> unresolvedParents) {
+        TaskEntity local = taskDao.getTaskByFirebaseIdSync(document.getId());
+        long remoteUpdatedAt = longValue(document, FIELD_UPDATED_AT, 0);
+
+        // Lokalna verzija je ista ili novija - ostaje, a outbox je šalje
+        if (local != null && remoteUpdatedAt <= local.updatedAt) {
+            return;
+        }
+
+        if (isDeleted(document)) {
+            if (local != null) {
+                taskDao.deleteTask(local);
+                outboxDao.delete(SyncOutboxEntity.TYPE_TASK, local.id);
+            }
+            return;
+        }
+
+        TaskEntity task = local != null ? local : new TaskEntity();
+        task.userId = userId;
+        task.title = document.getString("title");
+        task.description = document.getString("description");
+        task.categoryId = localCategoryId(document.getString("categoryId"));
+        task.difficulty = intValue(document, "difficulty", task.difficulty);
+        task.importance = intValue(document, "importance", task.importance);
+        task.isRepeating = Boolean.TRUE.equals(document.getBoolean("isRepeating"));
+        Long repeatInterval = document.getLong("repeatInterval");
+        task.repeatInterval = repeatInterval != null ? repeatInterval.intValue() : null;
+        task.repeatUnit = document.getString("repeatUnit");
+        task.startDate = document.getLong("startDate");
+        task.endDate = document.getLong("endDate");
+        task.dueTime = document.getLong("dueTime");
+        task.status = intValue(document, "status", task.status);
+        task.createdAt = longValue(document, "createdAt", task.createdAt);
+        task.updatedAt = remoteUpdatedAt;
+        task.firebaseId = document.getId();
+        task.syncedToFirebase = true;
+
+        String parentFirebaseId = document.getString("parentTaskId");
+        task.parentTaskId = localTaskId(parentFirebaseId);
+
+        if (local == null) {
+            task.id = taskDao.insertTask(task);
+        } else {
+            taskDao.updateTask(task);
+            outboxDao.delete(SyncOutboxEntity.TYPE_TASK, task.id);
+            taskDao.markTaskAsSynced(task.id, task.firebaseId);
+        }
+
+        if (parentFirebaseId != null && task.parentTaskId == null) {
+            unresolvedParents.put(task.id, parentFirebaseId);
+        }
+    }
+
+    // Ponavljanja čiji je master zadatak stigao na kasnijoj stranici
+    private void linkParentTasks(Map<Long, String> unresolvedParents) {
+        for (Map.Entry<Long, String> entry : unresolvedParents.entrySet()) {
+            Long parentId = localTaskId(entry.getValue());
+            TaskEntity task = taskDao.getTaskByIdSync(entry.getKey());
+            if (parentId == null || task == null) {
+                continue;
+            }
+            taskDao.setParentTaskId(task.id, parentId);
+            outboxDao.delete(SyncOutboxEntity.TYPE_TASK, task.id);
+            taskDao.markTaskAsSynced(task.id, task.firebaseId);
+        }
+    }
+
+    private Long localCategoryId(String firebaseId) {
+        if (firebaseId == null) {
+            return null;
+        }
+        CategoryEntity category = categoryDao.getCategoryByFirebaseIdSync(firebaseId);
+        return category != null ? category.id : null;
+    }
+
+    private Long localTaskId(String firebaseId) {
+        if (firebaseId == null) {
+            return null;
+        }
+        TaskEntity task = taskDao.getTaskByFirebaseIdSync(firebaseId);
+        return task != null ? task.id : null;
+    }
+
+    private static boolean isDeleted(DocumentSnapshot document) {
+        return Boolean.TRUE.equals(document.getBoolean(FIELD_DELETED));
+    }
+
+    private static long longValue(DocumentSnapshot document, String field, long fallback) {
+        Long value = document.getLong(field);
+        return value != null ? value : fallback;
+    }
+
+    private static int intValue(DocumentSnapshot document, String field, int fallback) {
+        Long value = document.getLong(field);
+        return value != null ? value.intValue() : fallback;
+    }
+
+    // Odsecanje na milisekunde - dokument iz iste milisekunde se preuzme ponovo, ne preskoči
+    private static long toMillis(Timestamp timestamp) {
+        return timestamp.getSeconds() * 1000 + timestamp.getNanoseconds() / 1_000_000;
+    }
+}
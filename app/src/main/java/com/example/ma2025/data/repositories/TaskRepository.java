@@ -1,56 +1,61 @@
 package com.example.ma2025.data.repositories;
 
 import android.content.Context;
-import android.os.Handler;
-import android.os.Looper;
 import android.util.Log;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
 import com.example.ma2025.data.database.AppDatabase;
 import com.example.ma2025.data.database.entities.TaskEntity;
-import com.example.ma2025.data.database.entities.TaskCompletionEntity;
 import com.example.ma2025.data.database.entities.DailyStatsEntity;
+import com.example.ma2025.data.database.entities.LifetimeStatsEntity;
+import com.example.ma2025.data.database.entities.MonthlyStatsEntity;
+import com.example.ma2025.data.database.entities.WeeklyStatsEntity;
 import com.example.ma2025.data.database.entities.UserProgressEntity;
 import com.example.ma2025.data.database.dao.TaskDao;
 import com.example.ma2025.data.database.dao.TaskCompletionDao;
 import com.example.ma2025.data.database.dao.DailyStatsDao;
 import com.example.ma2025.data.database.dao.UserProgressDao;
-import com.example.ma2025.data.models.Alliance;
 import com.example.ma2025.data.models.SpecialMission;
-import com.example.ma2025.utils.Constants;
 import com.example.ma2025.utils.DateUtils;
-import com.example.ma2025.utils.GameLogicUtils;
+import com.example.ma2025.utils.LevelTable;
+import com.example.ma2025.utils.RecurrenceEngine;
 import com.example.ma2025.viewmodels.CreateTaskViewModel;
 import com.example.ma2025.viewmodels.TaskListViewModel;
-import com.google.firebase.firestore.FirebaseFirestore;
+import com.example.ma2025.utils.AppExecutors;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Set;
+import java.util.TreeMap;
 
 public class TaskRepository {
     private static final String TAG = "TaskRepository";
+    private static final int PAGE_SIZE = 30;
 
+    private AppDatabase database;
     private TaskDao taskDao;
     private TaskCompletionDao taskCompletionDao;
     private DailyStatsDao dailyStatsDao;
     private UserProgressDao userProgressDao;
-    private FirebaseFirestore firestore;
-    private ExecutorService executor;
+    private ProgressSyncCoalescer progressSync;
+    private AppExecutors.Lane executor;
+    private XpQuotaLedger xpQuotaLedger;
 
     private static volatile TaskRepository INSTANCE;
 
     private TaskRepository(Context context) {
-        AppDatabase database = AppDatabase.getDatabase(context);
+        database = AppDatabase.getDatabase(context);
         taskDao = database.taskDao();
         taskCompletionDao = database.taskCompletionDao();
         dailyStatsDao = database.dailyStatsDao();
         userProgressDao = database.userProgressDao();
-        firestore = FirebaseFirestore.getInstance();
-        executor = Executors.newFixedThreadPool(4);
+        progressSync = ProgressSyncCoalescer.getInstance();
+        executor = AppExecutors.getInstance().diskIO();
+        xpQuotaLedger = new XpQuotaLedger(taskCompletionDao);
     }
 
     public static TaskRepository getInstance(Context context) {
@@ -70,32 +75,51 @@ public class TaskRepository {
      * Automatski označava zadatke koji su prošli grace period kao neurađene
      */
     public void expireOverdueTasks(String userId) {
-        executor.execute(() -> {
+        executor.execute("expireOverdueTasks", () -> {
             try {
-                long now = System.currentTimeMillis();
-                long expirationThreshold = now - TaskEntity.GRACE_PERIOD_MILLIS;
-
-                // Pronađi sve aktivne zadatke koji su prošli grace period
-                List<TaskEntity> expiredTasks = taskDao.getExpiredActiveTasks(userId, expirationThreshold);
-
-                for (TaskEntity task : expiredTasks) {
-                    // Označi kao neurađen
-                    task.markFailed();
-                    taskDao.updateTask(task);
-
-                    Log.d(TAG, "Task expired: " + task.title + " (due: " + task.dueTime + ")");
-                }
-
-                if (!expiredTasks.isEmpty()) {
-                    Log.d(TAG, "Expired " + expiredTasks.size() + " overdue tasks");
-                }
-
+                expireOverdueTasksSync(userId);
             } catch (Exception e) {
                 Log.e(TAG, "Error expiring overdue tasks", e);
             }
         });
     }
 
+    /**
+     * Sinhrona verzija za pozadinski rad (MaintenanceWorker); vraća broj isteklih zadataka
+     */
+    public int expireOverdueTasksSync(String userId) {
+        long now = System.currentTimeMillis();
+        long expirationThreshold = now - TaskEntity.GRACE_PERIOD_MILLIS;
+
+        // Svi zadaci koji su prošli grace period se označavaju kao neurađeni jednim UPDATE-om;
+        // statistika dana je u istoj transakciji, pa prekid ne ostavlja neprebrojane zadatke
+        List<Long> expiredTaskIds = database.runInTransaction(() -> {
+            List<Long> ids = taskDao.expireActiveTasks(userId, expirationThreshold, now);
+            if (!ids.isEmpty()) {
+                long today = DateUtils.getStartOfDay(now);
+                dailyStatsDao.ensureDailyStats(userId, today);
+                dailyStatsDao.addTasksFailed(userId, today, ids.size());
+            }
+            return ids;
+        });
+        if (expiredTaskIds.isEmpty()) {
+            return 0;
+        }
+
+        // Misija samo beleži da je bilo neurađenih zadataka, pa je dovoljan jedan poziv
+        checkAndUpdateSpecialMissionForFailedTask(userId);
+
+        Log.d(TAG, "Expired " + expiredTaskIds.size() + " overdue tasks");
+        return expiredTaskIds.size();
+    }
+
+    /**
+     * Otvara red u daily_stats za današnji dan, kako bi statistika imala i dane bez aktivnosti
+     */
+    public void rolloverDailyStatsSync(String userId) {
+        dailyStatsDao.ensureDailyStats(userId, DateUtils.getStartOfDay(System.currentTimeMillis()));
+    }
+
     // ========== TASK OPERATIONS ==========
 
     public LiveData<TaskEntity> getTaskById(long taskId) {
@@ -126,8 +150,7 @@ public class TaskRepository {
     public LiveData<Integer> getOverdueTasksCount(String userId) {
         MutableLiveData<Integer> count = new MutableLiveData<>();
         executor.execute(() -> {
-            List<TaskEntity> overdueTasks = getOverdueTasks(userId);
-            count.postValue(overdueTasks.size());
+            count.postValue(taskDao.getOverdueTasksCount(userId, System.currentTimeMillis()));
         });
         return count;
     }
@@ -141,13 +164,13 @@ public class TaskRepository {
             try {
                 List<TaskEntity> tasks = taskDao.getTasksCreatedInPeriod(userId, startTime, endTime);
                 if (callback != null) {
-                    new Handler(Looper.getMainLooper()).post(() ->
+                    AppExecutors.getInstance().mainThread().execute(() ->
                             callback.onTasksRetrieved(tasks));
                 }
             } catch (Exception e) {
                 Log.e(TAG, "Error getting tasks for period", e);
                 if (callback != null) {
-                    new Handler(Looper.getMainLooper()).post(() ->
+                    AppExecutors.getInstance().mainThread().execute(() ->
                             callback.onTasksRetrieved(new ArrayList<>()));
                 }
             }
@@ -159,13 +182,11 @@ public class TaskRepository {
     }
 
     public void insertTask(TaskEntity task, OnTaskInsertedCallback callback) {
-        executor.execute(() -> {
+        executor.execute("insertTask", () -> {
             try {
                 long taskId = taskDao.insertTask(task);
                 task.id = taskId;
 
-                syncTaskToFirebase(task);
-
                 if (callback != null) {
                     callback.onSuccess(taskId);
                 }
@@ -181,6 +202,7 @@ public class TaskRepository {
     public void updateRecurringTaskFutureInstances(TaskEntity masterTask) {
         executor.execute(() -> {
             try {
+                // Izračunata pojavljivanja prate master red; ažuriraju se samo materijalizovana
                 taskDao.updateTask(masterTask);
 
                 taskDao.updateFutureInstancesOfRecurringTask(
@@ -190,8 +212,6 @@ public class TaskRepository {
                         masterTask.difficulty,
                         masterTask.importance
                 );
-
-                syncTaskToFirebase(masterTask);
             } catch (Exception e) {
                 Log.e("TaskRepository", "Error updating recurring task instances", e);
             }
@@ -207,7 +227,6 @@ public class TaskRepository {
             }
 
             taskDao.updateTask(task);
-            syncTaskToFirebase(task);
         });
     }
 
@@ -220,6 +239,7 @@ public class TaskRepository {
             }
 
             taskDao.deleteTask(task);
+            xpQuotaLedger.invalidate(task.userId);
             if (task.firebaseId != null) {
                 deleteTaskFromFirebase(task.firebaseId);
             }
@@ -234,6 +254,7 @@ public class TaskRepository {
                     long masterTaskId = (task.parentTaskId != null) ? task.parentTaskId : task.id;
 
                     taskDao.deleteRecurringTaskAndFutureInstances(masterTaskId, TaskEntity.STATUS_COMPLETED);
+                    xpQuotaLedger.invalidate(task.userId);
 
                     if (task.firebaseId != null) {
                         deleteTaskFromFirebase(task.firebaseId);
@@ -257,13 +278,176 @@ public class TaskRepository {
         return taskDao.getTasksForDateRange(userId, startTime, endTime);
     }
 
+    // ========== CALENDAR ==========
+
+    /**
+     * Broj zadataka i završenih po danu za mesec koji sadrži :monthTimestamp (za oznake u kalendaru).
+     * Sačuvani zadaci dolaze iz grupisanog upita, a pojavljivanja ponavljajućih iz RecurrenceEngine-a.
+     */
+    public LiveData<List<TaskDao.CalendarDaySummary>> getCalendarMonthSummaries(String userId, long monthTimestamp) {
+        long start = DateUtils.getStartOfMonth(monthTimestamp);
+        long end = DateUtils.getEndOfMonth(monthTimestamp);
+
+        LiveData<List<TaskDao.CalendarDaySummary>> stored = taskDao.getCalendarDaySummaries(userId, start, end);
+        LiveData<List<TaskEntity>> recurring = taskDao.getRecurringTasksInRange(userId, start, end);
+        LiveData<List<TaskDao.OccurrenceMarker>> markers = taskDao.getOccurrenceMarkers(userId, start, end);
+
+        MediatorLiveData<List<TaskDao.CalendarDaySummary>> result = new MediatorLiveData<>();
+        Runnable merge = () -> {
+            if (stored.getValue() == null || recurring.getValue() == null || markers.getValue() == null) {
+                return;
+            }
+            result.setValue(mergeDaySummaries(stored.getValue(), recurring.getValue(), markers.getValue(), start, end));
+        };
+        result.addSource(stored, value -> merge.run());
+        result.addSource(recurring, value -> merge.run());
+        result.addSource(markers, value -> merge.run());
+        return result;
+    }
+
+    /**
+     * Zadaci prikazani u kalendaru za dan koji sadrži :dayTimestamp, uključujući
+     * ponavljajuće zadatke koji se tog dana pojavljuju
+     */
+    public LiveData<List<TaskEntity>> getCalendarTasksForDay(String userId, long dayTimestamp) {
+        long start = DateUtils.getStartOfDay(dayTimestamp);
+        long end = DateUtils.getEndOfDay(dayTimestamp);
+
+        LiveData<List<TaskEntity>> stored = taskDao.getCalendarTasksInRange(userId, start, end);
+        LiveData<List<TaskEntity>> recurring = taskDao.getRecurringTasksInRange(userId, start, end);
+        LiveData<List<TaskDao.OccurrenceMarker>> markers = taskDao.getOccurrenceMarkers(userId, start, end);
+
+        MediatorLiveData<List<TaskEntity>> result = new MediatorLiveData<>();
+        Runnable merge = () -> {
+            if (stored.getValue() == null || recurring.getValue() == null || markers.getValue() == null) {
+                return;
+            }
+            List<TaskEntity> tasks = new ArrayList<>();
+            Set<Long> materialized = materializedOccurrences(markers.getValue());
+            for (TaskEntity master : recurring.getValue()) {
+                for (long occurrence : RecurrenceEngine.getOccurrences(master, start, end)) {
+                    if (!materialized.contains(occurrenceKey(master.id, DateUtils.getDayKey(occurrence)))) {
+                        tasks.add(master);
+                    }
+                }
+            }
+            tasks.addAll(stored.getValue());
+            result.setValue(tasks);
+        };
+        result.addSource(stored, value -> merge.run());
+        result.addSource(recurring, value -> merge.run());
+        result.addSource(markers, value -> merge.run());
+        return result;
+    }
+
+    private List<TaskDao.CalendarDaySummary> mergeDaySummaries(List<TaskDao.CalendarDaySummary> stored,
+                                                               List<TaskEntity> recurring,
+                                                               List<TaskDao.OccurrenceMarker> markers,
+                                                               long start, long end) {
+        TreeMap<Integer, TaskDao.CalendarDaySummary> byDay = new TreeMap<>();
+        for (TaskDao.CalendarDaySummary summary : stored) {
+            // Kopija, jer se isti rezultat upita ponovo spaja kada se promeni neki drugi izvor
+            TaskDao.CalendarDaySummary copy = new TaskDao.CalendarDaySummary();
+            copy.day_key = summary.day_key;
+            copy.total = summary.total;
+            copy.completed = summary.completed;
+            byDay.put(copy.day_key, copy);
+        }
+
+        Set<Long> materialized = materializedOccurrences(markers);
+        Set<Long> completed = new HashSet<>();
+        for (TaskDao.OccurrenceMarker marker : markers) {
+            if (!marker.materialized) {
+                completed.add(occurrenceKey(marker.task_id, marker.day_key));
+            }
+        }
+
+        for (TaskEntity master : recurring) {
+            for (long occurrence : RecurrenceEngine.getOccurrences(master, start, end)) {
+                int dayKey = DateUtils.getDayKey(occurrence);
+                long key = occurrenceKey(master.id, dayKey);
+                // Zaseban red za ovo pojavljivanje je već uračunat u grupisanom upitu
+                if (materialized.contains(key)) {
+                    continue;
+                }
+
+                TaskDao.CalendarDaySummary summary = byDay.get(dayKey);
+                if (summary == null) {
+                    summary = new TaskDao.CalendarDaySummary();
+                    summary.day_key = dayKey;
+                    byDay.put(dayKey, summary);
+                }
+                summary.total++;
+                if (completed.contains(key)) {
+                    summary.completed++;
+                }
+            }
+        }
+
+        return new ArrayList<>(byDay.values());
+    }
+
+    private Set<Long> materializedOccurrences(List<TaskDao.OccurrenceMarker> markers) {
+        Set<Long> materialized = new HashSet<>();
+        for (TaskDao.OccurrenceMarker marker : markers) {
+            if (marker.materialized) {
+                materialized.add(occurrenceKey(marker.task_id, marker.day_key));
+            }
+        }
+        return materialized;
+    }
+
+    // Ključ (zadatak, dan) za jedno pojavljivanje ponavljajućeg zadatka
+    private static long occurrenceKey(long taskId, int dayKey) {
+        return (taskId << 20) | dayKey;
+    }
+
+    /**
+     * Pretraga zadataka po naslovu i opisu preko FTS indeksa; upit bez ijedne reči vraća praznu listu
+     */
+    public LiveData<List<TaskEntity>> searchTasks(String userId, String query) {
+        if (TaskDao.ftsPrefixQuery(query, null).isEmpty()) {
+            return new MutableLiveData<>(new ArrayList<>());
+        }
+        return taskDao.searchTasks(userId, query);
+    }
+
+    // ========== PAGING ==========
+
+    public Pager<Integer, TaskEntity> getAllTasksPager(String userId) {
+        return new Pager<>(pagingConfig(), () -> taskDao.getAllTasksPaged(userId));
+    }
+
+    public Pager<Integer, TaskEntity> getTasksByStatusPager(String userId, int status) {
+        return new Pager<>(pagingConfig(), () -> taskDao.getTasksByStatusPaged(userId, status));
+    }
+
+    public Pager<Integer, TaskEntity> getTasksByCategoryPager(String userId, long categoryId) {
+        return new Pager<>(pagingConfig(), () -> taskDao.getTasksByCategoryPaged(userId, categoryId));
+    }
+
+    /**
+     * Stranična lista za TaskListFragment - filtriranje po tipu i efektivnom statusu radi SQL
+     */
+    public Pager<Integer, TaskDao.TaskWithCategory> getTaskListPager(String userId, boolean repeating, int effectiveStatus) {
+        return new Pager<>(pagingConfig(), () -> {
+            long now = System.currentTimeMillis();
+            return taskDao.getTaskListPaged(userId, repeating, effectiveStatus,
+                    DateUtils.getStartOfDay(now), now);
+        });
+    }
+
+    private PagingConfig pagingConfig() {
+        return new PagingConfig(PAGE_SIZE, PAGE_SIZE, false);
+    }
+
     public void completeTask(long taskId, String userId, OnTaskCompletedCallback callback) {
-        executor.execute(() -> {
+        executor.execute("completeTask", () -> {
             try {
                 TaskEntity task = taskDao.getTaskByIdSync(taskId);
                 if (task == null || task.isCompleted()) {
                     if (callback != null) {
-                        callback.onError("Task not found or already completed");
+                        callback.onError("Zadatak nije pronađen ili je već završen");
                     }
                     return;
                 }
@@ -289,53 +473,40 @@ public class TaskRepository {
                     return;
                 }
 
-                UserProgressEntity userProgress = userProgressDao.getUserProgressSync(userId);
-                if (userProgress == null) {
-                    userProgress = new UserProgressEntity(userId);
-                    userProgressDao.insertOrUpdateUserProgress(userProgress);
-                }
+                long now = System.currentTimeMillis();
+                TaskCompletionDao.CompletionResult result;
 
-                // Izračunaj XP - kvota utiče SAMO na XP, ne na završavanje
-                int xpEarned = 0;
-                if (task.isEligibleForXp()) {
-                    xpEarned = task.calculateXpValue(userProgress.currentLevel);
+                // Provera kvote, transakcija i upis u ledger idu zajedno, da dva istovremena
+                // završetka ne bi oba prošla istu kvotu
+                synchronized (xpQuotaLedger) {
+                    boolean quotaAvailable = task.isEligibleForXp() && canEarnXpForTask(task, userId);
 
-                    // Kvota sprečava samo XP, ne završavanje zadatka
-                    if (!canEarnXpForTask(task, userId)) {
-                        xpEarned = 0;
-                    }
-                }
+                    result = taskCompletionDao.completeTask(task, quotaAvailable, now,
+                            DateUtils.getStartOfDay(now), DateUtils.getDayKey(now));
 
-                // UVEK završi zadatak (osim ponavljajuće)
-                if (!task.isRepeating) {
-                    task.markCompleted();
-                    taskDao.updateTask(task);
+                    if (result != null) {
+                        xpQuotaLedger.recordCompletion(userId, task.difficulty, task.importance,
+                                DateUtils.getStartOfDay(now));
+                    }
                 }
 
-                // Zapis o završetku zadatka
-                TaskCompletionEntity completion = new TaskCompletionEntity(taskId, xpEarned);
-                completion.completionDate = DateUtils.getStartOfDay(System.currentTimeMillis());
-                taskCompletionDao.insertTaskCompletion(completion);
-
-                // Ažuriraj korisnikov progres samo ako je dobio XP
-                if (xpEarned > 0) {
-                    userProgress.addXp(xpEarned);
-
-                    int requiredXp = GameLogicUtils.calculateXpForLevel(userProgress.currentLevel + 1);
-                    if (userProgress.currentXp >= requiredXp) {
-                        int newLevel = userProgress.currentLevel + 1;
-                        int ppGained = GameLogicUtils.calculatePpForLevel(newLevel);
-                        userProgress.levelUp(newLevel, ppGained);
+                if (result == null) {
+                    if (callback != null) {
+                        callback.onError(task.isRepeating
+                                ? "Ponavljajući zadatak se danas ne pojavljuje ili je današnje pojavljivanje već završeno ili označeno kao neurađeno"
+                                : "Zadatak nije pronađen ili je već završen");
                     }
+                    return;
+                }
 
-                    userProgressDao.updateUserProgress(userProgress);
+                if (!task.isRepeating) {
+                    task.markCompleted();
                 }
 
-                updateDailyStats(userId, task, xpEarned);
-                updateStreak(userId);
+                int xpEarned = result.xpEarned;
+                UserProgressEntity userProgress = result.progress;
 
-                syncTaskToFirebase(task);
-                syncUserProgressToFirebase(userProgress);
+                progressSync.recordDelta(userProgress, xpEarned, result.ppGained, 0);
 
                 // ========== DODAJ OVO - REGISTRUJ U SPECIJALNOJ MISIJI ==========
                 checkAndUpdateSpecialMission(userId, task, true); // true = success
@@ -355,45 +526,32 @@ public class TaskRepository {
     }
 
     private void checkAndUpdateSpecialMission(String userId, TaskEntity task, boolean isSuccess) {
-        // Kreiraj instancu AllianceRepository
-        AllianceRepository allianceRepository = new AllianceRepository();
-
-        // Proveri da li korisnik ima savez
-        allianceRepository.getUserAlliance(userId,
-                new AllianceRepository.OnAllianceLoadedListener() {
-                    @Override
-                    public void onSuccess(Alliance alliance) {
-                        // Registruj zadatak u specijalnoj misiji
-                        SpecialMissionRepository.getInstance().recordTaskCompleted(
-                                alliance.getId(),
-                                userId,
-                                task.difficulty,
-                                task.importance,
-                                isSuccess,
-                                new SpecialMissionRepository.OnTaskRecordedCallback() {
-                                    @Override
-                                    public void onSuccess(SpecialMission mission) {
-                                        Log.d(TAG, "Task recorded in special mission. Boss HP: " + mission.getBossHp());
-                                    }
-
-                                    @Override
-                                    public void onError(String error) {
-                                        Log.d(TAG, "No active mission or error: " + error);
-                                    }
-                                }
-                        );
-                    }
+        AllianceContext.getInstance().resolveAlliance(userId, allianceId -> {
+            if (allianceId == null) {
+                Log.d(TAG, "User is not in any alliance");
+                return;
+            }
 
-                    @Override
-                    public void onError(String error) {
-                        Log.d(TAG, "User not in alliance: " + error);
-                    }
+            // Registruj zadatak u specijalnoj misiji
+            SpecialMissionRepository.getInstance().recordTaskCompleted(
+                    allianceId,
+                    userId,
+                    task.difficulty,
+                    task.importance,
+                    isSuccess,
+                    new SpecialMissionRepository.OnTaskRecordedCallback() {
+                        @Override
+                        public void onSuccess(SpecialMission mission) {
+                            Log.d(TAG, "Task recorded in special mission. Boss HP: " + mission.getBossHp());
+                        }
 
-                    @Override
-                    public void onNotInAlliance() {
-                        Log.d(TAG, "User is not in any alliance");
+                        @Override
+                        public void onError(String error) {
+                            Log.d(TAG, "No active mission or error: " + error);
+                        }
                     }
-                });
+            );
+        });
     }
 
     // ========== TASK STATUS CHANGES WITH GRACE PERIOD ==========
@@ -431,8 +589,6 @@ public class TaskRepository {
                 task.pause();
                 taskDao.updateTask(task);
 
-                syncTaskToFirebase(task);
-
                 if (callback != null) {
                     callback.onSuccess("Task paused successfully");
                 }
@@ -477,8 +633,6 @@ public class TaskRepository {
                 task.activate();
                 taskDao.updateTask(task);
 
-                syncTaskToFirebase(task);
-
                 if (callback != null) {
                     callback.onSuccess("Task resumed successfully");
                 }
@@ -522,8 +676,6 @@ public class TaskRepository {
                 task.markCanceled();
                 taskDao.updateTask(task);
 
-                syncTaskToFirebase(task);
-
                 if (callback != null) {
                     callback.onSuccess("Task cancelled successfully");
                 }
@@ -538,7 +690,7 @@ public class TaskRepository {
     }
 
     public void failTask(long taskId, String userId, OnTaskCompletedCallback callback) {
-        executor.execute(() -> {
+        executor.execute("failTask", () -> {
             try {
                 TaskEntity task = taskDao.getTaskByIdSync(taskId);
                 if (task == null || task.status != TaskEntity.STATUS_ACTIVE) {
@@ -548,8 +700,42 @@ public class TaskRepository {
                     return;
                 }
 
-                task.markFailed();
-                taskDao.updateTask(task);
+                if (task.isRepeating && task.parentTaskId == null) {
+                    // Neurađeno pojavljivanje se čuva kao zaseban red, a serija ostaje aktivna
+                    long now = System.currentTimeMillis();
+                    Long occurrenceTime = RecurrenceEngine.getOccurrenceOnDay(task, now);
+                    if (occurrenceTime == null) {
+                        if (callback != null) {
+                            callback.onError("Ponavljajući zadatak se danas ne pojavljuje");
+                        }
+                        return;
+                    }
+
+                    // Isti dan se ne može označiti dva puta - ni preko zasebnog reda ni preko
+                    // završetka zapisanog na master zadatak
+                    TaskEntity occurrence = taskDao.getOccurrenceSync(task.id,
+                            DateUtils.getStartOfDay(occurrenceTime), DateUtils.getEndOfDay(occurrenceTime));
+                    if ((occurrence != null && occurrence.status != TaskEntity.STATUS_ACTIVE)
+                            || taskCompletionDao.isCompletedOnDay(task.id, DateUtils.getDayKey(occurrenceTime))) {
+                        if (callback != null) {
+                            callback.onError("Današnje pojavljivanje je već završeno ili označeno kao neurađeno");
+                        }
+                        return;
+                    }
+
+                    if (occurrence == null) {
+                        occurrence = RecurrenceEngine.materialize(task, occurrenceTime);
+                        occurrence.markFailed();
+                        occurrence.id = taskDao.insertTask(occurrence);
+                    } else {
+                        // Izmenjeno pojavljivanje već ima svoj red
+                        occurrence.markFailed();
+                        taskDao.updateTask(occurrence);
+                    }
+                } else {
+                    task.markFailed();
+                    taskDao.updateTask(task);
+                }
 
                 updateDailyStatsForFailedTask(userId, task);
 
@@ -571,86 +757,13 @@ public class TaskRepository {
 
     // ========== XP QUOTA SYSTEM ==========
 
+    // Dnevne/nedeljne/mesečne kvote se čitaju iz XpQuotaLedger-a umesto COUNT upita
     private boolean canEarnXpForTask(TaskEntity task, String userId) {
-        if (!checkDifficultyQuota(task.difficulty, userId)) {
-            return false;
-        }
-
-        if (!checkImportanceQuota(task.importance, userId)) {
-            return false;
-        }
-
-        return true;
-    }
-
-    private boolean checkDifficultyQuota(int difficulty, String userId) {
-        switch (difficulty) {
-            case TaskEntity.DIFFICULTY_VERY_EASY:
-                int veryEasyCount = getDailyCompletedCount(userId, difficulty);
-                return veryEasyCount < 5;
-
-            case TaskEntity.DIFFICULTY_EASY:
-                int easyCount = getDailyCompletedCount(userId, difficulty);
-                return easyCount < 5;
-
-            case TaskEntity.DIFFICULTY_HARD:
-                int hardCount = getDailyCompletedCount(userId, difficulty);
-                return hardCount < 2;
-
-            case TaskEntity.DIFFICULTY_EXTREME:
-                int extremeCount = getWeeklyCompletedCount(userId, difficulty);
-                return extremeCount < 1;
-
-            default:
-                return true;
-        }
+        return xpQuotaLedger.canEarnXp(userId, task.difficulty, task.importance, System.currentTimeMillis());
     }
 
-    private boolean checkImportanceQuota(int importance, String userId) {
-        switch (importance) {
-            case TaskEntity.IMPORTANCE_NORMAL:
-                int normalCount = getDailyCompletedCountByImportance(userId, importance);
-                return normalCount < 5;
-
-            case TaskEntity.IMPORTANCE_IMPORTANT:
-                int importantCount = getDailyCompletedCountByImportance(userId, importance);
-                return importantCount < 5;
-
-            case TaskEntity.IMPORTANCE_VERY_IMPORTANT:
-                int veryImportantCount = getDailyCompletedCountByImportance(userId, importance);
-                return veryImportantCount < 2;
-
-            case TaskEntity.IMPORTANCE_SPECIAL:
-                int specialCount = getMonthlyCompletedCountByImportance(userId, importance);
-                return specialCount < 1;
-
-            default:
-                return true;
-        }
-    }
-
-    private int getDailyCompletedCount(String userId, int difficulty) {
-        long today = DateUtils.getStartOfDay(System.currentTimeMillis());
-        long tomorrow = today + 24 * 60 * 60 * 1000;
-        return taskDao.getCompletedTasksCountByDifficultyAndDateRange(userId, difficulty, today, tomorrow);
-    }
-
-    private int getDailyCompletedCountByImportance(String userId, int importance) {
-        long today = DateUtils.getStartOfDay(System.currentTimeMillis());
-        long tomorrow = today + 24 * 60 * 60 * 1000;
-        return taskDao.getCompletedTasksCountByImportanceAndDateRange(userId, importance, today, tomorrow);
-    }
-
-    private int getWeeklyCompletedCount(String userId, int difficulty) {
-        long startOfWeek = DateUtils.getStartOfWeek(System.currentTimeMillis());
-        long endOfWeek = startOfWeek + 7 * 24 * 60 * 60 * 1000;
-        return taskDao.getCompletedTasksCountByDifficultyAndDateRange(userId, difficulty, startOfWeek, endOfWeek);
-    }
-
-    private int getMonthlyCompletedCountByImportance(String userId, int importance) {
-        long startOfMonth = DateUtils.getStartOfMonth(System.currentTimeMillis());
-        long endOfMonth = DateUtils.getEndOfMonth(System.currentTimeMillis());
-        return taskDao.getCompletedTasksCountByImportanceAndDateRange(userId, importance, startOfMonth, endOfMonth);
+    public void invalidateXpQuotas(String userId) {
+        xpQuotaLedger.invalidate(userId);
     }
 
     // Dodajte ove metode u TaskRepository.java
@@ -680,88 +793,71 @@ public class TaskRepository {
 
     // ========== STATISTICS ==========
 
+    /**
+     * Statistika zadataka koja se osvežava pri svakoj izmeni tabele tasks
+     */
     public LiveData<TaskListViewModel.TaskStatistics> getTaskStatistics(String userId) {
-        MutableLiveData<TaskListViewModel.TaskStatistics> statisticsLiveData = new MutableLiveData<>();
+        return new TaskStatisticsLiveData(database, executor, userId);
+    }
 
-        executor.execute(() -> {
+    /**
+     * Ponovo računa niz iz task_completions (posle migracije ili sinhronizacije)
+     */
+    public void repairStreak(String userId) {
+        executor.execute("repairStreak", () -> {
             try {
-                int totalTasks = taskDao.getTotalTasks(userId);
-                int completedTasks = taskDao.getTotalCompletedTasks(userId);
-
-                int activeTasks = 0;
-                int failedTasks = 0;
-                int pausedTasks = 0;
-                int canceledTasks = 0;
-
-                List<TaskEntity> allTasks = taskDao.getAllTasks(userId).getValue();
-                if (allTasks != null) {
-                    for (TaskEntity task : allTasks) {
-                        switch (task.status) {
-                            case TaskEntity.STATUS_ACTIVE:
-                                activeTasks++;
-                                break;
-                            case TaskEntity.STATUS_FAILED:
-                                failedTasks++;
-                                break;
-                            case TaskEntity.STATUS_PAUSED:
-                                pausedTasks++;
-                                break;
-                            case TaskEntity.STATUS_CANCELED:
-                                canceledTasks++;
-                                break;
-                        }
-                    }
-                }
-
-                int overdueCount = getOverdueTasks(userId).size();
-
-                TaskListViewModel.TaskStatistics statistics = new TaskListViewModel.TaskStatistics(
-                        totalTasks, completedTasks, activeTasks, failedTasks, pausedTasks, overdueCount
-                );
-
-                statisticsLiveData.postValue(statistics);
-
+                repairStreakSync(userId);
             } catch (Exception e) {
-                Log.e(TAG, "Error calculating task statistics", e);
-                statisticsLiveData.postValue(new TaskListViewModel.TaskStatistics(0, 0, 0, 0, 0, 0));
+                Log.e(TAG, "Error repairing streak", e);
             }
         });
-
-        return statisticsLiveData;
     }
 
-    private void updateDailyStats(String userId, TaskEntity task, int xpEarned) {
-        long today = DateUtils.getStartOfDay(System.currentTimeMillis());
-        DailyStatsEntity stats = dailyStatsDao.getDailyStats(userId, today);
-
-        if (stats == null) {
-            stats = new DailyStatsEntity(userId, today);
+    public void repairStreakSync(String userId) {
+        List<Integer> days = taskDao.getCompletionDaysDescending(userId);
+        if (days.isEmpty()) {
+            return;
         }
 
-        stats.incrementTaskCompleted(task.difficulty);
-        stats.addXp(xpEarned);
-
-        dailyStatsDao.insertOrUpdateDailyStats(stats);
-    }
-
-    private void updateStreak(String userId) {
-        long today = DateUtils.getStartOfDay(System.currentTimeMillis());
-        int currentStreak = calculateCurrentStreak(userId, today);
-
-        UserProgressEntity userProgress = userProgressDao.getUserProgressSync(userId);
-        if (userProgress != null) {
-            userProgress.updateStreak(currentStreak);
-            userProgressDao.updateUserProgress(userProgress);
+        int lastActiveDay = days.get(0);
+        int currentStreak = 0;
+        int longestStreak = 0;
+        int run = 0;
+        boolean inCurrentRun = true;
+        int previousDay = lastActiveDay + 1;
+
+        for (int day : days) {
+            if (day != previousDay - 1) {
+                // Prekid niza - niz koji se završava poslednjim aktivnim danom je gotov
+                inCurrentRun = false;
+                run = 0;
+            }
+            run++;
+            if (inCurrentRun) {
+                currentStreak = run;
+            }
+            longestStreak = Math.max(longestStreak, run);
+            previousDay = day;
         }
+
+        userProgressDao.repairStreak(userId, currentStreak, longestStreak, lastActiveDay,
+                System.currentTimeMillis());
+        Log.d(TAG, "Streak repaired for " + userId + ": current " + currentStreak +
+                ", longest " + longestStreak);
     }
 
     public void updateUserProgress(UserProgressEntity userProgress) {
         executor.execute(() -> {
             try {
+                UserProgressEntity stored = userProgressDao.getUserProgressSync(userProgress.userId);
                 userProgressDao.updateUserProgress(userProgress);
 
                 // Sync to Firebase ako treba
-                syncUserProgressToFirebase(userProgress);
+                if (stored != null) {
+                    progressSync.recordChange(stored, userProgress);
+                } else {
+                    progressSync.recordReplace(userProgress);
+                }
 
                 Log.d(TAG, "UserProgress updated: Level " + userProgress.currentLevel +
                         ", XP " + userProgress.currentXp);
@@ -772,92 +868,10 @@ public class TaskRepository {
         });
     }
 
-    private int calculateCurrentStreak(String userId, long today) {
-        int streak = 0;
-        long checkDate = today;
-
-        while (true) {
-            int completions = taskDao.getTasksCompletedOnDate(userId, checkDate);
-            if (completions > 0) {
-                streak++;
-                checkDate -= 24 * 60 * 60 * 1000;
-            } else {
-                break;
-            }
-
-            if (streak > 365) break;
-        }
-
-        return streak;
-    }
-
     private void updateDailyStatsForFailedTask(String userId, TaskEntity task) {
         long today = DateUtils.getStartOfDay(System.currentTimeMillis());
-        DailyStatsEntity stats = dailyStatsDao.getDailyStats(userId, today);
-
-        if (stats == null) {
-            stats = new DailyStatsEntity(userId, today);
-        }
-
-        stats.incrementTaskFailed();
-        dailyStatsDao.insertOrUpdateDailyStats(stats);
-    }
-
-    // ========== FIREBASE SYNC ==========
-
-    private void syncTaskToFirebase(TaskEntity task) {
-        if (task.syncedToFirebase) return;
-
-        executor.execute(() -> {
-            try {
-                task.syncedToFirebase = true;
-                taskDao.updateTask(task);
-            } catch (Exception e) {
-                Log.e(TAG, "Error syncing task to Firebase", e);
-            }
-        });
-    }
-
-    private void syncUserProgressToFirebase(UserProgressEntity userProgress) {
-        try {
-            Map<String, Object> progressData = new HashMap<>();
-            progressData.put("level", userProgress.currentLevel);
-            progressData.put("xp", userProgress.currentXp);
-            progressData.put("pp", userProgress.totalPp);
-            progressData.put("coins", userProgress.coins);
-            progressData.put("currentStreak", userProgress.currentStreak);
-            progressData.put("longestStreak", userProgress.longestStreak);
-            progressData.put("title", getTitleForLevel(userProgress.currentLevel));
-            progressData.put("updatedAt", System.currentTimeMillis());
-
-            firestore.collection(Constants.COLLECTION_USERS)
-                    .document(userProgress.userId)
-                    .update(progressData)
-                    .addOnSuccessListener(aVoid ->
-                            Log.d(TAG, "UserProgress synced to Firebase"))
-                    .addOnFailureListener(e ->
-                            Log.e(TAG, "Error syncing UserProgress to Firebase", e));
-
-        } catch (Exception e) {
-            Log.e(TAG, "Error in syncUserProgressToFirebase", e);
-        }
-    }
-
-    private String getTitleForLevel(int level) {
-        switch (level) {
-            case 0: return "Novajlija";
-            case 1: return "Početnik";
-            case 2: return "Istraživač";
-            case 3: return "Ratnik";
-            case 4: return "Veteran";
-            case 5: return "Majstor";
-            case 6: return "Ekspert";
-            case 7: return "Šampion";
-            case 8: return "Legenda";
-            case 9: return "Mitska Legenda";
-            case 10: return "Besmrtni";
-            default: return "Legenda (Nivo " + level + ")";
-        }
+        dailyStatsDao.ensureDailyStats(userId, today);
+        dailyStatsDao.incrementTasksFailed(userId, today);
     }
 
     public void resetUserProgress(String userId, OnTaskStatusChangeCallback callback) {
@@ -866,7 +880,7 @@ public class TaskRepository {
                 UserProgressEntity userProgress = new UserProgressEntity(userId);
                 userProgressDao.insertOrUpdateUserProgress(userProgress);
 
-                syncUserProgressToFirebase(userProgress);
+                progressSync.recordReplace(userProgress);
 
                 if (callback != null) {
                     callback.onSuccess("Napredak resetovan");
@@ -915,6 +929,20 @@ public class TaskRepository {
         return dailyStatsDao.getLast7DaysStats(userId);
     }
 
+    // Zbirovi iz weekly_stats / monthly_stats / lifetime_stats - jedan red bez obzira na dužinu istorije
+
+    public LiveData<LifetimeStatsEntity> getLifetimeStats(String userId) {
+        return dailyStatsDao.observeLifetimeStats(userId);
+    }
+
+    public LiveData<WeeklyStatsEntity> getWeeklyStats(String userId, long timestamp) {
+        return dailyStatsDao.observeWeeklyStats(userId, DailyStatsDao.weekKey(timestamp));
+    }
+
+    public LiveData<MonthlyStatsEntity> getMonthlyStats(String userId, long timestamp) {
+        return dailyStatsDao.observeMonthlyStats(userId, DailyStatsDao.monthKey(timestamp));
+    }
+
     public LiveData<UserProgressEntity> getUserProgress(String userId) {
         // Ensure UserProgress exists
         executor.execute(() -> {
@@ -940,6 +968,8 @@ public class TaskRepository {
                 UserProgressEntity newProgress = new UserProgressEntity(userId);
                 userProgressDao.insertOrUpdateUserProgress(newProgress);
             }
+
+            xpQuotaLedger.warmUp(userId);
         });
     }
 
@@ -957,16 +987,6 @@ public class TaskRepository {
         }
     }
 
-    private boolean shouldLevelUp(UserProgressEntity userProgress) {
-        try {
-            int requiredXp = GameLogicUtils.calculateXpForLevel(userProgress.currentLevel + 1);
-            return userProgress.currentXp >= requiredXp;
-        } catch (Exception e) {
-            Log.e(TAG, "Error checking level up", e);
-            return false;
-        }
-    }
-
     public void addXpToUser(String userId, int xpToAdd, OnTaskCompletedCallback callback) {
         executor.execute(() -> {
             try {
@@ -974,15 +994,18 @@ public class TaskRepository {
 
                 int oldLevel = userProgress.currentLevel;
                 int oldXp = userProgress.currentXp;
+                int oldPp = userProgress.totalPp;
 
                 // Add XP
                 userProgress.addXp(xpToAdd);
 
-                // Check for level up
+                // Check for level up - ciljni nivo jednom binarnom pretragom kroz LevelTable
+                LevelTable levelTable = LevelTable.getInstance();
+                int targetLevel = levelTable.getLevelForXpThreshold(userProgress.currentXp);
                 boolean leveledUp = false;
-                while (shouldLevelUp(userProgress)) {
+                while (userProgress.currentLevel < targetLevel) {
                     int newLevel = userProgress.currentLevel + 1;
-                    int ppGained = GameLogicUtils.calculatePpForLevel(newLevel);
+                    int ppGained = LevelTable.toInt(levelTable.getPpForLevel(newLevel));
                     userProgress.levelUp(newLevel, ppGained);
                     leveledUp = true;
 
@@ -994,7 +1017,7 @@ public class TaskRepository {
                 userProgressDao.updateUserProgress(userProgress);
 
                 // Sync to Firebase
-                syncUserProgressToFirebase(userProgress);
+                progressSync.recordDelta(userProgress, xpToAdd, userProgress.totalPp - oldPp, 0);
 
                 if (callback != null) {
                     callback.onSuccess(xpToAdd, userProgress.currentLevel);
@@ -1012,90 +1035,27 @@ public class TaskRepository {
         });
     }
 
-    private void checkAndUpdateSpecialMission(String userId, TaskEntity task) {
-        AllianceRepository allianceRepo = new AllianceRepository();
-        allianceRepo.getUserAlliance(userId, new AllianceRepository.OnAllianceLoadedListener() {
-            @Override
-            public void onSuccess(Alliance alliance) {
-                SpecialMissionRepository.getInstance().getActiveMission(alliance.getId())
-                        .observeForever(mission -> {
-                            if (mission != null) {
-                                String actionType;
-
-                                // Određivanje tipa akcije
-                                if (task.difficulty == TaskEntity.DIFFICULTY_VERY_EASY ||
-                                        task.difficulty == TaskEntity.DIFFICULTY_EASY) {
-                                    actionType = "easy_task";
-                                } else {
-                                    actionType = "hard_task";
-                                }
-
-                                // JEDAN poziv za update - MissionProgress će sam da obradi štetu
-                                SpecialMissionRepository.getInstance().updateMissionProgress(
-                                        mission.getId(), userId, actionType,
-                                        new SpecialMissionRepository.OnProgressUpdatedCallback() {
-                                            @Override
-                                            public void onSuccess(int damageDealt, int remainingBossHp) {
-                                                Log.d(TAG, "Special mission progress updated: " + damageDealt + " damage");
-                                            }
-
-                                            @Override
-                                            public void onError(String error) {
-                                                Log.e(TAG, "Special mission update failed: " + error);
-                                            }
-                                        }
-                                );
-                            }
-                        });
-            }
-
-            @Override
-            public void onError(String error) {
-                Log.d(TAG, "No alliance found for user: " + error);
-            }
-
-            @Override
-            public void onNotInAlliance() {
-                Log.d(TAG, "User not in alliance, skipping special mission update");
-            }
-        });
-    }
-
     private void checkAndUpdateSpecialMissionForFailedTask(String userId) {
-        AllianceRepository allianceRepo = new AllianceRepository();
-        allianceRepo.getUserAlliance(userId, new AllianceRepository.OnAllianceLoadedListener() {
-            @Override
-            public void onSuccess(Alliance alliance) {
-                SpecialMissionRepository.getInstance().getActiveMission(alliance.getId())
-                        .observeForever(mission -> {
-                            if (mission != null) {
-                                SpecialMissionRepository.getInstance().updateMissionProgress(
-                                        mission.getId(), userId, "task_failed",
-                                        new SpecialMissionRepository.OnProgressUpdatedCallback() {
-                                            @Override
-                                            public void onSuccess(int damageDealt, int remainingBossHp) {
-                                                Log.d(TAG, "Special mission updated for failed task (no damage)");
-                                            }
-
-                                            @Override
-                                            public void onError(String error) {
-                                                Log.e(TAG, "Special mission update failed for failed task: " + error);
-                                            }
-                                        }
-                                );
-                            }
-                        });
+        AllianceContext.getInstance().resolveAlliance(userId, allianceId -> {
+            if (allianceId == null) {
+                Log.d(TAG, "User not in alliance, skipping failed task update");
+                return;
             }
 
-            @Override
-            public void onError(String error) {
-                Log.d(TAG, "No alliance found for failed task update: " + error);
-            }
+            SpecialMissionRepository.getInstance().recordTaskCompleted(
+                    allianceId, userId, 0, 0, false,
+                    new SpecialMissionRepository.OnTaskRecordedCallback() {
+                        @Override
+                        public void onSuccess(SpecialMission mission) {
+                            Log.d(TAG, "Special mission updated for failed task (no damage)");
+                        }
 
-            @Override
-            public void onNotInAlliance() {
-                Log.d(TAG, "User not in alliance, skipping failed task update");
-            }
+                        @Override
+                        public void onError(String error) {
+                            Log.e(TAG, "Special mission update failed for failed task: " + error);
+                        }
+                    }
+            );
         });
     }
 
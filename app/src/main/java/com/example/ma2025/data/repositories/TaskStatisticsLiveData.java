@@ -0,0 +1,104 @@
+package com.example.ma2025.data.repositories;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.room.InvalidationTracker;
+import com.example.ma2025.data.database.AppDatabase;
+import com.example.ma2025.data.database.dao.TaskDao;
+import com.example.ma2025.data.database.entities.TaskEntity;
+import com.example.ma2025.viewmodels.TaskListViewModel;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Statistika zadataka korisnika koja se ponovo računa samo kada Room javi izmenu
+ * tabele tasks (InvalidationTracker), i to jednim agregatnim upitom (getStatusCounts).
+ * Dok nema aktivnih posmatrača, ne prati izmene.
+ */
+class TaskStatisticsLiveData extends LiveData<TaskListViewModel.TaskStatistics> {
+    private static final String TAG = "TaskStatisticsLiveData";
+
+    private final AppDatabase database;
+    private final TaskDao taskDao;
+    private final Executor executor;
+    private final String userId;
+
+    // Više izmena pre nego što se upit izvrši spaja se u jedno računanje
+    private final AtomicBoolean refreshPending = new AtomicBoolean(false);
+
+    private final InvalidationTracker.Observer tasksObserver = new InvalidationTracker.Observer("tasks") {
+        @Override
+        public void onInvalidated(@NonNull Set<String> tables) {
+            refresh();
+        }
+    };
+
+    TaskStatisticsLiveData(AppDatabase database, Executor executor, String userId) {
+        this.database = database;
+        this.taskDao = database.taskDao();
+        this.executor = executor;
+        this.userId = userId;
+    }
+
+    @Override
+    protected void onActive() {
+        database.getInvalidationTracker().addObserver(tasksObserver);
+        refresh();
+    }
+
+    @Override
+    protected void onInactive() {
+        database.getInvalidationTracker().removeObserver(tasksObserver);
+    }
+
+    private void refresh() {
+        if (!refreshPending.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            refreshPending.set(false);
+            try {
+                postValue(compute());
+            } catch (Exception e) {
+                Log.e(TAG, "Error calculating task statistics", e);
+                postValue(new TaskListViewModel.TaskStatistics(0, 0, 0, 0, 0, 0));
+            }
+        });
+    }
+
+    private TaskListViewModel.TaskStatistics compute() {
+        List<TaskDao.StatusCount> counts = taskDao.getStatusCounts(userId, System.currentTimeMillis());
+
+        int total = 0;
+        int completed = 0;
+        int active = 0;
+        int failed = 0;
+        int paused = 0;
+        int overdue = 0;
+
+        for (TaskDao.StatusCount row : counts) {
+            total += row.count;
+            overdue += row.overdue;
+            switch (row.status) {
+                case TaskEntity.STATUS_COMPLETED:
+                    completed = row.count;
+                    break;
+                case TaskEntity.STATUS_ACTIVE:
+                    active = row.count;
+                    break;
+                case TaskEntity.STATUS_FAILED:
+                    failed = row.count;
+                    break;
+                case TaskEntity.STATUS_PAUSED:
+                    paused = row.count;
+                    break;
+            }
+        }
+
+        return new TaskListViewModel.TaskStatistics(total, completed, active, failed, paused, overdue);
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.ma2025.data.repositories;
+
+import android.util.Log;
+import com.example.ma2025.data.database.dao.TaskCompletionDao;
+import com.example.ma2025.data.database.entities.TaskEntity;
+import com.example.ma2025.utils.DayKey;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drži u memoriji brojače završenih zadataka po težini i bitnosti za tekući
+ * dan, nedelju i mesec, tako da provera XP kvote ne zavisi od veličine tabele
+ * task_completions. Brojači se pune jednim grupisanim upitom po korisniku,
+ * a posle toga se samo uvećavaju pri svakom završetku zadatka.
+ */
+public class XpQuotaLedger {
+    private static final String TAG = "XpQuotaLedger";
+
+    // Ekstremni zadaci imaju nedeljnu kvotu, specijalni mesečnu
+    private static final int WEEKLY_EXTREME_LIMIT = 1;
+    private static final int MONTHLY_SPECIAL_LIMIT = 1;
+
+    private final TaskCompletionDao taskCompletionDao;
+    private final Map<String, Windows> ledgers = new HashMap<>();
+
+    public XpQuotaLedger(TaskCompletionDao taskCompletionDao) {
+        this.taskCompletionDao = taskCompletionDao;
+    }
+
+    // ========== QUOTA CHECKS ==========
+
+    /**
+     * Proverava da li zadatak date težine i bitnosti još uvek donosi XP u trenutku :now
+     */
+    public synchronized boolean canEarnXp(String userId, int difficulty, int importance, long now) {
+        Windows windows = windowsFor(userId, now);
+        return windows.hasDifficultyQuota(difficulty) && windows.hasImportanceQuota(importance);
+    }
+
+    /**
+     * Beleži novi završetak zadatka. Ako korisnik još nije učitan, ne radi ništa -
+     * završetak je već u bazi i biće pokupljen pri prvom učitavanju.
+     */
+    public synchronized void recordCompletion(String userId, int difficulty, int importance, long completionDate) {
+        Windows windows = ledgers.get(userId);
+        if (windows == null) {
+            return;
+        }
+
+        if (!windows.roll(completionDate)) {
+            ledgers.put(userId, load(userId, completionDate));
+            return;
+        }
+
+        windows.add(difficulty, importance, completionDate, 1);
+    }
+
+    /**
+     * Puni brojače za korisnika (npr. pri prijavi), kako prvi završetak ne bi čekao na upit
+     */
+    public synchronized void warmUp(String userId) {
+        if (!ledgers.containsKey(userId)) {
+            ledgers.put(userId, load(userId, System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Odbacuje brojače korisnika - koristi se kada se završeci brišu (brisanje zadatka, logout)
+     */
+    public synchronized void invalidate(String userId) {
+        ledgers.remove(userId);
+    }
+
+    // ========== INTERNAL ==========
+
+    private Windows windowsFor(String userId, long now) {
+        Windows windows = ledgers.get(userId);
+        if (windows == null || !windows.roll(now)) {
+            windows = load(userId, now);
+            ledgers.put(userId, windows);
+        }
+        return windows;
+    }
+
+    private Windows load(String userId, long now) {
+        Windows windows = new Windows(now);
+        long since = Math.min(windows.weekStart, windows.monthStart);
+
+        List<TaskCompletionDao.QuotaBucket> buckets = taskCompletionDao.getQuotaBuckets(userId, since);
+        for (TaskCompletionDao.QuotaBucket bucket : buckets) {
+            windows.add(bucket.difficulty, bucket.importance, bucket.completion_date, bucket.count);
+        }
+
+        Log.d(TAG, "Quota ledger loaded for " + userId + " from " + buckets.size() + " buckets");
+        return windows;
+    }
+
+    private static int dailyDifficultyLimit(int difficulty) {
+        switch (difficulty) {
+            case TaskEntity.DIFFICULTY_VERY_EASY: return 5;
+            case TaskEntity.DIFFICULTY_EASY: return 5;
+            case TaskEntity.DIFFICULTY_HARD: return 2;
+            default: return Integer.MAX_VALUE;
+        }
+    }
+
+    private static int dailyImportanceLimit(int importance) {
+        switch (importance) {
+            case TaskEntity.IMPORTANCE_NORMAL: return 5;
+            case TaskEntity.IMPORTANCE_IMPORTANT: return 5;
+            case TaskEntity.IMPORTANCE_VERY_IMPORTANT: return 2;
+            default: return Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Brojači jednog korisnika za tekući dan, nedelju i mesec (indeks = težina/bitnost 1-4)
+     */
+    private static class Windows {
+        long dayStart;
+        long dayEnd;
+        long weekStart;
+        long weekEnd;
+        long monthStart;
+        long monthEnd;
+
+        final int[] dayByDifficulty = new int[5];
+        final int[] weekByDifficulty = new int[5];
+        final int[] monthByDifficulty = new int[5];
+        final int[] dayByImportance = new int[5];
+        final int[] weekByImportance = new int[5];
+        final int[] monthByImportance = new int[5];
+
+        Windows(long now) {
+            resetDay(now);
+            resetWeek(now);
+            resetMonth(now);
+        }
+
+        /**
+         * Pomera prozore tako da obuhvate :now. Vraća false ako je vreme otišlo unazad,
+         * pa brojače treba ponovo učitati iz baze.
+         */
+        boolean roll(long now) {
+            if (now < dayStart) {
+                return false;
+            }
+            if (now >= dayEnd) {
+                resetDay(now);
+            }
+            if (now >= weekEnd) {
+                resetWeek(now);
+            }
+            if (now >= monthEnd) {
+                resetMonth(now);
+            }
+            return true;
+        }
+
+        void add(int difficulty, int importance, long completionDate, int count) {
+            if (difficulty < 0 || difficulty > 4 || importance < 0 || importance > 4) {
+                return;
+            }
+            if (completionDate >= dayStart && completionDate < dayEnd) {
+                dayByDifficulty[difficulty] += count;
+                dayByImportance[importance] += count;
+            }
+            if (completionDate >= weekStart && completionDate < weekEnd) {
+                weekByDifficulty[difficulty] += count;
+                weekByImportance[importance] += count;
+            }
+            if (completionDate >= monthStart && completionDate < monthEnd) {
+                monthByDifficulty[difficulty] += count;
+                monthByImportance[importance] += count;
+            }
+        }
+
+        boolean hasDifficultyQuota(int difficulty) {
+            if (difficulty == TaskEntity.DIFFICULTY_EXTREME) {
+                return weekByDifficulty[difficulty] < WEEKLY_EXTREME_LIMIT;
+            }
+            if (difficulty < 0 || difficulty > 4) {
+                return true;
+            }
+            return dayByDifficulty[difficulty] < dailyDifficultyLimit(difficulty);
+        }
+
+        boolean hasImportanceQuota(int importance) {
+            if (importance == TaskEntity.IMPORTANCE_SPECIAL) {
+                return monthByImportance[importance] < MONTHLY_SPECIAL_LIMIT;
+            }
+            if (importance < 0 || importance > 4) {
+                return true;
+            }
+            return dayByImportance[importance] < dailyImportanceLimit(importance);
+        }
+
+        private void resetDay(long now) {
+            int today = DayKey.of(now);
+            dayStart = DayKey.startOf(today);
+            dayEnd = DayKey.startOf(today + 1);
+            Arrays.fill(dayByDifficulty, 0);
+            Arrays.fill(dayByImportance, 0);
+        }
+
+        private void resetWeek(long now) {
+            int monday = DayKey.weekStart(DayKey.of(now));
+            weekStart = DayKey.startOf(monday);
+            weekEnd = DayKey.startOf(monday + 7);
+            Arrays.fill(weekByDifficulty, 0);
+            Arrays.fill(weekByImportance, 0);
+        }
+
+        private void resetMonth(long now) {
+            int today = DayKey.of(now);
+            monthStart = DayKey.startOf(DayKey.monthStart(today));
+            monthEnd = DayKey.startOf(DayKey.monthEnd(today) + 1);
+            Arrays.fill(monthByDifficulty, 0);
+            Arrays.fill(monthByImportance, 0);
+        }
+    }
+}
@@ -23,11 +23,10 @@ import androidx.lifecycle.ViewModelProvider;
 
 import com.example.ma2025.MainActivity;
 import com.example.ma2025.R;
-import com.example.ma2025.data.models.Alliance;
 import com.example.ma2025.data.models.Equipment;
 import com.example.ma2025.data.models.SpecialMission;
 import com.example.ma2025.data.models.User;
-import com.example.ma2025.data.repositories.AllianceRepository;
+import com.example.ma2025.data.repositories.AllianceContext;
 import com.example.ma2025.data.repositories.SpecialMissionRepository;
 import com.example.ma2025.utils.BossAnimationManager;
 import com.example.ma2025.utils.Constants;
@@ -457,36 +456,25 @@ public class BossFragment extends Fragment {
 
         if (userId == null) return;
 
-        AllianceRepository allianceRepo = new AllianceRepository();
-        allianceRepo.getUserAlliance(userId, new AllianceRepository.OnAllianceLoadedListener() {
-            @Override
-            public void onSuccess(Alliance alliance) {
-                SpecialMissionRepository.getInstance().recordSuccessfulAttack(
-                        alliance.getId(),
-                        userId,
-                        new SpecialMissionRepository.OnTaskRecordedCallback() {
-                            @Override
-                            public void onSuccess(SpecialMission mission) {
-                                // Napad uspešno zabeležen
-                            }
-
-                            @Override
-                            public void onError(String error) {
-                                // Nema aktivne misije
-                            }
+        AllianceContext.getInstance().resolveAlliance(userId, allianceId -> {
+            // Korisnik nije u savezu
+            if (allianceId == null) return;
+
+            SpecialMissionRepository.getInstance().recordSuccessfulAttack(
+                    allianceId,
+                    userId,
+                    new SpecialMissionRepository.OnTaskRecordedCallback() {
+                        @Override
+                        public void onSuccess(SpecialMission mission) {
+                            // Napad uspešno zabeležen
                         }
-                );
-            }
-
-            @Override
-            public void onError(String error) {
-                // Greška pri učitavanju saveza
-            }
 
-            @Override
-            public void onNotInAlliance() {
-                // Korisnik nije u savezu
-            }
+                        @Override
+                        public void onError(String error) {
+                            // Nema aktivne misije
+                        }
+                    }
+            );
         });
     }
 
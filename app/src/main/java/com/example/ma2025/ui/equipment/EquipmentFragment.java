@@ -27,9 +27,8 @@ import com.google.firebase.firestore.QueryDocumentSnapshot;
 import java.util.ArrayList;
 import java.util.List;
 import android.app.AlertDialog;
-import com.example.ma2025.data.repositories.AllianceRepository;
+import com.example.ma2025.data.repositories.AllianceContext;
 import com.example.ma2025.data.repositories.SpecialMissionRepository;
-import com.example.ma2025.data.models.Alliance;
 
 
 public class EquipmentFragment extends Fragment implements
@@ -379,39 +378,30 @@ public class EquipmentFragment extends Fragment implements
     }
 
     private void updateSpecialMissionForPurchase(String userId) {
-        AllianceRepository allianceRepo = new AllianceRepository();
-        allianceRepo.getUserAlliance(userId, new AllianceRepository.OnAllianceLoadedListener() {
-            @Override
-            public void onSuccess(Alliance alliance) {
-                SpecialMissionRepository.getInstance().recordStoreVisit(
-                        alliance.getId(),
-                        userId,
-                        new SpecialMissionRepository.OnTaskRecordedCallback() {
-                            @Override
-                            public void onSuccess(SpecialMission mission) {
-                                Log.d(TAG, "Store visit recorded. Boss HP: " + mission.getBossHp());
-                                Toast.makeText(getContext(),
-                                        "Kupovina je nanela 2 HP štete bosu specijalne misije!",
-                                        Toast.LENGTH_SHORT).show();
-                            }
-
-                            @Override
-                            public void onError(String error) {
-                                Log.d(TAG, "No active mission: " + error);
-                            }
-                        }
-                );
+        AllianceContext.getInstance().resolveAlliance(userId, allianceId -> {
+            if (allianceId == null) {
+                Log.d(TAG, "User not in alliance");
+                return;
             }
 
-            @Override
-            public void onError(String error) {
-                Log.d(TAG, "No alliance: " + error);
-            }
+            SpecialMissionRepository.getInstance().recordStoreVisit(
+                    allianceId,
+                    userId,
+                    new SpecialMissionRepository.OnTaskRecordedCallback() {
+                        @Override
+                        public void onSuccess(SpecialMission mission) {
+                            Log.d(TAG, "Store visit recorded. Boss HP: " + mission.getBossHp());
+                            Toast.makeText(getContext(),
+                                    "Kupovina je nanela 2 HP štete bosu specijalne misije!",
+                                    Toast.LENGTH_SHORT).show();
+                        }
 
-            @Override
-            public void onNotInAlliance() {
-                Log.d(TAG, "User not in alliance");
-            }
+                        @Override
+                        public void onError(String error) {
+                            Log.d(TAG, "No active mission: " + error);
+                        }
+                    }
+            );
         });
     }
 
@@ -8,9 +8,8 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.ma2025.R;
 import com.example.ma2025.data.models.AllianceMessage;
-import java.text.SimpleDateFormat;
+import com.example.ma2025.utils.DateUtils;
 import java.util.List;
-import java.util.Locale;
 
 public class AllianceChatAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
 
@@ -75,8 +74,7 @@ public class AllianceChatAdapter extends RecyclerView.Adapter<RecyclerView.ViewH
         public void bind(AllianceMessage message) {
             tvMessage.setText(message.getMessage());
 
-            SimpleDateFormat sdf = new SimpleDateFormat("HH:mm", Locale.getDefault());
-            tvTime.setText(sdf.format(message.getTimestamp()));
+            tvTime.setText(DateUtils.formatTime(message.getTimestamp().getTime()));
         }
     }
 
@@ -96,8 +94,7 @@ public class AllianceChatAdapter extends RecyclerView.Adapter<RecyclerView.ViewH
             tvMessage.setText(message.getMessage());
             tvSender.setText(message.getSenderUsername());
 
-            SimpleDateFormat sdf = new SimpleDateFormat("HH:mm", Locale.getDefault());
-            tvTime.setText(sdf.format(message.getTimestamp()));
+            tvTime.setText(DateUtils.formatTime(message.getTimestamp().getTime()));
         }
     }
 }
\ No newline at end of file
@@ -9,9 +9,8 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.ma2025.R;
 import com.example.ma2025.data.models.AllianceInvitation;
-import java.text.SimpleDateFormat;
+import com.example.ma2025.utils.DateUtils;
 import java.util.List;
-import java.util.Locale;
 
 public class InvitationsAdapter extends RecyclerView.Adapter<InvitationsAdapter.InvitationViewHolder> {
 
@@ -79,8 +78,7 @@ public class InvitationsAdapter extends RecyclerView.Adapter<InvitationsAdapter.
             tvAllianceName.setText(invitation.getAllianceName());
             tvFromUser.setText("Poziv od: " + invitation.getFromUsername());
 
-            SimpleDateFormat sdf = new SimpleDateFormat("dd.MM.yyyy HH:mm", Locale.getDefault());
-            tvDate.setText(sdf.format(invitation.getCreatedAt()));
+            tvDate.setText(DateUtils.formatDateTime(invitation.getCreatedAt().getTime()));
         }
     }
 }
\ No newline at end of file
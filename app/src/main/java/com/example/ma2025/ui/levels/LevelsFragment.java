@@ -5,8 +5,6 @@ package com.example.ma2025.ui.levels;
 import android.animation.ObjectAnimator;
 import android.app.AlertDialog;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -25,6 +23,7 @@ import com.example.ma2025.ui.levels.adapter.LevelProgressAdapter;
 import com.example.ma2025.ui.levels.model.LevelInfo;
 import com.example.ma2025.utils.Constants;
 import com.example.ma2025.utils.GameLogicUtils;
+import com.example.ma2025.utils.LevelTable;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.FirebaseFirestore;
 
@@ -32,6 +31,7 @@ import com.google.firebase.firestore.FirebaseFirestore;
 import com.example.ma2025.data.repositories.TaskRepository;
 import com.example.ma2025.data.database.entities.UserProgressEntity;
 import com.example.ma2025.data.database.entities.TaskEntity;
+import com.example.ma2025.utils.AppExecutors;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -202,11 +202,11 @@ public class LevelsFragment extends Fragment {
                 @Override
                 public void onSuccess(int xpEarned, int newLevel) {
                     // ISPRAVKA: Toast na main thread
-                    new Handler(Looper.getMainLooper()).post(() -> {
+                    AppExecutors.getInstance().mainThread().execute(() -> {
                         if (newLevel > userProgress.currentLevel) {
                             // Level up!
                             showLevelUpDialog(userProgress.currentLevel, newLevel,
-                                    GameLogicUtils.calculatePpForLevel(newLevel));
+                                    LevelTable.toInt(LevelTable.getInstance().getPpForLevel(newLevel)));
                             Toast.makeText(getContext(),
                                     String.format("LEVEL UP! Nivo %d! +%d XP", newLevel, xpEarned),
                                     Toast.LENGTH_LONG).show();
@@ -223,7 +223,7 @@ public class LevelsFragment extends Fragment {
                 @Override
                 public void onError(String error) {
                     // ISPRAVKA: Toast na main thread
-                    new Handler(Looper.getMainLooper()).post(() -> {
+                    AppExecutors.getInstance().mainThread().execute(() -> {
                         Toast.makeText(getContext(), "Greška: " + error, Toast.LENGTH_SHORT).show();
                     });
                 }
@@ -434,16 +434,16 @@ public class LevelsFragment extends Fragment {
             binding.tvCurrentPp.setText(pp + " PP");
             binding.tvCurrentCoins.setText(coins + " novčića");
 
-            // Next level info - KORISTI GAMELOGICUTILS
-            int nextLevelXp = GameLogicUtils.calculateXpForLevel(level + 1);
+            // Next level info - KORISTI LEVELTABLE
+            LevelTable levelTable = LevelTable.getInstance();
+            int nextLevelXp = LevelTable.toInt(levelTable.getXpForLevel(level + 1));
             binding.tvNextLevelXp.setText("Sledeći nivo: " + nextLevelXp + " XP");
 
             int remainingXp = Math.max(0, nextLevelXp - xp);
             binding.tvRemainingXp.setText("Preostalo: " + remainingXp + " XP");
 
             // Progress calculation - REALNA FORMULA
-            int currentLevelBaseXp = level == 0 ? 0 :
-                    GameLogicUtils.calculateTotalXpForLevel(level);
+            int currentLevelBaseXp = LevelTable.toInt(levelTable.getTotalXpForLevel(level));
             int currentLevelTotalXp = nextLevelXp - currentLevelBaseXp;
             int currentLevelProgress = Math.max(0, xp - currentLevelBaseXp);
 
@@ -473,12 +473,13 @@ public class LevelsFragment extends Fragment {
             int currentLevel = userProgress != null ? userProgress.currentLevel :
                     (currentUser != null ? currentUser.getLevel() : 0);
 
-            // Generate levels 0-10 for display - KORISTI GAMELOGICUTILS
+            // Generate levels 0-10 for display - KORISTI LEVELTABLE
+            LevelTable levelTable = LevelTable.getInstance();
             for (int i = 0; i <= 10; i++) {
                 LevelInfo levelInfo = new LevelInfo();
                 levelInfo.setLevel(i);
-                levelInfo.setXpRequired(GameLogicUtils.calculateXpForLevel(i));
-                levelInfo.setPpReward(GameLogicUtils.calculatePpForLevel(i));
+                levelInfo.setXpRequired(LevelTable.toInt(levelTable.getXpForLevel(i)));
+                levelInfo.setPpReward(LevelTable.toInt(levelTable.getPpForLevel(i)));
                 levelInfo.setTitle(getTitleForLevel(i));
                 levelInfo.setUnlocked(currentLevel >= i);
                 levelInfo.setCurrent(currentLevel == i);
@@ -558,11 +559,11 @@ public class LevelsFragment extends Fragment {
             boolean leveledUp = false;
             int oldLevel = userProgress.currentLevel;
 
-            // Check level up - KORISTI GAMELOGICUTILS
-            int requiredXp = GameLogicUtils.calculateXpForLevel(userProgress.currentLevel + 1);
-            if (userProgress.currentXp >= requiredXp) {
+            // Check level up - KORISTI LEVELTABLE
+            LevelTable levelTable = LevelTable.getInstance();
+            if (userProgress.currentXp >= levelTable.getXpForLevel(userProgress.currentLevel + 1)) {
                 int newLevel = userProgress.currentLevel + 1;
-                int ppGained = GameLogicUtils.calculatePpForLevel(newLevel);
+                int ppGained = LevelTable.toInt(levelTable.getPpForLevel(newLevel));
                 userProgress.levelUp(newLevel, ppGained);
                 leveledUp = true;
 
@@ -574,7 +575,8 @@ public class LevelsFragment extends Fragment {
 
             // Show message
             if (leveledUp) {
-                showLevelUpDialog(oldLevel, userProgress.currentLevel, GameLogicUtils.calculatePpForLevel(userProgress.currentLevel));
+                showLevelUpDialog(oldLevel, userProgress.currentLevel,
+                        LevelTable.toInt(LevelTable.getInstance().getPpForLevel(userProgress.currentLevel)));
                 Toast.makeText(getContext(),
                         String.format("LEVEL UP! Nivo %d! +%d XP", userProgress.currentLevel, totalXp),
                         Toast.LENGTH_LONG).show();
@@ -204,8 +204,8 @@ public class MissionsFragment extends Fragment {
         tvSuccessfulAttacks.setText(String.format("Uspešni napadi: %d/10", userProgress.getSuccessfulAttacks()));
         tvEasyTasks.setText(String.format("Laki zadaci: %d/10", userProgress.getEasyTasksCompleted()));
         tvHardTasks.setText(String.format("Teški zadaci: %d/6", userProgress.getHardTasksCompleted()));
-        tvMessageDays.setText(String.format("Dani sa porukama: %d", userProgress.getMessageDaysCount()));
-        tvUserDamage.setText(String.format("Ukupna šteta: %d HP", userProgress.getTotalDamageDealt()));
+        tvMessageDays.setText(String.format("Dani sa porukama: %d", userProgress.countMessageDays()));
+        tvUserDamage.setText(String.format("Ukupna šteta: %d HP", userProgress.calculateTotalDamage()));
 
         // Update no failed tasks indicator
         tvNoFailedTasks.setText(userProgress.isNoFailedTasks() ?
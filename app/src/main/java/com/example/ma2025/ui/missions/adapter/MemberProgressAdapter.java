@@ -79,7 +79,7 @@ public class MemberProgressAdapter extends RecyclerView.Adapter<MemberProgressAd
             tvMemberName.setText(member.getUsername());
             tvMemberRole.setText(member.getRole().equals("leader") ? "Vođa" : "Član");
 
-            int totalDamage = progress.getTotalDamageDealt();
+            int totalDamage = progress.calculateTotalDamage();
             tvTotalDamage.setText(totalDamage + " HP");
 
             // Set progress bar (max damage someone can theoretically deal is around 100-120 HP)
@@ -96,7 +96,7 @@ public class MemberProgressAdapter extends RecyclerView.Adapter<MemberProgressAd
                     progress.getSuccessfulAttacks(),
                     progress.getEasyTasksCompleted(),
                     progress.getHardTasksCompleted(),
-                    progress.getMessageDaysCount()
+                    progress.countMessageDays()
             );
             tvProgressDetails.setText(details);
 
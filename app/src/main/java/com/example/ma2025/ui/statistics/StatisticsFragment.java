@@ -1,40 +1,291 @@
 package com.example.ma2025.ui.statistics;
 
+import android.graphics.Color;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
-import com.example.ma2025.R;
+import com.example.ma2025.data.database.entities.CategoryEntity;
+import com.example.ma2025.data.database.entities.TaskEntity;
+import com.example.ma2025.data.repositories.CategoryRepository;
+import com.example.ma2025.data.repositories.SpecialMissionRepository;
+import com.example.ma2025.data.repositories.StatisticsEngine;
+import com.example.ma2025.data.repositories.StatsSnapshot;
+import com.example.ma2025.data.repositories.TaskRepository;
+import com.example.ma2025.databinding.FragmentStatisticsBinding;
+import com.example.ma2025.utils.DateUtils;
+import com.example.ma2025.utils.DayKey;
+import com.example.ma2025.viewmodels.TaskListViewModel;
+import com.github.mikephil.charting.charts.BarChart;
+import com.github.mikephil.charting.charts.LineChart;
+import com.github.mikephil.charting.charts.PieChart;
+import com.github.mikephil.charting.components.Description;
+import com.github.mikephil.charting.components.XAxis;
+import com.github.mikephil.charting.data.*;
+import com.github.mikephil.charting.formatter.ValueFormatter;
+import com.github.mikephil.charting.utils.ColorTemplate;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
- * Fragment for Task management (Zadatak)
- * This fragment is now dedicated to Student 2's task management functionality.
- * The statistics functionality has been moved to ProfileFragment.
+ * Ekran statistike. Serije dolaze iz keširanog StatsSnapshot-a (StatisticsEngine), pa se
+ * pri ponovnom ulasku grafikoni iscrtavaju odmah; zadaci po statusu dolaze iz
+ * TaskRepository.getTaskStatistics, nazivi i boje kategorija iz CategoryRepository, a broj
+ * specijalnih misija iz Firestore-a (SpecialMissionRepository.getUserMissionStatistics).
  */
 public class StatisticsFragment extends Fragment {
 
-    private static final String TAG = "TaskFragment";
+    private static final String TAG = "StatisticsFragment";
+
+    private FragmentStatisticsBinding binding;
+
+    // Poslednje primljene vrednosti - grafikon kategorija zavisi i od snapshot-a i od kategorija
+    private StatsSnapshot snapshot;
+    private final Map<Long, CategoryEntity> categories = new HashMap<>();
 
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
-        // Using placeholder layout - Student 2 should replace this with actual task management layout
-        return inflater.inflate(R.layout.fragment_create_task, container, false);
+        binding = FragmentStatisticsBinding.inflate(inflater, container, false);
+        return binding.getRoot();
     }
 
     @Override
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
 
-        // TODO: Student 2 - Implement task management functionality here
-        // This should include:
-        // - Task creation (jednokratni i ponavljajući zadaci)
-        // - Task editing and deletion
-        // - Task completion/marking
-        // - Task categories management
-        // - Task scheduling and reminders
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null) {
+            Log.w(TAG, "No logged in user, statistics not loaded");
+            return;
+        }
+        String userId = user.getUid();
+
+        StatisticsEngine.getInstance(requireContext()).getSnapshot(userId)
+                .observe(getViewLifecycleOwner(), this::renderSnapshot);
+
+        TaskRepository.getInstance(requireContext()).getTaskStatistics(userId)
+                .observe(getViewLifecycleOwner(), this::renderTaskStatistics);
+
+        CategoryRepository.getInstance(requireContext()).getAllCategories(userId)
+                .observe(getViewLifecycleOwner(), list -> {
+                    categories.clear();
+                    if (list != null) {
+                        for (CategoryEntity category : list) {
+                            categories.put(category.id, category);
+                        }
+                    }
+                    if (snapshot != null) {
+                        renderCategoryBarChart(snapshot);
+                    }
+                });
+
+        loadSpecialMissionStatistics(userId);
+    }
+
+    private void loadSpecialMissionStatistics(String userId) {
+        SpecialMissionRepository.getInstance().getUserMissionStatistics(userId,
+                new SpecialMissionRepository.OnMissionStatisticsCallback() {
+                    @Override
+                    public void onSuccess(Map<String, Object> statistics) {
+                        if (binding == null) {
+                            return;
+                        }
+                        binding.tvSpecialMissionsStarted.setText(String.valueOf(statistics.get("started")));
+                        binding.tvSpecialMissionsCompleted.setText(String.valueOf(statistics.get("completed")));
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        Log.e(TAG, "Error loading special mission statistics: " + error);
+                    }
+                });
+    }
+
+    private void renderSnapshot(StatsSnapshot snapshot) {
+        if (binding == null || snapshot == null) {
+            return;
+        }
+        this.snapshot = snapshot;
+
+        binding.tvActiveDays.setText(String.valueOf(snapshot.activeDays));
+        binding.tvCompletionRate.setText(String.format(Locale.getDefault(), "%.0f%%", snapshot.getSuccessRate()));
+        binding.tvLongestStreak.setText(String.valueOf(snapshot.longestStreak));
+
+        renderCategoryBarChart(snapshot);
+        renderXpLineChart(snapshot);
+        renderDifficultyLineChart(snapshot);
+    }
+
+    private void renderTaskStatistics(TaskListViewModel.TaskStatistics statistics) {
+        if (binding == null || statistics == null) {
+            return;
+        }
+
+        binding.tvTotalTasks.setText(String.valueOf(statistics.totalTasks));
+        binding.tvCompletedTasks.setText(String.valueOf(statistics.completedTasks));
+
+        PieChart chart = binding.chartTasksDonut;
+        List<PieEntry> entries = new ArrayList<>();
+        List<Integer> colors = new ArrayList<>();
+        addPieEntry(entries, colors, statistics.completedTasks, "Završeni", "#4CAF50");
+        addPieEntry(entries, colors, statistics.activeTasks, "Aktivni", "#2196F3");
+        addPieEntry(entries, colors, statistics.failedTasks, "Neurađeni", "#F44336");
+        addPieEntry(entries, colors, statistics.pausedTasks, "Pauzirani", "#FF9800");
+
+        if (entries.isEmpty()) {
+            chart.clear();
+            return;
+        }
+
+        PieDataSet dataSet = new PieDataSet(entries, "Zadaci");
+        dataSet.setColors(colors);
+        dataSet.setValueTextSize(12f);
+        dataSet.setValueTextColor(Color.WHITE);
+
+        chart.setData(new PieData(dataSet));
+        chart.setDescription(emptyDescription());
+        chart.invalidate();
+    }
+
+    private void addPieEntry(List<PieEntry> entries, List<Integer> colors, int value, String label, String color) {
+        if (value > 0) {
+            entries.add(new PieEntry(value, label));
+            colors.add(Color.parseColor(color));
+        }
+    }
+
+    private void renderCategoryBarChart(StatsSnapshot snapshot) {
+        if (binding == null) {
+            return;
+        }
+
+        BarChart chart = binding.chartCategoryBar;
+        List<BarEntry> entries = new ArrayList<>();
+        List<Integer> colors = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+
+        for (Map.Entry<Long, Integer> row : snapshot.getCompletedByCategory().entrySet()) {
+            CategoryEntity category = categories.get(row.getKey());
+            entries.add(new BarEntry(entries.size(), row.getValue()));
+            labels.add(category != null ? category.name : "");
+            colors.add(categoryColor(category, colors.size()));
+        }
+
+        if (entries.isEmpty()) {
+            chart.clear();
+            return;
+        }
+
+        BarDataSet dataSet = new BarDataSet(entries, "Završeni po kategoriji");
+        dataSet.setColors(colors);
+        dataSet.setValueTextSize(10f);
+
+        BarData data = new BarData(dataSet);
+        data.setBarWidth(0.8f);
+        chart.setData(data);
+        chart.setDescription(emptyDescription());
+
+        XAxis xAxis = chart.getXAxis();
+        xAxis.setValueFormatter(indexFormatter(labels.toArray(new String[0])));
+        xAxis.setGranularity(1f);
+        xAxis.setGranularityEnabled(true);
+
+        chart.invalidate();
+    }
+
+    private int categoryColor(CategoryEntity category, int index) {
+        if (category != null && category.color != null) {
+            try {
+                return Color.parseColor(category.color);
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "Invalid category color: " + category.color);
+            }
+        }
+        return ColorTemplate.MATERIAL_COLORS[index % ColorTemplate.MATERIAL_COLORS.length];
+    }
+
+    private void renderXpLineChart(StatsSnapshot snapshot) {
+        int[] xpPerDay = snapshot.getXpPerDay();
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < xpPerDay.length; i++) {
+            entries.add(new Entry(i, xpPerDay[i]));
+        }
+
+        LineDataSet dataSet = new LineDataSet(entries, "XP po danu");
+        dataSet.setColor(Color.parseColor("#2196F3"));
+        dataSet.setCircleColor(Color.parseColor("#2196F3"));
+
+        renderLineChart(binding.chartXpLine, dataSet, snapshot.getDayKeys());
+    }
+
+    private void renderDifficultyLineChart(StatsSnapshot snapshot) {
+        float[] averageDifficulty = snapshot.getAverageDifficultyPerDay();
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < averageDifficulty.length; i++) {
+            entries.add(new Entry(i, averageDifficulty[i]));
+        }
+
+        LineDataSet dataSet = new LineDataSet(entries, "Prosečna težina");
+        dataSet.setColor(Color.parseColor("#FF5722"));
+        dataSet.setCircleColor(Color.parseColor("#FF5722"));
+
+        LineChart chart = binding.chartDifficultyLine;
+        chart.getAxisLeft().setAxisMinimum(0f);
+        chart.getAxisLeft().setAxisMaximum(TaskEntity.DIFFICULTY_EXTREME);
+        renderLineChart(chart, dataSet, snapshot.getDayKeys());
+    }
+
+    private void renderLineChart(LineChart chart, LineDataSet dataSet, int[] dayKeys) {
+        String[] labels = new String[dayKeys.length];
+        for (int i = 0; i < dayKeys.length; i++) {
+            labels[i] = DateUtils.format(DayKey.startOf(dayKeys[i]), "dd.MM");
+        }
+
+        chart.setData(new LineData(dataSet));
+        chart.setDescription(emptyDescription());
+
+        XAxis xAxis = chart.getXAxis();
+        xAxis.setValueFormatter(indexFormatter(labels));
+        xAxis.setGranularity(1f);
+        xAxis.setGranularityEnabled(true);
+
+        chart.invalidate();
+    }
+
+    private ValueFormatter indexFormatter(String[] labels) {
+        return new ValueFormatter() {
+            @Override
+            public String getFormattedValue(float value) {
+                int index = (int) value;
+                if (index >= 0 && index < labels.length) {
+                    return labels[index];
+                }
+                return "";
+            }
+        };
+    }
+
+    private Description emptyDescription() {
+        Description desc = new Description();
+        desc.setText("");
+        return desc;
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        binding = null;
+        snapshot = null;
     }
-}
\ No newline at end of file
+}
@@ -2,7 +2,6 @@ package com.example.ma2025.ui.tasks;
 
 import android.graphics.drawable.GradientDrawable;
 import android.os.Bundle;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -18,35 +17,33 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.ma2025.R;
+import com.example.ma2025.data.database.dao.TaskDao;
 import com.example.ma2025.data.database.entities.TaskEntity;
-import com.example.ma2025.data.database.entities.CategoryEntity;
+import com.example.ma2025.data.models.CategoryIndex;
 import com.example.ma2025.ui.tasks.adapter.TaskAdapter;
 import com.example.ma2025.viewmodels.TaskListViewModel;
-import com.example.ma2025.viewmodels.CreateTaskViewModel;
 import com.example.ma2025.utils.DateUtils;
+import com.example.ma2025.utils.DayKey;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 public class CalendarFragment extends Fragment implements TaskAdapter.OnTaskActionListener {
 
     private CalendarView calendarView;
     private RecyclerView rvDayTasks;
     private LinearLayout llEmptyState, llTaskSummary;
-    private TextView tvSelectedDate, tvTaskCount, tvCompletedCount;
+    private TextView tvSelectedDate, tvTaskCount, tvCompletedCount, tvMonthSummary;
     private FloatingActionButton fabAddTask;
 
     private TaskListViewModel taskViewModel;
-    private CreateTaskViewModel createTaskViewModel;
     private TaskAdapter taskAdapter;
 
     private long selectedDate = 0;
-    private List<TaskEntity> allTasks = new ArrayList<>();
-    private List<CategoryEntity> categories = new ArrayList<>();
-    private Map<Long, List<TaskEntity>> tasksByDate = new HashMap<>();
+    private Map<Integer, TaskDao.CalendarDaySummary> daySummaries = new TreeMap<>();
 
     @Nullable
     @Override
@@ -72,16 +69,16 @@ public class CalendarFragment extends Fragment implements TaskAdapter.OnTaskActi
         tvSelectedDate = view.findViewById(R.id.tv_selected_date);
         tvTaskCount = view.findViewById(R.id.tv_task_count);
         tvCompletedCount = view.findViewById(R.id.tv_completed_count);
+        tvMonthSummary = view.findViewById(R.id.tv_month_summary);
         fabAddTask = view.findViewById(R.id.fab_add_task);
     }
 
     private void setupViewModels() {
         taskViewModel = new ViewModelProvider(this).get(TaskListViewModel.class);
-        createTaskViewModel = new ViewModelProvider(this).get(CreateTaskViewModel.class);
     }
 
     private void setupRecyclerView() {
-        taskAdapter = new CalendarTaskAdapter(requireContext(), this, categories);
+        taskAdapter = new CalendarTaskAdapter(requireContext(), this);
         rvDayTasks.setLayoutManager(new LinearLayoutManager(requireContext()));
         rvDayTasks.setAdapter(taskAdapter);
     }
@@ -97,7 +94,7 @@ public class CalendarFragment extends Fragment implements TaskAdapter.OnTaskActi
 
             selectedDate = calendar.getTimeInMillis();
             updateSelectedDateText();
-            showTasksForSelectedDate();
+            taskViewModel.selectCalendarDay(selectedDate);
         });
 
         Calendar minDate = Calendar.getInstance();
@@ -128,26 +125,24 @@ public class CalendarFragment extends Fragment implements TaskAdapter.OnTaskActi
     private void observeData() {
         String userId = taskViewModel.getCurrentUserId();
         if (userId != null) {
-            taskViewModel.getAllTasks(userId).observe(getViewLifecycleOwner(), tasks -> {
-                if (tasks != null) {
-                    this.allTasks = tasks;
-                    Log.d("CalendarFragment", "Loaded " + tasks.size() + " tasks (including past)");
-                    groupTasksByDate();
-                    showTasksForSelectedDate();
-                    updateCalendarIndicators();
-                } else {
-                    Log.d("CalendarFragment", "No tasks loaded");
-                }
+            // Učitava se samo vidljivi mesec (zbirno po danu) i zadaci izabranog dana
+            taskViewModel.getCalendarDayTasks().observe(getViewLifecycleOwner(), tasks -> {
+                showTasksForSelectedDate(tasks != null ? tasks : new ArrayList<>());
             });
 
-            createTaskViewModel.getAllCategories().observe(getViewLifecycleOwner(), categoryList -> {
-                if (categoryList != null) {
-                    this.categories = categoryList;
-                    if (taskAdapter instanceof CalendarTaskAdapter) {
-                        ((CalendarTaskAdapter) taskAdapter).updateCategories(categoryList);
+            taskViewModel.getCalendarDaySummaries().observe(getViewLifecycleOwner(), summaries -> {
+                daySummaries.clear();
+                if (summaries != null) {
+                    for (TaskDao.CalendarDaySummary summary : summaries) {
+                        daySummaries.put(summary.day_key, summary);
                     }
                 }
+                updateCalendarIndicators();
             });
+
+            taskViewModel.selectCalendarDay(selectedDate);
+
+            taskViewModel.getCategoryIndex().observe(getViewLifecycleOwner(), taskAdapter::setCategoryIndex);
         }
 
         taskViewModel.getTaskCompletionResult().observe(getViewLifecycleOwner(), result -> {
@@ -164,37 +159,8 @@ public class CalendarFragment extends Fragment implements TaskAdapter.OnTaskActi
         });
     }
 
-    private void groupTasksByDate() {
-        tasksByDate.clear();
-
-        for (TaskEntity task : allTasks) {
-            long taskDate = getTaskDisplayDate(task);
-            if (taskDate > 0) {
-                long dayStart = DateUtils.getStartOfDay(taskDate);
-
-                if (!tasksByDate.containsKey(dayStart)) {
-                    tasksByDate.put(dayStart, new ArrayList<>());
-                }
-                tasksByDate.get(dayStart).add(task);
-            }
-        }
-    }
-
-    private long getTaskDisplayDate(TaskEntity task) {
-        if (task.dueTime != null && task.dueTime > 0) {
-            return task.dueTime;
-        } else if (task.startDate != null && task.startDate > 0) {
-            return task.startDate;
-        } else if (task.status == TaskEntity.STATUS_COMPLETED && task.updatedAt > 0) {
-            return task.updatedAt;
-        }
-        return 0;
-    }
-
-    private void showTasksForSelectedDate() {
-        List<TaskEntity> dayTasks = tasksByDate.get(selectedDate);
-
-        if (dayTasks == null || dayTasks.isEmpty()) {
+    private void showTasksForSelectedDate(List<TaskEntity> dayTasks) {
+        if (dayTasks.isEmpty()) {
             rvDayTasks.setVisibility(View.GONE);
             llEmptyState.setVisibility(View.VISIBLE);
             llTaskSummary.setVisibility(View.GONE);
@@ -251,10 +217,31 @@ public class CalendarFragment extends Fragment implements TaskAdapter.OnTaskActi
         tvSelectedDate.setText(dateText);
     }
 
-    // TODO: Implement visual indicators on calendar
+    // CalendarView ne može da označi pojedinačne dane, pa se brojevi po danu ispisuju ispod njega
     private void updateCalendarIndicators() {
+        if (daySummaries.isEmpty()) {
+            tvMonthSummary.setVisibility(View.GONE);
+            return;
+        }
+
+        int monthTotal = 0;
+        int monthCompleted = 0;
+        StringBuilder days = new StringBuilder();
+
+        for (TaskDao.CalendarDaySummary summary : daySummaries.values()) {
+            monthTotal += summary.total;
+            monthCompleted += summary.completed;
+
+            if (days.length() > 0) {
+                days.append("  ");
+            }
+            days.append(DayKey.dayOfMonth(summary.day_key)).append(". ")
+                    .append(summary.completed == summary.total ? "✓" : "•")
+                    .append(summary.completed).append("/").append(summary.total);
+        }
 
-        Log.d("CalendarFragment", "Calendar has tasks on " + tasksByDate.size() + " days");
+        tvMonthSummary.setText("Ovog meseca završeno: " + monthCompleted + "/" + monthTotal + "\n" + days);
+        tvMonthSummary.setVisibility(View.VISIBLE);
     }
 
     @Override
@@ -308,58 +295,35 @@ public class CalendarFragment extends Fragment implements TaskAdapter.OnTaskActi
     }
 
     private static class CalendarTaskAdapter extends TaskAdapter {
-        private List<CategoryEntity> categories;
-        private Map<Long, String> categoryColors;
 
-        public CalendarTaskAdapter(android.content.Context context, OnTaskActionListener listener, List<CategoryEntity> categories) {
+        public CalendarTaskAdapter(android.content.Context context, OnTaskActionListener listener) {
             super(context, listener);
-            this.categories = categories;
-            updateCategoryColors();
-        }
-
-        public void updateCategories(List<CategoryEntity> categories) {
-            this.categories = categories;
-            updateCategoryColors();
-            notifyDataSetChanged();
-        }
-
-        private void updateCategoryColors() {
-            categoryColors = new HashMap<>();
-            if (categories != null) {
-                for (CategoryEntity category : categories) {
-                    categoryColors.put(category.id, category.color);
-                }
-            }
         }
 
         @Override
-        public void onBindViewHolder(@NonNull TaskViewHolder holder, int position) {
-            super.onBindViewHolder(holder, position);
+        public void onBindViewHolder(@NonNull TaskViewHolder holder, int position, @NonNull List<Object> payloads) {
+            // I delimično osvežavanje statusa prepisuje indikator, pa se boja kategorije uvek ponovo postavlja
+            super.onBindViewHolder(holder, position, payloads);
 
             TaskEntity task = getTaskAtPosition(position);
-            if (task != null && task.categoryId != null && categoryColors.containsKey(task.categoryId)) {
-                String colorHex = categoryColors.get(task.categoryId);
-                try {
-                    int color = android.graphics.Color.parseColor(colorHex);
-
-                    View statusIndicator = holder.itemView.findViewById(R.id.status_indicator);
-                    if (statusIndicator != null) {
-                        statusIndicator.setBackgroundColor(color);
-                    }
+            CategoryIndex.Entry category = task != null ? getCategoryIndex().get(task.categoryId) : null;
+            if (category != null && category.color != null) {
+                int color = category.color;
 
-                    View cardView = holder.itemView.findViewById(R.id.card_task);
-                    if (cardView != null) {
-                        GradientDrawable border = new GradientDrawable();
-                        border.setColor(android.graphics.Color.TRANSPARENT);
-                        border.setStroke(4, color);
-                        border.setCornerRadius(12);
-                        cardView.setBackground(border);
-                    }
+                View statusIndicator = holder.itemView.findViewById(R.id.status_indicator);
+                if (statusIndicator != null) {
+                    statusIndicator.setBackgroundColor(color);
+                }
 
-                } catch (Exception e) {
-                    Log.w("CalendarTaskAdapter", "Failed to parse color: " + colorHex);
+                View cardView = holder.itemView.findViewById(R.id.card_task);
+                if (cardView != null) {
+                    GradientDrawable border = new GradientDrawable();
+                    border.setColor(android.graphics.Color.TRANSPARENT);
+                    border.setStroke(4, color);
+                    border.setCornerRadius(12);
+                    cardView.setBackground(border);
                 }
             }
         }
     }
-}
\ No newline at end of file
+}
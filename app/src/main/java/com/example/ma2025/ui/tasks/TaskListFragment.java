@@ -2,10 +2,16 @@ package com.example.ma2025.ui.tasks;
 
 import android.app.AlertDialog;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
+import android.widget.EditText;
+import android.widget.Spinner;
 import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -17,25 +23,38 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.ma2025.MainActivity;
 import com.example.ma2025.R;
 import com.example.ma2025.data.database.entities.TaskEntity;
+import com.example.ma2025.ui.tasks.adapter.PagedTaskAdapter;
 import com.example.ma2025.ui.tasks.adapter.TaskAdapter;
 import com.example.ma2025.viewmodels.TaskListViewModel;
 import com.google.android.material.chip.ChipGroup;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.android.material.tabs.TabLayout;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class TaskListFragment extends Fragment implements TaskAdapter.OnTaskActionListener {
 
-    private RecyclerView recyclerView;
-    private TaskAdapter taskAdapter;
+    private RecyclerView recyclerView, rvSearchResults;
+    private PagedTaskAdapter taskAdapter;
+    private TaskAdapter searchAdapter;
     private TaskListViewModel viewModel;
     private TabLayout tabLayout;
     private FloatingActionButton fabAddTask;
     private ChipGroup chipGroupTaskType;
+    private EditText etSearchTasks;
+    private Spinner spSort;
+
+    // Redosled stavki odgovara nizu SORT_OPTIONS u spinner-u
+    private static final String[] SORT_OPTIONS = {
+            "Relevantnost", "Rok", "Prioritet", "Kategorija", "Datum kreiranja", "Status"
+    };
+    private static final int[] SORT_TYPES = {
+            TaskListViewModel.SORT_BY_RELEVANCE,
+            TaskListViewModel.SORT_BY_DUE_DATE,
+            TaskListViewModel.SORT_BY_PRIORITY,
+            TaskListViewModel.SORT_BY_CATEGORY,
+            TaskListViewModel.SORT_BY_CREATED_DATE,
+            TaskListViewModel.SORT_BY_STATUS
+    };
 
-    private List<TaskEntity> allTasks = new ArrayList<>();
     private int currentFilter = TaskEntity.STATUS_ACTIVE;
     private int currentTypeFilter = 0; // Tip zadatka: 0 = jednokratni, 1 = ponavljajući
 
@@ -49,6 +68,7 @@ public class TaskListFragment extends Fragment implements TaskAdapter.OnTaskActi
         setupViewModel();
         setupRecyclerView();
         setupChipGroup();
+        setupSearch();
         setupFab();
         observeData();
 
@@ -60,6 +80,9 @@ public class TaskListFragment extends Fragment implements TaskAdapter.OnTaskActi
         tabLayout = view.findViewById(R.id.tab_layout);
         fabAddTask = view.findViewById(R.id.fab_add_task);
         chipGroupTaskType = view.findViewById(R.id.chip_group_task_type);
+        rvSearchResults = view.findViewById(R.id.rv_search_results);
+        etSearchTasks = view.findViewById(R.id.et_search_tasks);
+        spSort = view.findViewById(R.id.sp_sort);
     }
 
     private void setupViewModel() {
@@ -67,9 +90,13 @@ public class TaskListFragment extends Fragment implements TaskAdapter.OnTaskActi
     }
 
     private void setupRecyclerView() {
-        taskAdapter = new TaskAdapter(requireContext(), this);
+        taskAdapter = new PagedTaskAdapter(requireContext(), this);
         recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
         recyclerView.setAdapter(taskAdapter);
+
+        searchAdapter = new TaskAdapter(requireContext(), this);
+        rvSearchResults.setLayoutManager(new LinearLayoutManager(requireContext()));
+        rvSearchResults.setAdapter(searchAdapter);
     }
 
     private void setupChipGroup() {
@@ -140,6 +167,45 @@ public class TaskListFragment extends Fragment implements TaskAdapter.OnTaskActi
         }
     }
 
+    private void setupSearch() {
+        ArrayAdapter<String> sortAdapter = new ArrayAdapter<>(requireContext(),
+                android.R.layout.simple_spinner_item, SORT_OPTIONS);
+        sortAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        spSort.setAdapter(sortAdapter);
+        spSort.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                viewModel.setSortType(SORT_TYPES[position]);
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {}
+        });
+
+        etSearchTasks.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+                String query = s.toString();
+                viewModel.setSearchQuery(query);
+                showSearchResults(!query.trim().isEmpty());
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {}
+        });
+    }
+
+    // Dok postoji upit, rezultati pretrage zamenjuju tipove, statuse i straničnu listu
+    private void showSearchResults(boolean searching) {
+        rvSearchResults.setVisibility(searching ? View.VISIBLE : View.GONE);
+        spSort.setVisibility(searching ? View.VISIBLE : View.GONE);
+        recyclerView.setVisibility(searching ? View.GONE : View.VISIBLE);
+        chipGroupTaskType.setVisibility(searching ? View.GONE : View.VISIBLE);
+        tabLayout.setVisibility(searching ? View.GONE : View.VISIBLE);
+    }
 
     private void setupFab() {
         fabAddTask.setOnClickListener(v -> {
@@ -152,20 +218,12 @@ public class TaskListFragment extends Fragment implements TaskAdapter.OnTaskActi
     }
 
     private void observeData() {
-        String userId = viewModel.getCurrentUserId();
-        if (userId != null) {
-            viewModel.getAllTasks(userId).observe(getViewLifecycleOwner(), tasks -> {
-                if (tasks != null) {
-                    // Filtriraj da prikaže samo trenutne i buduće zadatke
-                    List<TaskEntity> currentAndFutureTasks = filterCurrentAndFutureTasks(tasks);
-                    this.allTasks = currentAndFutureTasks;
-                    Log.d("TaskListFragment", "Loaded " + currentAndFutureTasks.size() + " current/future tasks from " + tasks.size() + " total");
-                    filterTasks();
-                } else {
-                    Log.d("TaskListFragment", "No tasks loaded");
-                }
-            });
-        }
+        // Stranična lista - učitavaju se samo vidljive stranice, filtriranje radi SQL
+        viewModel.getPagedTasks().observe(getViewLifecycleOwner(), pagingData ->
+                taskAdapter.submitData(getViewLifecycleOwner().getLifecycle(), pagingData));
+
+        viewModel.getFilteredTasks().observe(getViewLifecycleOwner(), searchAdapter::updateTasks);
+        viewModel.getCategoryIndex().observe(getViewLifecycleOwner(), searchAdapter::setCategoryIndex);
 
         viewModel.getTaskCompletionResult().observe(getViewLifecycleOwner(), result -> {
             if (result != null) {
@@ -180,51 +238,9 @@ public class TaskListFragment extends Fragment implements TaskAdapter.OnTaskActi
     }
 
     private void filterTasks() {
-        List<TaskEntity> filteredTasks = new ArrayList<>();
-        long now = System.currentTimeMillis();
-
-        for (TaskEntity task : allTasks) {
-            int effectiveStatus = task.status;
-            if (task.status == TaskEntity.STATUS_ACTIVE && task.dueTime != null && task.dueTime < now) {
-                effectiveStatus = TaskEntity.STATUS_FAILED;
-            }
-
-            boolean matchesStatus = (effectiveStatus == currentFilter); // Uklonite -1 logiku
-            boolean matchesType = (currentTypeFilter == 0 && !task.isRepeating)
-                    || (currentTypeFilter == 1 && task.isRepeating);
-
-            if (matchesStatus && matchesType) {
-                filteredTasks.add(task);
-            }
-        }
-
-        taskAdapter.updateTasks(filteredTasks);
-    }
-
-    private List<TaskEntity> filterCurrentAndFutureTasks(List<TaskEntity> allTasks) {
-        List<TaskEntity> currentAndFuture = new ArrayList<>();
-        long now = System.currentTimeMillis();
-        long startOfToday = now - (now % (24 * 60 * 60 * 1000));
-
-        for (TaskEntity task : allTasks) {
-            boolean includeTask = false;
-
-            if (task.dueTime == null) {
-                includeTask = true;
-            }
-            else if (task.dueTime >= startOfToday) {
-                includeTask = true;
-            }
-            else if (task.status == TaskEntity.STATUS_COMPLETED && task.updatedAt >= startOfToday) {
-                includeTask = true;
-            }
-
-            if (includeTask) {
-                currentAndFuture.add(task);
-            }
-        }
-
-        return currentAndFuture;
+        // Samo trenutni i budući zadaci izabranog tipa i efektivnog statusa (vidi TaskDao.getTaskListPaged)
+        viewModel.setTaskListFilter(currentTypeFilter == 1, currentFilter);
+        Log.d("TaskListFragment", "Task list filter: type " + currentTypeFilter + ", status " + currentFilter);
     }
 
     @Override
@@ -0,0 +1,78 @@
+package com.example.ma2025.ui.tasks.adapter;
+
+import android.content.Context;
+import android.view.ViewGroup;
+import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
+import com.example.ma2025.data.database.dao.TaskDao;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * PagingDataAdapter varijanta TaskAdapter-a - prikazuje samo učitane stranice zadataka.
+ * Kreiranje i popunjavanje kartica delegira TaskAdapter-u, pa izgled ostaje isti; isti
+ * DIFF_CALLBACK daje i delimično osvežavanje kada se promeni samo status.
+ * Kategorija stiže uz red (TaskWithCategory), pa bind ne radi nikakve upite.
+ */
+public class PagedTaskAdapter extends PagingDataAdapter<TaskDao.TaskWithCategory, TaskAdapter.TaskViewHolder> {
+
+    public static final DiffUtil.ItemCallback<TaskDao.TaskWithCategory> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<TaskDao.TaskWithCategory>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull TaskDao.TaskWithCategory oldItem,
+                                               @NonNull TaskDao.TaskWithCategory newItem) {
+                    return TaskAdapter.DIFF_CALLBACK.areItemsTheSame(oldItem.task, newItem.task);
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull TaskDao.TaskWithCategory oldItem,
+                                                  @NonNull TaskDao.TaskWithCategory newItem) {
+                    return sameCategory(oldItem, newItem)
+                            && TaskAdapter.DIFF_CALLBACK.areContentsTheSame(oldItem.task, newItem.task);
+                }
+
+                @Override
+                public Object getChangePayload(@NonNull TaskDao.TaskWithCategory oldItem,
+                                               @NonNull TaskDao.TaskWithCategory newItem) {
+                    return sameCategory(oldItem, newItem)
+                            ? TaskAdapter.DIFF_CALLBACK.getChangePayload(oldItem.task, newItem.task) : null;
+                }
+            };
+
+    private static boolean sameCategory(TaskDao.TaskWithCategory oldItem, TaskDao.TaskWithCategory newItem) {
+        return Objects.equals(oldItem.categoryName, newItem.categoryName)
+                && Objects.equals(oldItem.categoryColor, newItem.categoryColor);
+    }
+
+    private final TaskAdapter delegate;
+
+    public PagedTaskAdapter(Context context, TaskAdapter.OnTaskActionListener listener) {
+        super(DIFF_CALLBACK);
+        this.delegate = new TaskAdapter(context, listener);
+    }
+
+    @NonNull
+    @Override
+    public TaskAdapter.TaskViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        return delegate.onCreateViewHolder(parent, viewType);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull TaskAdapter.TaskViewHolder holder, int position) {
+        TaskDao.TaskWithCategory item = getItem(position);
+        if (item != null) {
+            holder.bind(item.task, item.getCategory());
+        }
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull TaskAdapter.TaskViewHolder holder, int position, @NonNull List<Object> payloads) {
+        TaskDao.TaskWithCategory item = getItem(position);
+        if (item != null && payloads.contains(TaskAdapter.PAYLOAD_STATUS)) {
+            holder.bindStatus(item.task);
+        } else {
+            onBindViewHolder(holder, position);
+        }
+    }
+}
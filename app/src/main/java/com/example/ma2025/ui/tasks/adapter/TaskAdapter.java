@@ -10,20 +10,66 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.cardview.widget.CardView;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.ma2025.R;
 import com.example.ma2025.data.database.entities.TaskEntity;
-import com.example.ma2025.data.repositories.CategoryRepository;
+import com.example.ma2025.data.models.CategoryIndex;
+import com.example.ma2025.utils.AppExecutors;
 import com.example.ma2025.utils.DateUtils;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+
+/**
+ * Lista zadataka; razlike između dve liste računa AsyncListDiffer na pozadinskoj niti,
+ * pa se osvežavaju samo promenjene kartice. Kada se promeni samo status (završavanje,
+ * pauziranje, nastavak), kartica se ne popunjava ponovo već se osvežava samo status i dugmad.
+ * Naziv i boja kategorije čitaju se iz CategoryIndex-a u memoriji, bez upita pri bind-u.
+ */
+public class TaskAdapter extends ListAdapter<TaskEntity, TaskAdapter.TaskViewHolder> {
+
+    // Payload za delimično osvežavanje kada se promenio samo status
+    public static final Object PAYLOAD_STATUS = new Object();
+    // Payload kada se promenio samo indeks kategorija
+    public static final Object PAYLOAD_CATEGORY = new Object();
+
+    public static final DiffUtil.ItemCallback<TaskEntity> DIFF_CALLBACK = new DiffUtil.ItemCallback<TaskEntity>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull TaskEntity oldItem, @NonNull TaskEntity newItem) {
+            return oldItem.id == newItem.id;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull TaskEntity oldItem, @NonNull TaskEntity newItem) {
+            return oldItem.status == newItem.status && sameDisplayedContent(oldItem, newItem);
+        }
 
-public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder> {
+        @Override
+        public Object getChangePayload(@NonNull TaskEntity oldItem, @NonNull TaskEntity newItem) {
+            // updated_at se ne prikazuje, pa promena statusa sa novim updated_at ostaje delimična
+            return sameDisplayedContent(oldItem, newItem) ? PAYLOAD_STATUS : null;
+        }
+    };
+
+    /**
+     * Sva prikazana polja osim statusa
+     */
+    private static boolean sameDisplayedContent(TaskEntity oldItem, TaskEntity newItem) {
+        return oldItem.difficulty == newItem.difficulty
+                && oldItem.importance == newItem.importance
+                && oldItem.isRepeating == newItem.isRepeating
+                && Objects.equals(oldItem.title, newItem.title)
+                && Objects.equals(oldItem.description, newItem.description)
+                && Objects.equals(oldItem.categoryId, newItem.categoryId)
+                && Objects.equals(oldItem.dueTime, newItem.dueTime);
+    }
 
     protected Context context;
-    protected List<TaskEntity> tasks;
     protected OnTaskActionListener listener;
-    private CategoryRepository categoryRepository;
+    private CategoryIndex categoryIndex = CategoryIndex.EMPTY;
 
     public interface OnTaskActionListener {
         void onTaskClick(TaskEntity task);
@@ -36,28 +82,45 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
     }
 
     public TaskAdapter(Context context, OnTaskActionListener listener) {
+        super(new AsyncDifferConfig.Builder<>(DIFF_CALLBACK)
+                .setBackgroundThreadExecutor(AppExecutors.getInstance().io())
+                .build());
         this.context = context;
-        this.tasks = new ArrayList<>();
         this.listener = listener;
-        this.categoryRepository = CategoryRepository.getInstance(context);
+        setHasStableIds(true);
     }
 
-    public void updateTasks(List<TaskEntity> newTasks) {
-        this.tasks.clear();
-        if (newTasks != null) {
-            this.tasks.addAll(newTasks);
+    public void setCategoryIndex(CategoryIndex index) {
+        CategoryIndex newIndex = index != null ? index : CategoryIndex.EMPTY;
+        if (newIndex == categoryIndex) {
+            return;
         }
-        notifyDataSetChanged();
+        categoryIndex = newIndex;
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_CATEGORY);
+    }
+
+    protected CategoryIndex getCategoryIndex() {
+        return categoryIndex;
+    }
+
+    public void updateTasks(List<TaskEntity> newTasks) {
+        // Nova instanca liste - AsyncListDiffer ne računa razlike za istu referencu
+        submitList(newTasks != null ? new ArrayList<>(newTasks) : null);
     }
 
     // NEW: Method for accessing tasks from subclasses
     protected TaskEntity getTaskAtPosition(int position) {
-        if (position >= 0 && position < tasks.size()) {
-            return tasks.get(position);
+        if (position >= 0 && position < getItemCount()) {
+            return getItem(position);
         }
         return null;
     }
 
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).id;
+    }
+
     @NonNull
     @Override
     public TaskViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -67,13 +130,23 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
 
     @Override
     public void onBindViewHolder(@NonNull TaskViewHolder holder, int position) {
-        TaskEntity task = tasks.get(position);
-        holder.bind(task);
+        TaskEntity task = getItem(position);
+        holder.bind(task, categoryIndex.get(task.categoryId));
     }
 
     @Override
-    public int getItemCount() {
-        return tasks.size();
+    public void onBindViewHolder(@NonNull TaskViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        TaskEntity task = getItem(position);
+        if (payloads.contains(PAYLOAD_STATUS)) {
+            holder.bindStatus(task);
+        }
+        if (payloads.contains(PAYLOAD_CATEGORY)) {
+            holder.bindCategory(categoryIndex.get(task.categoryId));
+        }
     }
 
     public class TaskViewHolder extends RecyclerView.ViewHolder {
@@ -105,7 +178,7 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
             btnDelete = itemView.findViewById(R.id.btn_delete);
         }
 
-        public void bind(TaskEntity task) {
+        public void bind(TaskEntity task, CategoryIndex.Entry category) {
             if (task == null) return;
 
             // Basic info
@@ -119,11 +192,7 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
                 tvDescription.setVisibility(View.GONE);
             }
 
-            if (task.categoryId != null) {
-                loadAndDisplayCategory(task.categoryId);
-            } else {
-                tvCategory.setVisibility(View.GONE);
-            }
+            bindCategory(category);
 
             // Due date
             if (task.dueTime != null && task.dueTime > 0) {
@@ -144,6 +213,15 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
             int xpValue = task.calculateXpValue(0); // Using level 0 for now
             tvXpValue.setText(xpValue + " XP");
 
+            bindStatus(task);
+        }
+
+        /**
+         * Samo status, izgled kartice i dugmad - za payload PAYLOAD_STATUS
+         */
+        public void bindStatus(TaskEntity task) {
+            if (task == null) return;
+
             // Status and appearance
             setupStatusAndAppearance(task);
 
@@ -158,24 +236,23 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
             });
         }
 
-        private void loadAndDisplayCategory(Long categoryId) {
-            categoryRepository.getCategoryById(categoryId.longValue()).observeForever(category -> {
-                if (category != null) {
-                    tvCategory.setText("Kategorija: " + category.name);
-                    tvCategory.setVisibility(View.VISIBLE);
+        public void bindCategory(CategoryIndex.Entry category) {
+            if (category == null) {
+                tvCategory.setVisibility(View.GONE);
+                ivCategoryIndicator.clearColorFilter();
+                return;
+            }
 
-                    try {
-                        int color = android.graphics.Color.parseColor(category.color);
-                        tvCategory.setTextColor(color);
-                        ivCategoryIndicator.setColorFilter(color); // Ovo ste tražili
+            tvCategory.setText("Kategorija: " + category.name);
+            tvCategory.setVisibility(View.VISIBLE);
 
-                    } catch (Exception e) {
-                        tvCategory.setTextColor(ContextCompat.getColor(context, R.color.text_secondary));
-                    }
-                } else {
-                    tvCategory.setVisibility(View.GONE);
-                }
-            });
+            if (category.color != null) {
+                tvCategory.setTextColor(category.color);
+                ivCategoryIndicator.setColorFilter(category.color);
+            } else {
+                tvCategory.setTextColor(ContextCompat.getColor(context, R.color.text_secondary));
+                ivCategoryIndicator.clearColorFilter();
+            }
         }
 
         private void setupStatusAndAppearance(TaskEntity task) {
@@ -0,0 +1,236 @@
+package com.example.ma2025.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.annotation.NonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Zajednički izvršioci za celu aplikaciju umesto zasebnog pool-a u svakom repozitorijumu:
+ * <ul>
+ *     <li>diskIO - jedna nit za rad sa lokalnom bazom (upisi se ne takmiče za SQLite lock)</li>
+ *     <li>io - ograničen pool za Firebase i računanja koja samo čitaju bazu</li>
+ *     <li>mainThread - jedan keširan Handler glavne niti za callback-ove</li>
+ * </ul>
+ * Za svaki imenovani posao beleži čekanje u redu, trajanje i najveću dubinu reda.
+ */
+public class AppExecutors {
+    private static final String TAG = "AppExecutors";
+
+    private static final int IO_POOL_SIZE = 3;
+    private static final long IDLE_TIMEOUT_SECONDS = 30;
+
+    // Poslovi koji predugo čekaju ili traju se odmah loguju
+    private static final long SLOW_WAIT_MILLIS = 200;
+    private static final long SLOW_RUN_MILLIS = 500;
+
+    private static volatile AppExecutors INSTANCE;
+
+    private final Lane diskIO;
+    private final Lane io;
+    private final MainThreadExecutor mainThread;
+
+    private AppExecutors() {
+        diskIO = new Lane("db", 1);
+        io = new Lane("io", IO_POOL_SIZE);
+        mainThread = new MainThreadExecutor();
+    }
+
+    public static AppExecutors getInstance() {
+        if (INSTANCE == null) {
+            synchronized (AppExecutors.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new AppExecutors();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    public Lane diskIO() {
+        return diskIO;
+    }
+
+    public Lane io() {
+        return io;
+    }
+
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    public Handler mainHandler() {
+        return mainThread.handler;
+    }
+
+    /**
+     * Ispisuje statistiku svih poslova u log (debug meni u MainActivity)
+     */
+    public void logMetrics() {
+        diskIO.logMetrics();
+        io.logMetrics();
+    }
+
+    // ========== LANE ==========
+
+    /**
+     * Izvršilac sa merenjem; niti se gase posle IDLE_TIMEOUT_SECONDS bez posla
+     */
+    public static class Lane implements Executor {
+        private final String name;
+        private final ThreadPoolExecutor executor;
+        private final AtomicInteger queueDepth = new AtomicInteger();
+        private final Map<String, TaskMetrics> metrics = new ConcurrentHashMap<>();
+
+        Lane(String name, int threads) {
+            this.name = name;
+            this.executor = new ThreadPoolExecutor(threads, threads, IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), new NamedThreadFactory(name));
+            this.executor.allowCoreThreadTimeOut(true);
+        }
+
+        /**
+         * Bez eksplicitnog imena posao se beleži pod imenom klase iz koje je poslat
+         */
+        @Override
+        public void execute(@NonNull Runnable command) {
+            execute(defaultName(command), command);
+        }
+
+        public void execute(String taskName, Runnable command) {
+            long enqueuedAt = SystemClock.elapsedRealtime();
+            int depth = queueDepth.incrementAndGet();
+
+            executor.execute(() -> {
+                queueDepth.decrementAndGet();
+                long startedAt = SystemClock.elapsedRealtime();
+                try {
+                    command.run();
+                } finally {
+                    long waitMillis = startedAt - enqueuedAt;
+                    long runMillis = SystemClock.elapsedRealtime() - startedAt;
+                    metricsFor(taskName).record(depth, waitMillis, runMillis);
+
+                    if (waitMillis > SLOW_WAIT_MILLIS || runMillis > SLOW_RUN_MILLIS) {
+                        Log.w(TAG, name + "/" + taskName + " waited " + waitMillis + " ms, ran " + runMillis
+                                + " ms (queue depth " + depth + ")");
+                    }
+                }
+            });
+        }
+
+        public int getQueueDepth() {
+            return queueDepth.get();
+        }
+
+        public Map<String, TaskMetrics> getMetrics() {
+            Map<String, TaskMetrics> snapshot = new HashMap<>();
+            for (Map.Entry<String, TaskMetrics> entry : metrics.entrySet()) {
+                snapshot.put(entry.getKey(), entry.getValue().copy());
+            }
+            return snapshot;
+        }
+
+        void logMetrics() {
+            for (Map.Entry<String, TaskMetrics> entry : getMetrics().entrySet()) {
+                Log.d(TAG, name + "/" + entry.getKey() + ": " + entry.getValue());
+            }
+        }
+
+        private TaskMetrics metricsFor(String taskName) {
+            TaskMetrics taskMetrics = metrics.get(taskName);
+            if (taskMetrics == null) {
+                metrics.putIfAbsent(taskName, new TaskMetrics());
+                taskMetrics = metrics.get(taskName);
+            }
+            return taskMetrics;
+        }
+
+        private static String defaultName(Runnable command) {
+            String className = command.getClass().getName();
+            int lambdaIndex = className.indexOf("$$");
+            if (lambdaIndex > 0) {
+                className = className.substring(0, lambdaIndex);
+            }
+            return className.substring(className.lastIndexOf('.') + 1);
+        }
+    }
+
+    // ========== METRICS ==========
+
+    public static class TaskMetrics {
+        public int count;
+        public int maxQueueDepth;
+        public long totalWaitMillis;
+        public long maxWaitMillis;
+        public long totalRunMillis;
+        public long maxRunMillis;
+
+        synchronized void record(int queueDepth, long waitMillis, long runMillis) {
+            count++;
+            maxQueueDepth = Math.max(maxQueueDepth, queueDepth);
+            totalWaitMillis += waitMillis;
+            maxWaitMillis = Math.max(maxWaitMillis, waitMillis);
+            totalRunMillis += runMillis;
+            maxRunMillis = Math.max(maxRunMillis, runMillis);
+        }
+
+        synchronized TaskMetrics copy() {
+            TaskMetrics copy = new TaskMetrics();
+            copy.count = count;
+            copy.maxQueueDepth = maxQueueDepth;
+            copy.totalWaitMillis = totalWaitMillis;
+            copy.maxWaitMillis = maxWaitMillis;
+            copy.totalRunMillis = totalRunMillis;
+            copy.maxRunMillis = maxRunMillis;
+            return copy;
+        }
+
+        @Override
+        public String toString() {
+            long avgWait = count > 0 ? totalWaitMillis / count : 0;
+            long avgRun = count > 0 ? totalRunMillis / count : 0;
+            return count + " runs, wait avg " + avgWait + " / max " + maxWaitMillis
+                    + " ms, run avg " + avgRun + " / max " + maxRunMillis
+                    + " ms, max queue " + maxQueueDepth;
+        }
+    }
+
+    // ========== THREADS ==========
+
+    private static class MainThreadExecutor implements Executor {
+        private final Handler handler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            handler.post(command);
+        }
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "app-" + prefix + "-" + counter.incrementAndGet());
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        }
+    }
+}
@@ -143,6 +143,7 @@ public class Constants {
     public static final String DATE_FORMAT_DISPLAY = "dd.MM.yyyy";
     public static final String DATE_FORMAT_TIME = "dd.MM.yyyy HH:mm";
     public static final String TIME_FORMAT = "HH:mm";
+    public static final String DATE_FORMAT_STORAGE = "yyyy-MM-dd";
 
     // Intent extras
     public static final String EXTRA_USER_ID = "extra_user_id";
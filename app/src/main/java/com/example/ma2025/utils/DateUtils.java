@@ -1,45 +1,58 @@
 package com.example.ma2025.utils;
 
 import java.text.SimpleDateFormat;
-import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 public class DateUtils {
 
+    // SimpleDateFormat nije thread-safe, pa se kešira po niti i po šablonu
+    private static final Map<String, ThreadLocal<CachedFormat>> FORMATS = new ConcurrentHashMap<>();
+
     public static String formatDate(long timestamp) {
-        SimpleDateFormat sdf = new SimpleDateFormat(Constants.DATE_FORMAT_DISPLAY, Locale.getDefault());
-        return sdf.format(new Date(timestamp));
+        return format(timestamp, Constants.DATE_FORMAT_DISPLAY);
     }
 
     public static String formatDateTime(long timestamp) {
-        SimpleDateFormat sdf = new SimpleDateFormat(Constants.DATE_FORMAT_TIME, Locale.getDefault());
-        return sdf.format(new Date(timestamp));
+        return format(timestamp, Constants.DATE_FORMAT_TIME);
     }
 
     public static String formatTime(long timestamp) {
-        SimpleDateFormat sdf = new SimpleDateFormat(Constants.TIME_FORMAT, Locale.getDefault());
-        return sdf.format(new Date(timestamp));
+        return format(timestamp, Constants.TIME_FORMAT);
     }
 
-    public static boolean isToday(long timestamp) {
-        Calendar today = Calendar.getInstance();
-        Calendar targetDate = Calendar.getInstance();
-        targetDate.setTimeInMillis(timestamp);
+    /**
+     * Datum u formatu yyyy-MM-dd (ključ dana u Firestore dokumentima)
+     */
+    public static String formatStorageDate(long timestamp) {
+        return format(timestamp, Constants.DATE_FORMAT_STORAGE);
+    }
+
+    public static String format(long timestamp, String pattern) {
+        ThreadLocal<CachedFormat> local = FORMATS.get(pattern);
+        if (local == null) {
+            FORMATS.putIfAbsent(pattern, new ThreadLocal<>());
+            local = FORMATS.get(pattern);
+        }
 
-        return today.get(Calendar.YEAR) == targetDate.get(Calendar.YEAR) &&
-                today.get(Calendar.DAY_OF_YEAR) == targetDate.get(Calendar.DAY_OF_YEAR);
+        CachedFormat cached = local.get();
+        Locale locale = Locale.getDefault();
+        if (cached == null || cached.locale != locale) {
+            cached = new CachedFormat(pattern, locale);
+            local.set(cached);
+        }
+        return cached.format(timestamp);
     }
 
-    public static boolean isYesterday(long timestamp) {
-        Calendar yesterday = Calendar.getInstance();
-        yesterday.add(Calendar.DAY_OF_YEAR, -1);
-        Calendar targetDate = Calendar.getInstance();
-        targetDate.setTimeInMillis(timestamp);
+    public static boolean isToday(long timestamp) {
+        return DayKey.of(timestamp) == DayKey.today();
+    }
 
-        return yesterday.get(Calendar.YEAR) == targetDate.get(Calendar.YEAR) &&
-                yesterday.get(Calendar.DAY_OF_YEAR) == targetDate.get(Calendar.DAY_OF_YEAR);
+    public static boolean isYesterday(long timestamp) {
+        return DayKey.of(timestamp) == DayKey.today() - 1;
     }
 
     public static long getDaysDifference(long startTime, long endTime) {
@@ -88,23 +101,11 @@ public class DateUtils {
     }
 
     public static long getStartOfDay(long timestamp) {
-        Calendar cal = Calendar.getInstance();
-        cal.setTimeInMillis(timestamp);
-        cal.set(Calendar.HOUR_OF_DAY, 0);
-        cal.set(Calendar.MINUTE, 0);
-        cal.set(Calendar.SECOND, 0);
-        cal.set(Calendar.MILLISECOND, 0);
-        return cal.getTimeInMillis();
+        return DayKey.startOf(DayKey.of(timestamp));
     }
 
     public static long getEndOfDay(long timestamp) {
-        Calendar cal = Calendar.getInstance();
-        cal.setTimeInMillis(timestamp);
-        cal.set(Calendar.HOUR_OF_DAY, 23);
-        cal.set(Calendar.MINUTE, 59);
-        cal.set(Calendar.SECOND, 59);
-        cal.set(Calendar.MILLISECOND, 999);
-        return cal.getTimeInMillis();
+        return DayKey.endOf(DayKey.of(timestamp));
     }
 
     // ========== NEW METHODS FOR XP QUOTAS ==========
@@ -114,64 +115,31 @@ public class DateUtils {
      * Following ISO 8601 standard where Monday is the first day of the week
      */
     public static long getStartOfWeek(long timestamp) {
-        Calendar cal = Calendar.getInstance();
-        cal.setTimeInMillis(timestamp);
-
-        // Set to start of day
-        cal.set(Calendar.HOUR_OF_DAY, 0);
-        cal.set(Calendar.MINUTE, 0);
-        cal.set(Calendar.SECOND, 0);
-        cal.set(Calendar.MILLISECOND, 0);
-
-        // Get current day of week (Sunday = 1, Monday = 2, ..., Saturday = 7)
-        int dayOfWeek = cal.get(Calendar.DAY_OF_WEEK);
-
-        // Calculate days to subtract to get to Monday
-        int daysToSubtract;
-        if (dayOfWeek == Calendar.SUNDAY) {
-            // Sunday is 6 days after Monday
-            daysToSubtract = 6;
-        } else {
-            // Monday = 2, so subtract (dayOfWeek - 2) to get to Monday
-            daysToSubtract = dayOfWeek - Calendar.MONDAY;
-        }
-
-        cal.add(Calendar.DAY_OF_YEAR, -daysToSubtract);
-        return cal.getTimeInMillis();
+        return DayKey.startOf(DayKey.weekStart(DayKey.of(timestamp)));
     }
 
     /**
      * Returns the start of the current month (1st day 00:00:00)
      */
     public static long getStartOfMonth(long timestamp) {
-        Calendar cal = Calendar.getInstance();
-        cal.setTimeInMillis(timestamp);
-
-        // Set to first day of month at 00:00:00
-        cal.set(Calendar.DAY_OF_MONTH, 1);
-        cal.set(Calendar.HOUR_OF_DAY, 0);
-        cal.set(Calendar.MINUTE, 0);
-        cal.set(Calendar.SECOND, 0);
-        cal.set(Calendar.MILLISECOND, 0);
-
-        return cal.getTimeInMillis();
+        return DayKey.startOf(DayKey.monthStart(DayKey.of(timestamp)));
     }
 
     /**
      * Returns the end of the current month (last day 23:59:59.999)
      */
     public static long getEndOfMonth(long timestamp) {
-        Calendar cal = Calendar.getInstance();
-        cal.setTimeInMillis(timestamp);
+        return DayKey.endOf(DayKey.monthEnd(DayKey.of(timestamp)));
+    }
 
-        // Set to last day of month at 23:59:59.999
-        cal.set(Calendar.DAY_OF_MONTH, cal.getActualMaximum(Calendar.DAY_OF_MONTH));
-        cal.set(Calendar.HOUR_OF_DAY, 23);
-        cal.set(Calendar.MINUTE, 59);
-        cal.set(Calendar.SECOND, 59);
-        cal.set(Calendar.MILLISECOND, 999);
+    // ========== DAY KEYS ==========
 
-        return cal.getTimeInMillis();
+    /**
+     * Returns the local calendar day of the timestamp as days since 1970-01-01
+     * (the value stored in task_completions.day_key)
+     */
+    public static int getDayKey(long timestamp) {
+        return DayKey.of(timestamp);
     }
 
     // ========== EXISTING METHODS ==========
@@ -183,10 +151,7 @@ public class DateUtils {
     }
 
     public static long addDays(long timestamp, int days) {
-        Calendar cal = Calendar.getInstance();
-        cal.setTimeInMillis(timestamp);
-        cal.add(Calendar.DAY_OF_YEAR, days);
-        return cal.getTimeInMillis();
+        return DayKey.addDays(timestamp, days);
     }
 
     public static long addHours(long timestamp, int hours) {
@@ -199,29 +164,42 @@ public class DateUtils {
      * Helper method for debugging - formats timestamp to readable string
      */
     public static String debugTimestamp(long timestamp) {
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
-        return sdf.format(new Date(timestamp));
+        return format(timestamp, "yyyy-MM-dd HH:mm:ss");
     }
 
     /**
      * Helper method to check if two timestamps are in the same week
      */
     public static boolean isSameWeek(long timestamp1, long timestamp2) {
-        long startOfWeek1 = getStartOfWeek(timestamp1);
-        long startOfWeek2 = getStartOfWeek(timestamp2);
-        return startOfWeek1 == startOfWeek2;
+        return DayKey.isSameWeek(DayKey.of(timestamp1), DayKey.of(timestamp2));
     }
 
     /**
      * Helper method to check if two timestamps are in the same month
      */
     public static boolean isSameMonth(long timestamp1, long timestamp2) {
-        Calendar cal1 = Calendar.getInstance();
-        Calendar cal2 = Calendar.getInstance();
-        cal1.setTimeInMillis(timestamp1);
-        cal2.setTimeInMillis(timestamp2);
+        return DayKey.isSameMonth(DayKey.of(timestamp1), DayKey.of(timestamp2));
+    }
 
-        return cal1.get(Calendar.YEAR) == cal2.get(Calendar.YEAR) &&
-                cal1.get(Calendar.MONTH) == cal2.get(Calendar.MONTH);
+    // ========== FORMATTERS ==========
+
+    /**
+     * Formatter jedne niti; Date se ponovo koristi, a zona prati DayKey.refreshTimeZone()
+     */
+    private static class CachedFormat {
+        final Locale locale;
+        final SimpleDateFormat format;
+        final Date date = new Date();
+
+        CachedFormat(String pattern, Locale locale) {
+            this.locale = locale;
+            this.format = new SimpleDateFormat(pattern, locale);
+        }
+
+        String format(long timestamp) {
+            date.setTime(timestamp);
+            format.setTimeZone(DayKey.getTimeZone());
+            return format.format(date);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,170 @@
+package com.example.ma2025.utils;
+
+import java.util.TimeZone;
+
+/**
+ * Lokalni kalendarski dan kao broj dana od 1970-01-01 (epoch day), bez Calendar objekata.
+ * Vremenska zona se kešira (TimeZone.getDefault() svaki put vraća novu kopiju) i osvežava
+ * preko refreshTimeZone(); ofset se uzima za konkretan trenutak, pa su prelasci na letnje
+ * i zimsko računanje vremena tačni. Nijedna metoda ne alocira.
+ */
+public final class DayKey {
+
+    public static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private static volatile TimeZone zone = TimeZone.getDefault();
+
+    private DayKey() {
+    }
+
+    /**
+     * Ponovo čita podrazumevanu zonu uređaja (poziva se pri povratku u aplikaciju)
+     */
+    public static void refreshTimeZone() {
+        zone = TimeZone.getDefault();
+    }
+
+    static TimeZone getTimeZone() {
+        return zone;
+    }
+
+    // ========== DAN ==========
+
+    public static int of(long timestamp) {
+        long localMillis = timestamp + zone.getOffset(timestamp);
+        return (int) Math.floorDiv(localMillis, MILLIS_PER_DAY);
+    }
+
+    public static int today() {
+        return of(System.currentTimeMillis());
+    }
+
+    /**
+     * Lokalna ponoć datog dana u milisekundama
+     */
+    public static long startOf(int dayKey) {
+        return localToUtc(dayKey * MILLIS_PER_DAY);
+    }
+
+    /**
+     * Poslednja milisekunda datog dana
+     */
+    public static long endOf(int dayKey) {
+        return startOf(dayKey + 1) - 1;
+    }
+
+    /**
+     * Isto lokalno vreme dana pomereno za dati broj dana (kao Calendar.add(DAY_OF_YEAR));
+     * vreme koje tog dana ne postoji zbog prelaska na letnje računanje pomera se unapred
+     */
+    public static long addDays(long timestamp, int days) {
+        long localMillis = timestamp + zone.getOffset(timestamp);
+        return localToUtc(localMillis + days * MILLIS_PER_DAY);
+    }
+
+    // ========== NEDELJA I MESEC ==========
+
+    /**
+     * 1 = ponedeljak ... 7 = nedelja (ISO 8601); 1970-01-01 je bio četvrtak
+     */
+    public static int dayOfWeek(int dayKey) {
+        return Math.floorMod(dayKey + 3, 7) + 1;
+    }
+
+    /**
+     * Ponedeljak nedelje kojoj dan pripada
+     */
+    public static int weekStart(int dayKey) {
+        return dayKey - Math.floorMod(dayKey + 3, 7);
+    }
+
+    /**
+     * Prvi dan meseca kojem dan pripada
+     */
+    public static int monthStart(int dayKey) {
+        return dayKey - dayOfMonth(dayKey) + 1;
+    }
+
+    /**
+     * Poslednji dan meseca kojem dan pripada
+     */
+    public static int monthEnd(int dayKey) {
+        int month = month(dayKey);
+        return monthStart(dayKey) + lengthOfMonth(year(dayKey), month) - 1;
+    }
+
+    public static int year(int dayKey) {
+        long z = dayKey + 719468L;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        return (int) (yearOfEra + era * 400 + (mp >= 10 ? 1 : 0));
+    }
+
+    /**
+     * 1 = januar ... 12 = decembar
+     */
+    public static int month(int dayKey) {
+        long mp = (5 * dayOfMarchYear(dayKey) + 2) / 153;
+        return (int) (mp < 10 ? mp + 3 : mp - 9);
+    }
+
+    public static int dayOfMonth(int dayKey) {
+        long dayOfYear = dayOfMarchYear(dayKey);
+        long mp = (5 * dayOfYear + 2) / 153;
+        return (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+    }
+
+    public static boolean isSameWeek(int dayKey1, int dayKey2) {
+        return weekStart(dayKey1) == weekStart(dayKey2);
+    }
+
+    public static boolean isSameMonth(int dayKey1, int dayKey2) {
+        return monthStart(dayKey1) == monthStart(dayKey2);
+    }
+
+    // ========== POMOĆNE ==========
+
+    /**
+     * Dan u "martovskoj" godini (0 = 1. mart) iz algoritma za građanski kalendar
+     */
+    private static long dayOfMarchYear(int dayKey) {
+        long z = dayKey + 719468L;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        return dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Lokalno vreme zida u UTC trenutak. Ako lokalno vreme ne postoji (skok sat unapred),
+     * pomera se unapred kao lenient Calendar.
+     */
+    private static long localToUtc(long localMillis) {
+        TimeZone tz = zone;
+        int offset = tz.getOffset(localMillis - tz.getOffset(localMillis));
+        long utc = localMillis - offset;
+        int actual = tz.getOffset(utc);
+        if (actual != offset) {
+            utc = localMillis - Math.min(offset, actual);
+        }
+        return utc;
+    }
+}
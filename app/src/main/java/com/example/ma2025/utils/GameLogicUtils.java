@@ -8,58 +8,33 @@ public class GameLogicUtils {
 
     /**
      * Računa XP potreban za sledeći nivo
-     * Formula: XP prethodnog nivoa * 2 + XP prethodnog nivoa / 2
+     * Formula: XP prethodnog nivoa * 2 + XP prethodnog nivoa / 2 (iz LevelTable)
      */
     public static int calculateXpForLevel(int level) {
-        if (level <= 0) return Constants.BASE_XP_FOR_LEVEL_1;
-
-        int xp = Constants.BASE_XP_FOR_LEVEL_1;
-        for (int i = 1; i < level; i++) {
-            xp = (int) Math.ceil((xp * 2 + xp / 2.0) / 100.0) * 100;
-        }
-        return xp;
+        return LevelTable.toInt(LevelTable.getInstance().getXpForLevel(level));
     }
 
     /**
      * Računa PP dobijen za nivo
-     * Formula: PP za prethodni nivo + 3/4 * PP za prethodni nivo
+     * Formula: PP za prethodni nivo + 3/4 * PP za prethodni nivo (iz LevelTable)
      */
     public static int calculatePpForLevel(int level) {
-        if (level <= 0) return 0;
-        if (level == 1) return Constants.BASE_PP_FOR_LEVEL_1;
-
-        int pp = Constants.BASE_PP_FOR_LEVEL_1;
-        for (int i = 2; i <= level; i++) {
-            pp = (int) (pp + 0.75 * pp);
-        }
-        return pp;
+        return LevelTable.toInt(LevelTable.getInstance().getPpForLevel(level));
     }
 
     /**
      * Računa HP bosa za nivo
-     * Formula: HP prethodnog bosa * 2 + HP prethodnog bosa / 2
+     * Formula: HP prethodnog bosa * 2 + HP prethodnog bosa / 2 (iz LevelTable)
      */
     public static int calculateBossHp(int level) {
-        if (level <= 0) return Constants.BASE_BOSS_HP;
-
-        int hp = Constants.BASE_BOSS_HP;
-        for (int i = 1; i < level; i++) {
-            hp = (int) (hp * 2 + hp / 2.0);
-        }
-        return hp;
+        return LevelTable.toInt(LevelTable.getInstance().getBossHp(level));
     }
 
     /**
-     * Računa nagradu u novčićima za pobedu nad bosom
+     * Računa nagradu u novčićima za pobedu nad bosom (iz LevelTable)
      */
     public static int calculateBossReward(int level) {
-        if (level <= 0) return Constants.BASE_BOSS_REWARD;
-
-        double reward = Constants.BASE_BOSS_REWARD;
-        for (int i = 1; i < level; i++) {
-            reward *= Constants.BOSS_REWARD_INCREASE;
-        }
-        return (int) reward;
+        return LevelTable.toInt(LevelTable.getInstance().getBossReward(level));
     }
 
     /**
@@ -97,42 +72,22 @@ public class GameLogicUtils {
      * Računa total XP potreban za određeni nivo (compatibility metoda)
      */
     public static int calculateTotalXpForLevel(int level) {
-        int totalXp = 0;
-        for (int i = 1; i <= level; i++) {
-            totalXp += calculateXpForLevel(i);
-        }
-        return totalXp;
+        return LevelTable.toInt(LevelTable.getInstance().getTotalXpForLevel(level));
     }
 
     /**
-     * Računa nivo na osnovu ukupnog XP-a
+     * Računa nivo na osnovu ukupnog XP-a (binarna pretraga kroz LevelTable)
      */
     public static int calculateLevelFromXp(int totalXp) {
-        int level = 0;
-        int xpUsed = 0;
-
-        while (xpUsed < totalXp) {
-            int xpForNextLevel = calculateXpForLevel(level + 1);
-            if (xpUsed + xpForNextLevel <= totalXp) {
-                xpUsed += xpForNextLevel;
-                level++;
-            } else {
-                break;
-            }
-        }
-
-        return level;
+        return LevelTable.getInstance().getLevelFromTotalXp(totalXp);
     }
 
     /**
      * Računa preostali XP za sledeći nivo
      */
     public static int calculateRemainingXpForNextLevel(int currentXp, int currentLevel) {
-        int totalXpForCurrentLevel = calculateTotalXpForLevel(currentLevel);
-        int xpForNextLevel = calculateXpForLevel(currentLevel + 1);
-        int totalXpForNextLevel = totalXpForCurrentLevel + xpForNextLevel;
-
-        return totalXpForNextLevel - currentXp;
+        long totalXpForNextLevel = LevelTable.getInstance().getTotalXpForLevel(Math.max(0, currentLevel) + 1);
+        return LevelTable.toInt(totalXpForNextLevel - currentXp);
     }
 
     /**
@@ -0,0 +1,182 @@
+package com.example.ma2025.utils;
+
+import java.util.Arrays;
+
+/**
+ * Nepromenljiva tabela vrednosti po nivou (prag XP-a, kumulativni XP, PP, HP i nagrada bosa),
+ * izračunata jednom pri učitavanju klase umesto petlje na svaki poziv.
+ * Vrednosti su long i računaju se sa proverom prekoračenja; tabela se završava na poslednjem
+ * nivou na kom sve vrednosti staju u long, a iznad njega getteri vraćaju Long.MAX_VALUE.
+ */
+public final class LevelTable {
+
+    private static final LevelTable INSTANCE = new LevelTable();
+
+    // Indeks je nivo; nivo 0 ima iste pragove kao nivo 1 (kao u GameLogicUtils)
+    private final long[] xpForLevel;
+    private final long[] totalXpForLevel;
+    private final long[] ppForLevel;
+    private final long[] bossHp;
+    private final long[] bossReward;
+    private final int maxLevel;
+
+    public static LevelTable getInstance() {
+        return INSTANCE;
+    }
+
+    private LevelTable() {
+        // Gornja granica samo za alokaciju; sve serije rastu geometrijski pa long prekorači mnogo ranije
+        int capacity = 128;
+        long[] xp = new long[capacity];
+        long[] totalXp = new long[capacity];
+        long[] pp = new long[capacity];
+        long[] hp = new long[capacity];
+        long[] reward = new long[capacity];
+
+        xp[0] = Constants.BASE_XP_FOR_LEVEL_1;
+        totalXp[0] = 0;
+        pp[0] = 0;
+        hp[0] = Constants.BASE_BOSS_HP;
+        reward[0] = Constants.BASE_BOSS_REWARD;
+
+        xp[1] = Constants.BASE_XP_FOR_LEVEL_1;
+        totalXp[1] = Constants.BASE_XP_FOR_LEVEL_1;
+        pp[1] = Constants.BASE_PP_FOR_LEVEL_1;
+        hp[1] = Constants.BASE_BOSS_HP;
+        reward[1] = Constants.BASE_BOSS_REWARD;
+
+        int level = 1;
+        try {
+            while (level + 1 < capacity) {
+                int next = level + 1;
+                xp[next] = nextXp(xp[level]);
+                totalXp[next] = Math.addExact(totalXp[level], xp[next]);
+                pp[next] = Math.addExact(pp[level], Math.multiplyExact(pp[level], 3) / 4);
+                hp[next] = Math.addExact(Math.multiplyExact(hp[level], 2), hp[level] / 2);
+                reward[next] = Math.multiplyExact(reward[level], 6) / 5;
+                level = next;
+            }
+        } catch (ArithmeticException e) {
+            // Nivo "level" je poslednji na kom su sve vrednosti tačne
+        }
+
+        maxLevel = level;
+        xpForLevel = Arrays.copyOf(xp, level + 1);
+        totalXpForLevel = Arrays.copyOf(totalXp, level + 1);
+        ppForLevel = Arrays.copyOf(pp, level + 1);
+        bossHp = Arrays.copyOf(hp, level + 1);
+        bossReward = Arrays.copyOf(reward, level + 1);
+    }
+
+    /**
+     * XP prethodnog nivoa * 2 + XP prethodnog nivoa / 2, zaokruženo naviše na stotinu
+     */
+    private static long nextXp(long previousXp) {
+        long doubled = Math.multiplyExact(previousXp, 5);
+        long hundreds = (doubled - 1) / 200 + 1;
+        return Math.multiplyExact(hundreds, 100);
+    }
+
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+
+    /**
+     * XP potreban za dati nivo
+     */
+    public long getXpForLevel(int level) {
+        return valueAt(xpForLevel, level);
+    }
+
+    /**
+     * Zbir XP pragova za nivoe 1..level
+     */
+    public long getTotalXpForLevel(int level) {
+        return valueAt(totalXpForLevel, level);
+    }
+
+    /**
+     * PP koji se dobija dostizanjem datog nivoa
+     */
+    public long getPpForLevel(int level) {
+        return valueAt(ppForLevel, level);
+    }
+
+    /**
+     * HP bosa datog nivoa (prvi bos je nivo 1)
+     */
+    public long getBossHp(int level) {
+        return valueAt(bossHp, level);
+    }
+
+    /**
+     * Nagrada u novčićima za bosa datog nivoa (20% više od prethodnog, zaokruženo naniže)
+     */
+    public long getBossReward(int level) {
+        return valueAt(bossReward, level);
+    }
+
+    /**
+     * Najviši nivo čiji kumulativni XP ne prelazi totalXp (binarna pretraga)
+     */
+    public int getLevelFromTotalXp(long totalXp) {
+        return highestLevelAtMost(totalXpForLevel, totalXp);
+    }
+
+    /**
+     * Najviši nivo čiji prag XP-a ne prelazi xp - isto što i ponavljanje provere
+     * "currentXp >= getXpForLevel(level + 1)" dok ne prestane da važi
+     */
+    public int getLevelForXpThreshold(long xp) {
+        return highestLevelAtMost(xpForLevel, xp);
+    }
+
+    /**
+     * Ukupan PP za sve nivoe od fromLevel (isključeno) do toLevel (uključeno)
+     */
+    public long getPpGained(int fromLevel, int toLevel) {
+        long total = 0;
+        for (int level = fromLevel + 1; level <= toLevel; level++) {
+            long pp = getPpForLevel(level);
+            if (pp == Long.MAX_VALUE || total > Long.MAX_VALUE - pp) {
+                return Long.MAX_VALUE;
+            }
+            total += pp;
+        }
+        return total;
+    }
+
+    /**
+     * Za postojeći int API: vrednosti veće od Integer.MAX_VALUE se zasićuju
+     */
+    public static int toInt(long value) {
+        if (value > Integer.MAX_VALUE) return Integer.MAX_VALUE;
+        if (value < Integer.MIN_VALUE) return Integer.MIN_VALUE;
+        return (int) value;
+    }
+
+    private long valueAt(long[] values, int level) {
+        if (level <= 0) return values[0];
+        if (level > maxLevel) return Long.MAX_VALUE;
+        return values[level];
+    }
+
+    /**
+     * Niz je neopadajući od indeksa 1; vraća poslednji indeks sa vrednošću <= target
+     */
+    private int highestLevelAtMost(long[] values, long target) {
+        int low = 1;
+        int high = maxLevel;
+        int result = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= target) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.ma2025.utils;
+
+import com.example.ma2025.data.database.entities.TaskEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Računa pojavljivanja ponavljajućeg zadatka iz repeat_interval/repeat_unit/start_date/end_date.
+ * Ponavljajući zadatak se čuva kao jedan red (master), a pojavljivanja se izračunavaju za traženi
+ * opseg. Zaseban red (parent_task_id = master.id) pravi se samo kada se jedno pojavljivanje
+ * menja pojedinačno (npr. označi kao neurađeno) - vidi materialize.
+ */
+public class RecurrenceEngine {
+
+    /**
+     * Razmak između pojavljivanja u danima; 0 ako zadatak nema ispravno pravilo ponavljanja
+     */
+    public static int getStepDays(TaskEntity task) {
+        if (!task.isRepeating || task.repeatInterval == null || task.repeatInterval <= 0) {
+            return 0;
+        }
+
+        String unit = task.repeatUnit != null ? task.repeatUnit.toLowerCase() : "";
+        switch (unit) {
+            case "nedelja":
+            case "week":
+                return task.repeatInterval * 7;
+            case "dan":
+            case "day":
+            default:
+                return task.repeatInterval;
+        }
+    }
+
+    /**
+     * Vremena pojavljivanja zadatka čiji dan pada u [windowStart, windowEnd].
+     * Prvo pojavljivanje u opsegu se računa direktno, pa cena zavisi samo od veličine opsega.
+     */
+    public static List<Long> getOccurrences(TaskEntity task, long windowStart, long windowEnd) {
+        List<Long> occurrences = new ArrayList<>();
+        int stepDays = getStepDays(task);
+        if (stepDays == 0 || task.startDate == null || windowEnd < windowStart) {
+            return occurrences;
+        }
+
+        int anchorDay = DateUtils.getDayKey(task.startDate);
+        int firstDay = Math.max(anchorDay, DateUtils.getDayKey(windowStart));
+        int lastDay = DateUtils.getDayKey(windowEnd);
+        if (task.endDate != null && task.endDate > 0) {
+            lastDay = Math.min(lastDay, DateUtils.getDayKey(task.endDate));
+        }
+        if (firstDay > lastDay) {
+            return occurrences;
+        }
+
+        // Prvi dan >= firstDay koji je na koraku od anchorDay
+        int offset = firstDay - anchorDay;
+        int day = anchorDay + ((offset + stepDays - 1) / stepDays) * stepDays;
+
+        // DayKey.addDays čuva vreme u danu i preko promene letnjeg/zimskog računanja vremena
+        while (day <= lastDay) {
+            occurrences.add(DayKey.addDays(task.startDate, day - anchorDay));
+            day += stepDays;
+        }
+
+        return occurrences;
+    }
+
+    /**
+     * Vreme pojavljivanja na dan koji sadrži :dayTimestamp, ili null ako zadatak tog dana ne postoji
+     */
+    public static Long getOccurrenceOnDay(TaskEntity task, long dayTimestamp) {
+        List<Long> occurrences = getOccurrences(task,
+                DateUtils.getStartOfDay(dayTimestamp), DateUtils.getEndOfDay(dayTimestamp));
+        return occurrences.isEmpty() ? null : occurrences.get(0);
+    }
+
+    /**
+     * Pravi zaseban (ne-ponavljajući) red za jedno pojavljivanje master zadatka
+     */
+    public static TaskEntity materialize(TaskEntity master, long occurrenceTime) {
+        TaskEntity occurrence = new TaskEntity(master.userId, master.title, master.description,
+                master.categoryId, master.difficulty, master.importance);
+        occurrence.parentTaskId = master.id;
+        occurrence.startDate = occurrenceTime;
+        occurrence.dueTime = occurrenceTime;
+        return occurrence;
+    }
+}
@@ -1,27 +1,34 @@
 package com.example.ma2025.utils;
 
 import android.content.Context;
-import android.os.Handler;
-import android.os.Looper;
+import android.os.Build;
 import android.util.Log;
-import com.example.ma2025.data.repositories.TaskRepository;
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseUser;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import com.example.ma2025.workers.MaintenanceWorker;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Zakazuje MaintenanceWorker preko WorkManager-a (jedinstven periodični posao),
+ * tako da se istek zadataka izvršava i kada aplikacija nije pokrenuta.
+ */
 public class TaskScheduler {
     private static final String TAG = "TaskScheduler";
-    private static final long CHECK_INTERVAL = 6 * 60 * 60 * 1000L; // 6 sati
+    private static final long CHECK_INTERVAL_HOURS = 6;
+
+    private static final String PERIODIC_WORK_NAME = "task_maintenance";
+    private static final String IMMEDIATE_WORK_NAME = "task_maintenance_now";
 
     private static TaskScheduler INSTANCE;
-    private Handler handler;
-    private Runnable scheduledTask;
-    private TaskRepository taskRepository;
+    private WorkManager workManager;
     private boolean isRunning = false;
 
     private TaskScheduler(Context context) {
-        this.handler = new Handler(Looper.getMainLooper());
-        this.taskRepository = TaskRepository.getInstance(context);
-        setupScheduledTask();
+        this.workManager = WorkManager.getInstance(context);
     }
 
     public static synchronized TaskScheduler getInstance(Context context) {
@@ -31,60 +38,38 @@ public class TaskScheduler {
         return INSTANCE;
     }
 
-    private void setupScheduledTask() {
-        scheduledTask = new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    String userId = getCurrentUserId();
-                    if (userId != null) {
-                        Log.d(TAG, "Running scheduled task expiration check for user: " + userId);
-                        taskRepository.expireOverdueTasks(userId);
-                    } else {
-                        Log.d(TAG, "No user logged in, skipping task expiration check");
-                    }
-                } catch (Exception e) {
-                    Log.e(TAG, "Error in scheduled task expiration check", e);
-                } finally {
-                    if (isRunning) {
-                        handler.postDelayed(this, CHECK_INTERVAL);
-                    }
-                }
-            }
-        };
-    }
-
     public void startScheduler() {
-        if (!isRunning) {
-            isRunning = true;
-            Log.d(TAG, "Starting task scheduler - checking every " + (CHECK_INTERVAL / (60 * 60 * 1000)) + " hours");
-
-            handler.post(scheduledTask);
+        Constraints.Builder constraints = new Constraints.Builder()
+                .setRequiresBatteryNotLow(true);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            constraints.setRequiresDeviceIdle(true);
         }
+
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                MaintenanceWorker.class, CHECK_INTERVAL_HOURS, TimeUnit.HOURS)
+                .setConstraints(constraints.build())
+                .build();
+
+        // KEEP: ponovno zakazivanje pri svakom pokretanju ne pomera već zakazan posao
+        workManager.enqueueUniquePeriodicWork(PERIODIC_WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+        isRunning = true;
+        Log.d(TAG, "Task maintenance scheduled every " + CHECK_INTERVAL_HOURS + " hours");
     }
 
     public void stopScheduler() {
-        if (isRunning) {
-            isRunning = false;
-            handler.removeCallbacks(scheduledTask);
-            Log.d(TAG, "Task scheduler stopped");
-        }
+        workManager.cancelUniqueWork(PERIODIC_WORK_NAME);
+        workManager.cancelUniqueWork(IMMEDIATE_WORK_NAME);
+        isRunning = false;
+        Log.d(TAG, "Task maintenance cancelled");
     }
 
     public void runImmediateCheck() {
-        Log.d(TAG, "Running immediate task expiration check");
-        String userId = getCurrentUserId();
-        if (userId != null) {
-            taskRepository.expireOverdueTasks(userId);
-        }
-    }
-
-    private String getCurrentUserId() {
-        FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
-        return currentUser != null ? currentUser.getUid() : null;
+        Log.d(TAG, "Running immediate task maintenance");
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(MaintenanceWorker.class).build();
+        workManager.enqueueUniqueWork(IMMEDIATE_WORK_NAME, ExistingWorkPolicy.REPLACE, request);
     }
 
     public boolean isRunning() {
         return isRunning;
     }
-}
\ No newline at end of file
+}
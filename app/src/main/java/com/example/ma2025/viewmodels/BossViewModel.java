@@ -13,6 +13,8 @@ import com.example.ma2025.data.models.User;
 import com.example.ma2025.data.repositories.TaskRepository;
 import com.example.ma2025.utils.Constants;
 import com.example.ma2025.utils.DateUtils;
+import com.example.ma2025.utils.AppExecutors;
+import com.example.ma2025.utils.LevelTable;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
@@ -23,8 +25,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 
 public class BossViewModel extends AndroidViewModel {
 
@@ -33,7 +34,7 @@ public class BossViewModel extends AndroidViewModel {
     private FirebaseFirestore db;
     private FirebaseAuth mAuth;
     private TaskRepository taskRepository;
-    private ExecutorService executor;
+    private Executor executor;
 
     // PP tracking
     private MutableLiveData<Integer> userBasePp = new MutableLiveData<>();
@@ -62,7 +63,7 @@ public class BossViewModel extends AndroidViewModel {
         db = FirebaseFirestore.getInstance();
         mAuth = FirebaseAuth.getInstance();
         taskRepository = TaskRepository.getInstance(application);
-        executor = Executors.newFixedThreadPool(2);
+        executor = AppExecutors.getInstance().io();
 
         // Initialize values
         userBasePp.setValue(0);
@@ -377,17 +378,11 @@ public class BossViewModel extends AndroidViewModel {
     }
 
     /**
-     * Računa maksimalan HP za boss na određenom nivou
+     * Računa maksimalan HP za boss na određenom nivou korisnika
+     * (korisnik na nivou N se bori protiv bosa N + 1; prvi boss ima 200 HP)
      */
     private int calculateMaxHp(int userLevel) {
-        int bossHp = 200; // Prvi boss uvek ima 200 HP
-
-        for (int i = 1; i <= userLevel; i++) {
-            int previousHp = bossHp;
-            bossHp = (int) (previousHp * 2 + previousHp / 2.0);
-        }
-
-        return bossHp;
+        return LevelTable.toInt(LevelTable.getInstance().getBossHp(userLevel + 1));
     }
 
     /**
@@ -1,8 +1,6 @@
 package com.example.ma2025.viewmodels;
 
 import android.app.Application;
-import android.os.Handler;
-import android.os.Looper;
 
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
@@ -12,6 +10,7 @@ import com.example.ma2025.data.database.entities.CategoryEntity;
 import com.example.ma2025.data.database.entities.TaskEntity;
 import com.example.ma2025.data.repositories.CategoryRepository;
 import com.example.ma2025.data.repositories.TaskRepository;
+import com.example.ma2025.utils.AppExecutors;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import java.util.List;
@@ -133,7 +132,7 @@ public class CreateTaskViewModel extends AndroidViewModel {
         categoryRepository.updateCategory(category, new CategoryRepository.OnCategoryOperationCallback() {
             @Override
             public void onSuccess(String message) {
-                new Handler(Looper.getMainLooper()).post(() -> {
+                AppExecutors.getInstance().mainThread().execute(() -> {
                     if (callback != null) {
                         callback.onSuccess(message);
                     }
@@ -142,7 +141,7 @@ public class CreateTaskViewModel extends AndroidViewModel {
 
             @Override
             public void onError(String error) {
-                new Handler(Looper.getMainLooper()).post(() -> {
+                AppExecutors.getInstance().mainThread().execute(() -> {
                     if (callback != null) {
                         callback.onError(error);
                     }
@@ -1,15 +1,22 @@
 package com.example.ma2025.viewmodels;
 
 import android.app.Application;
+import android.os.Handler;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
-import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
+import com.example.ma2025.data.database.dao.TaskDao;
 import com.example.ma2025.data.database.entities.TaskEntity;
 import com.example.ma2025.data.database.entities.CategoryEntity;
+import com.example.ma2025.data.models.CategoryIndex;
 import com.example.ma2025.data.repositories.TaskRepository;
 import com.example.ma2025.data.repositories.CategoryRepository;
+import com.example.ma2025.utils.AppExecutors;
+import com.example.ma2025.utils.DateUtils;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import java.util.ArrayList;
@@ -24,10 +31,25 @@ public class TaskListViewModel extends AndroidViewModel {
 
     // Search and filtering
     private MutableLiveData<String> searchQuery = new MutableLiveData<>("");
-    private MutableLiveData<Integer> sortType = new MutableLiveData<>(SORT_BY_DUE_DATE);
-    private MediatorLiveData<List<TaskEntity>> filteredTasks = new MediatorLiveData<>();
+    private MutableLiveData<Integer> sortType = new MutableLiveData<>(SORT_BY_RELEVANCE);
+    private LiveData<List<TaskEntity>> filteredTasks;
 
-    // Sort constants
+    // Upit se primenjuje tek kada korisnik prestane da kuca, pa svaki taster ne pokreće FTS upit
+    private static final long SEARCH_DEBOUNCE_MILLIS = 300;
+    private final Handler searchHandler = AppExecutors.getInstance().mainHandler();
+    private String pendingSearchQuery = "";
+    private final Runnable applySearchQuery = () -> searchQuery.setValue(pendingSearchQuery);
+
+    // Paged task list
+    private MutableLiveData<TaskListFilter> taskListFilter = new MutableLiveData<>();
+    private LiveData<PagingData<TaskDao.TaskWithCategory>> pagedTasks;
+
+    // Calendar: vidljivi mesec (početak meseca) i izabrani dan (početak dana)
+    private MutableLiveData<Long> calendarMonth = new MutableLiveData<>();
+    private MutableLiveData<Long> calendarDay = new MutableLiveData<>();
+
+    // Sort constants (SORT_BY_RELEVANCE - redosled koji vraća FTS)
+    public static final int SORT_BY_RELEVANCE = -1;
     public static final int SORT_BY_DUE_DATE = 0;
     public static final int SORT_BY_PRIORITY = 1;
     public static final int SORT_BY_CATEGORY = 2;
@@ -175,48 +197,125 @@ public class TaskListViewModel extends AndroidViewModel {
         }
     }
 
-    // ========== SEARCH AND FILTERING ==========
+    // ========== PAGED TASK LIST ==========
+
+    /**
+     * Stranična lista zadataka za trenutni filter (tip + status); menja se pozivom setTaskListFilter
+     */
+    public LiveData<PagingData<TaskDao.TaskWithCategory>> getPagedTasks() {
+        if (pagedTasks == null) {
+            LiveData<PagingData<TaskDao.TaskWithCategory>> source = Transformations.switchMap(taskListFilter, filter -> {
+                String userId = getCurrentUserId();
+                if (userId == null) {
+                    return new MutableLiveData<>(PagingData.empty());
+                }
+                return PagingLiveData.getLiveData(
+                        taskRepository.getTaskListPager(userId, filter.repeating, filter.status));
+            });
+            pagedTasks = PagingLiveData.cachedIn(source, this);
+        }
+        return pagedTasks;
+    }
 
-    private void setupFilteredTasks() {
-        String userId = getCurrentUserId();
-        if (userId != null) {
-            // Add sources to mediator
-            filteredTasks.addSource(getAllTasks(userId), tasks -> updateFilteredTasks());
-            filteredTasks.addSource(searchQuery, query -> updateFilteredTasks());
-            filteredTasks.addSource(sortType, type -> updateFilteredTasks());
+    public void setTaskListFilter(boolean repeating, int status) {
+        TaskListFilter current = taskListFilter.getValue();
+        if (current == null || current.repeating != repeating || current.status != status) {
+            taskListFilter.setValue(new TaskListFilter(repeating, status));
         }
     }
 
-    private void updateFilteredTasks() {
-        String userId = getCurrentUserId();
-        if (userId == null) return;
+    // ========== CALENDAR ==========
 
-        List<TaskEntity> allTasks = getAllTasks(userId).getValue();
-        if (allTasks == null) {
-            filteredTasks.setValue(new ArrayList<>());
-            return;
+    /**
+     * Broj zadataka i završenih po danu za vidljivi mesec
+     */
+    public LiveData<List<TaskDao.CalendarDaySummary>> getCalendarDaySummaries() {
+        return Transformations.switchMap(calendarMonth, month -> {
+            String userId = getCurrentUserId();
+            if (userId == null) {
+                return new MutableLiveData<>(new ArrayList<>());
+            }
+            return taskRepository.getCalendarMonthSummaries(userId, month);
+        });
+    }
+
+    /**
+     * Zadaci izabranog dana - učitavaju se tek kada se dan izabere
+     */
+    public LiveData<List<TaskEntity>> getCalendarDayTasks() {
+        return Transformations.switchMap(calendarDay, day -> {
+            String userId = getCurrentUserId();
+            if (userId == null) {
+                return new MutableLiveData<>(new ArrayList<>());
+            }
+            return taskRepository.getCalendarTasksForDay(userId, day);
+        });
+    }
+
+    public void selectCalendarDay(long dayStart) {
+        if (!Long.valueOf(dayStart).equals(calendarDay.getValue())) {
+            calendarDay.setValue(dayStart);
+        }
+
+        long monthStart = DateUtils.getStartOfMonth(dayStart);
+        if (!Long.valueOf(monthStart).equals(calendarMonth.getValue())) {
+            calendarMonth.setValue(monthStart);
         }
+    }
 
-        String query = searchQuery.getValue();
-        Integer sort = sortType.getValue();
+    // ========== SEARCH AND FILTERING ==========
 
-        List<TaskEntity> filtered = new ArrayList<>();
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        searchHandler.removeCallbacks(applySearchQuery);
+    }
 
-        // Filter by search query
-        for (TaskEntity task : allTasks) {
-            if (query == null || query.isEmpty() ||
-                    task.title.toLowerCase().contains(query.toLowerCase()) ||
-                    (task.description != null && task.description.toLowerCase().contains(query.toLowerCase()))) {
-                filtered.add(task);
+    private void setupFilteredTasks() {
+        // FTS rezultati u redosledu relevantnosti ili po sortType; prazan upit ne učitava ništa
+        // jer tada TaskListFragment prikazuje straničnu listu
+        LiveData<List<TaskEntity>> searchResults = Transformations.switchMap(searchQuery, query -> {
+            String userId = getCurrentUserId();
+            if (userId == null || query == null || query.trim().isEmpty()) {
+                return new MutableLiveData<>(new ArrayList<>());
             }
+            return taskRepository.searchTasks(userId, query);
+        });
+
+        filteredTasks = Transformations.switchMap(sortType, sort ->
+                Transformations.map(searchResults, tasks -> {
+                    List<TaskEntity> result = tasks != null ? new ArrayList<>(tasks) : new ArrayList<>();
+                    if (sort != null && sort != SORT_BY_RELEVANCE) {
+                        sortTasks(result, sort);
+                    }
+                    return result;
+                }));
+    }
+
+    public LiveData<List<TaskEntity>> getFilteredTasks() {
+        return filteredTasks;
+    }
+
+    public void setSearchQuery(String query) {
+        String value = query != null ? query.trim() : "";
+        searchHandler.removeCallbacks(applySearchQuery);
+        if (value.equals(searchQuery.getValue())) {
+            return;
         }
 
-        // Sort the filtered list
-        if (sort != null) {
-            sortTasks(filtered, sort);
+        pendingSearchQuery = value;
+        if (value.isEmpty()) {
+            // Brisanje upita odmah vraća straničnu listu
+            applySearchQuery.run();
+        } else {
+            searchHandler.postDelayed(applySearchQuery, SEARCH_DEBOUNCE_MILLIS);
         }
+    }
 
-        filteredTasks.setValue(filtered);
+    public void setSortType(int type) {
+        if (!Integer.valueOf(type).equals(sortType.getValue())) {
+            sortType.setValue(type);
+        }
     }
 
     private void sortTasks(List<TaskEntity> tasks, int sortType) {
@@ -284,6 +383,17 @@ public class TaskListViewModel extends AndroidViewModel {
         return new MutableLiveData<>(new ArrayList<>());
     }
 
+    /**
+     * Indeks kategorija za kartice zadataka (naziv i boja bez upita pri bind-u)
+     */
+    public LiveData<CategoryIndex> getCategoryIndex() {
+        String userId = getCurrentUserId();
+        if (userId != null) {
+            return categoryRepository.getCategoryIndex(userId);
+        }
+        return new MutableLiveData<>(CategoryIndex.EMPTY);
+    }
+
     // Result class for task completion
     public static class TaskCompletionResult {
         private boolean success;
@@ -305,6 +415,17 @@ public class TaskListViewModel extends AndroidViewModel {
         public int getNewLevel() { return newLevel; }
     }
 
+    // Filter for the paged task list
+    public static class TaskListFilter {
+        public final boolean repeating;
+        public final int status;
+
+        public TaskListFilter(boolean repeating, int status) {
+            this.repeating = repeating;
+            this.status = status;
+        }
+    }
+
     // Statistics class
     public static class TaskStatistics {
         public int totalTasks;
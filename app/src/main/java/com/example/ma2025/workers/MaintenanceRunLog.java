@@ -0,0 +1,56 @@
+package com.example.ma2025.workers;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.text.TextUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dnevnik poslednjih pokretanja MaintenanceWorker-a (vreme, trajanje, broj isteklih zadataka).
+ * Čuva se u SharedPreferences kao jedan red po pokretanju, najnovije prvo.
+ */
+public class MaintenanceRunLog {
+    private static final String PREFS_NAME = "maintenance_run_log";
+    private static final String KEY_RUNS = "runs";
+    private static final int MAX_ENTRIES = 20;
+
+    private final SharedPreferences sharedPreferences;
+
+    public MaintenanceRunLog(Context context) {
+        sharedPreferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    public synchronized void record(long startedAt, long durationMillis, int expiredTasks, boolean success) {
+        List<String> runs = new ArrayList<>(getRuns());
+        runs.add(0, startedAt + ";" + durationMillis + ";" + expiredTasks + ";" + (success ? "ok" : "error"));
+        while (runs.size() > MAX_ENTRIES) {
+            runs.remove(runs.size() - 1);
+        }
+
+        sharedPreferences.edit()
+                .putString(KEY_RUNS, TextUtils.join("\n", runs))
+                .apply();
+    }
+
+    /**
+     * Redovi u formatu "startedAt;durationMs;expiredTasks;ok|error", najnovije prvo
+     */
+    public List<String> getRuns() {
+        String runs = sharedPreferences.getString(KEY_RUNS, "");
+        if (runs.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return Arrays.asList(runs.split("\n"));
+    }
+
+    public long getLastRunTime() {
+        List<String> runs = getRuns();
+        if (runs.isEmpty()) {
+            return 0;
+        }
+        return Long.parseLong(runs.get(0).split(";")[0]);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.ma2025.workers;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+import com.example.ma2025.data.repositories.TaskRepository;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+
+/**
+ * Periodično održavanje zadataka: istek zadataka posle grace perioda, otvaranje
+ * današnjeg reda u daily_stats i popravka niza. Radi na WorkManager niti, pa ne
+ * zavisi od toga da li je aplikacija otvorena i ne koristi glavnu nit.
+ */
+public class MaintenanceWorker extends Worker {
+    private static final String TAG = "MaintenanceWorker";
+
+    public MaintenanceWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
+        if (currentUser == null) {
+            Log.d(TAG, "No user logged in, skipping maintenance");
+            return Result.success();
+        }
+
+        String userId = currentUser.getUid();
+        TaskRepository taskRepository = TaskRepository.getInstance(getApplicationContext());
+        MaintenanceRunLog runLog = new MaintenanceRunLog(getApplicationContext());
+        long startedAt = System.currentTimeMillis();
+        long start = SystemClock.elapsedRealtime();
+
+        try {
+            int expired = taskRepository.expireOverdueTasksSync(userId);
+            taskRepository.rolloverDailyStatsSync(userId);
+            taskRepository.repairStreakSync(userId);
+
+            long duration = SystemClock.elapsedRealtime() - start;
+            runLog.record(startedAt, duration, expired, true);
+            Log.d(TAG, "Maintenance finished in " + duration + " ms, expired " + expired + " tasks");
+            return Result.success();
+
+        } catch (Exception e) {
+            long duration = SystemClock.elapsedRealtime() - start;
+            runLog.record(startedAt, duration, 0, false);
+            Log.e(TAG, "Maintenance failed after " + duration + " ms", e);
+            return Result.retry();
+        }
+    }
+}
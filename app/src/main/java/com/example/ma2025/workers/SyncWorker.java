@@ -0,0 +1,45 @@
+package com.example.ma2025.workers;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+import com.example.ma2025.data.repositories.SyncEngine;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+
+/**
+ * Preuzima promene iz Firestore-a i prazni sync_outbox trenutnog korisnika (SyncEngine.sync).
+ * Zakazuje ga SyncEngine.requestSync uz uslov mreže; neuspeh vraća retry, pa WorkManager
+ * ponavlja sa eksponencijalnim razmakom.
+ */
+public class SyncWorker extends Worker {
+    private static final String TAG = "SyncWorker";
+
+    public SyncWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
+        if (currentUser == null) {
+            Log.d(TAG, "No user logged in, skipping sync");
+            return Result.success();
+        }
+
+        long start = SystemClock.elapsedRealtime();
+        try {
+            SyncEngine.getInstance(getApplicationContext()).sync(currentUser.getUid());
+            Log.d(TAG, "Sync finished in " + (SystemClock.elapsedRealtime() - start) + " ms");
+            return Result.success();
+
+        } catch (Exception e) {
+            Log.e(TAG, "Sync failed (attempt " + getRunAttemptCount() + ")", e);
+            return Result.retry();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.ma2025.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * DayKey i keširani formateri DateUtils-a u zoni sa letnjim računanjem vremena
+ * (Europe/Belgrade: 2024-03-31 ima 23 sata, 2024-10-27 ima 25 sati).
+ */
+public class DayKeyTest {
+
+    private static final long HOUR = 60L * 60 * 1000;
+
+    private TimeZone originalZone;
+
+    @Before
+    public void setUp() {
+        originalZone = TimeZone.getDefault();
+        useZone("Europe/Belgrade");
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(originalZone);
+        DayKey.refreshTimeZone();
+    }
+
+    @Test
+    public void startOf_isLocalMidnightOnDstDays() {
+        int springDay = DayKey.of(localTime(2024, Calendar.MARCH, 31, 12, 0));
+        int autumnDay = DayKey.of(localTime(2024, Calendar.OCTOBER, 27, 12, 0));
+
+        assertEquals(localTime(2024, Calendar.MARCH, 31, 0, 0), DayKey.startOf(springDay));
+        assertEquals(localTime(2024, Calendar.OCTOBER, 27, 0, 0), DayKey.startOf(autumnDay));
+    }
+
+    @Test
+    public void dayLength_followsDstTransitions() {
+        int springDay = DayKey.of(localTime(2024, Calendar.MARCH, 31, 12, 0));
+        int autumnDay = DayKey.of(localTime(2024, Calendar.OCTOBER, 27, 12, 0));
+
+        assertEquals(23 * HOUR, DayKey.endOf(springDay) - DayKey.startOf(springDay) + 1);
+        assertEquals(25 * HOUR, DayKey.endOf(autumnDay) - DayKey.startOf(autumnDay) + 1);
+        assertEquals(24 * HOUR, DayKey.startOf(springDay) - DayKey.startOf(springDay - 1));
+    }
+
+    @Test
+    public void of_keepsLastHoursOfDstDayOnSameDay() {
+        int autumnDay = DayKey.of(localTime(2024, Calendar.OCTOBER, 27, 0, 0));
+
+        // Posle vraćanja sata 02:00-03:00 se ponavlja, a dan i dalje traje do ponoći
+        assertEquals(autumnDay, DayKey.of(localTime(2024, Calendar.OCTOBER, 27, 23, 59)));
+        assertEquals(autumnDay, DayKey.of(DayKey.endOf(autumnDay)));
+        assertEquals(autumnDay + 1, DayKey.of(DayKey.endOf(autumnDay) + 1));
+    }
+
+    @Test
+    public void roundTrip_keyAndStartOfDay_forWholeYear() {
+        int first = DayKey.of(localTime(2024, Calendar.JANUARY, 1, 0, 0));
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(localTime(2024, Calendar.JANUARY, 1, 0, 0));
+
+        for (int key = first; key < first + 366; key++) {
+            long start = DayKey.startOf(key);
+            assertEquals(calendar.getTimeInMillis(), start);
+            assertEquals(key, DayKey.of(start));
+            assertEquals(key, DayKey.of(DayKey.endOf(key)));
+            assertEquals(start, DateUtils.getStartOfDay(start + 10 * HOUR));
+            calendar.add(Calendar.DAY_OF_YEAR, 1);
+        }
+    }
+
+    @Test
+    public void addDays_keepsLocalTimeAcrossDst() {
+        long beforeSpring = localTime(2024, Calendar.MARCH, 30, 12, 0);
+        assertEquals(localTime(2024, Calendar.MARCH, 31, 12, 0), DayKey.addDays(beforeSpring, 1));
+
+        long beforeAutumn = localTime(2024, Calendar.OCTOBER, 26, 12, 0);
+        assertEquals(localTime(2024, Calendar.OCTOBER, 28, 12, 0), DayKey.addDays(beforeAutumn, 2));
+
+        // 02:30 ne postoji 31. marta - pomera se unapred kao lenient Calendar.set (03:30),
+        // dok bi Calendar.add vratio 01:30
+        long nightBefore = localTime(2024, Calendar.MARCH, 30, 2, 30);
+        long shifted = DayKey.addDays(nightBefore, 1);
+        assertEquals(localTime(2024, Calendar.MARCH, 31, 2, 30), shifted);
+        assertEquals(localTime(2024, Calendar.MARCH, 31, 3, 30), shifted);
+    }
+
+    @Test
+    public void calendarFields_ofLeapDayAndMonthBounds() {
+        int leapDay = DayKey.of(localTime(2024, Calendar.FEBRUARY, 29, 8, 0));
+
+        assertEquals(2024, DayKey.year(leapDay));
+        assertEquals(2, DayKey.month(leapDay));
+        assertEquals(29, DayKey.dayOfMonth(leapDay));
+        assertEquals(leapDay, DayKey.monthEnd(leapDay));
+        assertEquals(leapDay - 28, DayKey.monthStart(leapDay));
+        assertEquals(4, DayKey.dayOfWeek(leapDay)); // četvrtak
+        assertEquals(0, DayKey.of(0L - TimeZone.getDefault().getOffset(0L)));
+    }
+
+    @Test
+    public void storageDate_usesZoneOfDayKey() {
+        long springStart = localTime(2024, Calendar.MARCH, 31, 0, 0);
+        assertEquals("2024-03-31", DateUtils.formatStorageDate(springStart));
+        assertEquals("31.03.2024", DateUtils.formatDate(springStart));
+
+        // Isti trenutak je u UTC još prethodni dan; keširani formatter prati refreshTimeZone()
+        useZone("UTC");
+        assertEquals("2024-03-30", DateUtils.formatStorageDate(springStart));
+    }
+
+    @Test
+    public void storageDate_isSameOnOtherThread() throws InterruptedException {
+        long autumnEvening = localTime(2024, Calendar.OCTOBER, 27, 23, 30);
+        AtomicReference<String> otherThread = new AtomicReference<>();
+
+        Thread thread = new Thread(() -> otherThread.set(DateUtils.formatStorageDate(autumnEvening)));
+        thread.start();
+        thread.join();
+
+        assertEquals("2024-10-27", DateUtils.formatStorageDate(autumnEvening));
+        assertEquals("2024-10-27", otherThread.get());
+    }
+
+    // ========== POMOĆNE ==========
+
+    private static void useZone(String id) {
+        TimeZone.setDefault(TimeZone.getTimeZone(id));
+        DayKey.refreshTimeZone();
+    }
+
+    private static long localTime(int year, int month, int day, int hour, int minute) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(year, month, day, hour, minute, 0);
+        return calendar.getTimeInMillis();
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.ma2025.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Poredi LevelTable sa ranijim formulama iz GameLogicUtils (petlje nad int/double)
+ * i proverava granice binarne pretrage nivoa.
+ */
+public class LevelTableTest {
+
+    // Ranije formule rade u int-u; do ovog nivoa nijedna vrednost ne prekoračuje int
+    private static final int MAX_CHECKED_LEVEL = 15;
+
+    private final LevelTable table = LevelTable.getInstance();
+
+    @Test
+    public void xpForLevel_matchesOldFormula() {
+        for (int level = 0; level <= MAX_CHECKED_LEVEL; level++) {
+            assertEquals("level " + level, oldXpForLevel(level), table.getXpForLevel(level));
+        }
+    }
+
+    @Test
+    public void totalXpForLevel_matchesOldFormula() {
+        for (int level = 0; level <= MAX_CHECKED_LEVEL; level++) {
+            assertEquals("level " + level, oldTotalXpForLevel(level), table.getTotalXpForLevel(level));
+        }
+    }
+
+    @Test
+    public void ppForLevel_matchesOldFormula() {
+        for (int level = 0; level <= MAX_CHECKED_LEVEL; level++) {
+            assertEquals("level " + level, oldPpForLevel(level), table.getPpForLevel(level));
+        }
+    }
+
+    @Test
+    public void bossHp_matchesOldFormula() {
+        for (int level = 0; level <= MAX_CHECKED_LEVEL; level++) {
+            assertEquals("level " + level, oldBossHp(level), table.getBossHp(level));
+        }
+    }
+
+    @Test
+    public void bossReward_matchesOldFormulaUntilTruncationDiverges() {
+        // Tabela zaokružuje naniže na svakom nivou, a stara formula samo na kraju
+        for (int level = 0; level <= 5; level++) {
+            assertEquals("level " + level, oldBossReward(level), table.getBossReward(level));
+        }
+        assertEquals(497, oldBossReward(6));
+        assertEquals(496, table.getBossReward(6));
+    }
+
+    @Test
+    public void bossReward_neverExceedsOldFormulaAndStaysClose() {
+        for (int level = 0; level <= MAX_CHECKED_LEVEL; level++) {
+            long oldReward = oldBossReward(level);
+            long reward = table.getBossReward(level);
+            assertTrue("level " + level, reward <= oldReward);
+            assertTrue("level " + level, oldReward - reward <= level * 6);
+        }
+    }
+
+    @Test
+    public void levelFromTotalXp_matchesOldLoop() {
+        for (int level = 1; level <= MAX_CHECKED_LEVEL; level++) {
+            int threshold = oldTotalXpForLevel(level);
+            assertEquals(oldLevelFromXp(threshold), table.getLevelFromTotalXp(threshold));
+            assertEquals(oldLevelFromXp(threshold - 1), table.getLevelFromTotalXp(threshold - 1));
+        }
+    }
+
+    @Test
+    public void levelFromTotalXp_exactThresholdAndOneBelow() {
+        for (int level = 1; level <= table.getMaxLevel(); level++) {
+            long threshold = table.getTotalXpForLevel(level);
+            assertEquals(level, table.getLevelFromTotalXp(threshold));
+            assertEquals(level - 1, table.getLevelFromTotalXp(threshold - 1));
+        }
+    }
+
+    @Test
+    public void levelFromTotalXp_bounds() {
+        assertEquals(0, table.getLevelFromTotalXp(0));
+        assertEquals(0, table.getLevelFromTotalXp(-1));
+        assertEquals(table.getMaxLevel(), table.getLevelFromTotalXp(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void levelForXpThreshold_exactThresholdAndOneBelow() {
+        for (int level = 1; level <= table.getMaxLevel(); level++) {
+            long threshold = table.getXpForLevel(level);
+            assertEquals(level, table.getLevelForXpThreshold(threshold));
+            assertEquals(level - 1, table.getLevelForXpThreshold(threshold - 1));
+        }
+        assertEquals(table.getMaxLevel(), table.getLevelForXpThreshold(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void valuesAboveMaxLevel_saturate() {
+        int above = table.getMaxLevel() + 1;
+        assertEquals(Long.MAX_VALUE, table.getXpForLevel(above));
+        assertEquals(Long.MAX_VALUE, table.getTotalXpForLevel(above));
+        assertEquals(Long.MAX_VALUE, table.getPpGained(0, above));
+        assertEquals(Integer.MAX_VALUE, LevelTable.toInt(table.getXpForLevel(above)));
+    }
+
+    @Test
+    public void ppGained_sumsLevelsInRange() {
+        int expected = 0;
+        for (int level = 3; level <= 7; level++) {
+            expected += oldPpForLevel(level);
+        }
+        assertEquals(expected, table.getPpGained(2, 7));
+        assertEquals(0, table.getPpGained(4, 4));
+    }
+
+    // ========== RANIJE FORMULE (GameLogicUtils) ==========
+
+    private static int oldXpForLevel(int level) {
+        if (level <= 0) return Constants.BASE_XP_FOR_LEVEL_1;
+
+        int xp = Constants.BASE_XP_FOR_LEVEL_1;
+        for (int i = 1; i < level; i++) {
+            xp = (int) Math.ceil((xp * 2 + xp / 2.0) / 100.0) * 100;
+        }
+        return xp;
+    }
+
+    private static int oldTotalXpForLevel(int level) {
+        int totalXp = 0;
+        for (int i = 1; i <= level; i++) {
+            totalXp += oldXpForLevel(i);
+        }
+        return totalXp;
+    }
+
+    private static int oldPpForLevel(int level) {
+        if (level <= 0) return 0;
+        if (level == 1) return Constants.BASE_PP_FOR_LEVEL_1;
+
+        int pp = Constants.BASE_PP_FOR_LEVEL_1;
+        for (int i = 2; i <= level; i++) {
+            pp = (int) (pp + 0.75 * pp);
+        }
+        return pp;
+    }
+
+    private static int oldBossHp(int level) {
+        if (level <= 0) return Constants.BASE_BOSS_HP;
+
+        int hp = Constants.BASE_BOSS_HP;
+        for (int i = 1; i < level; i++) {
+            hp = (int) (hp * 2 + hp / 2.0);
+        }
+        return hp;
+    }
+
+    private static int oldBossReward(int level) {
+        if (level <= 0) return Constants.BASE_BOSS_REWARD;
+
+        double reward = Constants.BASE_BOSS_REWARD;
+        for (int i = 1; i < level; i++) {
+            reward *= Constants.BOSS_REWARD_INCREASE;
+        }
+        return (int) reward;
+    }
+
+    private static int oldLevelFromXp(int totalXp) {
+        int level = 0;
+        int xpUsed = 0;
+
+        while (xpUsed < totalXp) {
+            int xpForNextLevel = oldXpForLevel(level + 1);
+            if (xpUsed + xpForNextLevel <= totalXp) {
+                xpUsed += xpForNextLevel;
+                level++;
+            } else {
+                break;
+            }
+        }
+
+        return level;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.ma2025.benchmark;
+
+import com.example.ma2025.utils.DateUtils;
+import com.example.ma2025.utils.DayKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Granice dana, nedelje i meseca iz DateUtils i grupisanje po danu preko DayKey
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DateUtilsBenchmark {
+
+    private static final int TASK_COUNT = 10_000;
+    private static final int WINDOW_DAYS = 90;
+
+    private long timestamp;
+    private long otherTimestamp;
+    private long[] taskTimes;
+    private int windowStartDay;
+    private int[] countsPerDay;
+
+    @Setup
+    public void setUp() {
+        timestamp = System.currentTimeMillis();
+        otherTimestamp = timestamp - TimeUnit.DAYS.toMillis(3);
+
+        Random random = new Random(42);
+        long windowStart = timestamp - TimeUnit.DAYS.toMillis(WINDOW_DAYS);
+        taskTimes = new long[TASK_COUNT];
+        for (int i = 0; i < TASK_COUNT; i++) {
+            taskTimes[i] = windowStart + (long) (random.nextDouble() * TimeUnit.DAYS.toMillis(WINDOW_DAYS));
+        }
+        windowStartDay = DayKey.of(windowStart);
+        countsPerDay = new int[WINDOW_DAYS + 1];
+    }
+
+    /**
+     * Grupisanje 10k zadataka po danu; gc profiler treba da pokaže ~0 B/op
+     */
+    @Benchmark
+    public int groupTasksByDay() {
+        int[] counts = countsPerDay;
+        Arrays.fill(counts, 0);
+        for (long time : taskTimes) {
+            counts[DayKey.of(time) - windowStartDay]++;
+        }
+        return counts[WINDOW_DAYS / 2];
+    }
+
+    @Benchmark
+    public long startOfDay() {
+        return DateUtils.getStartOfDay(timestamp);
+    }
+
+    @Benchmark
+    public long endOfDay() {
+        return DateUtils.getEndOfDay(timestamp);
+    }
+
+    @Benchmark
+    public long startOfWeek() {
+        return DateUtils.getStartOfWeek(timestamp);
+    }
+
+    @Benchmark
+    public long startOfMonth() {
+        return DateUtils.getStartOfMonth(timestamp);
+    }
+
+    @Benchmark
+    public long endOfMonth() {
+        return DateUtils.getEndOfMonth(timestamp);
+    }
+
+    @Benchmark
+    public int dayKey() {
+        return DateUtils.getDayKey(timestamp);
+    }
+
+    @Benchmark
+    public boolean isToday() {
+        return DateUtils.isToday(timestamp);
+    }
+
+    @Benchmark
+    public boolean isSameWeek() {
+        return DateUtils.isSameWeek(timestamp, otherTimestamp);
+    }
+
+    @Benchmark
+    public boolean isSameMonth() {
+        return DateUtils.isSameMonth(timestamp, otherTimestamp);
+    }
+
+    @Benchmark
+    public String formatDateTime() {
+        return DateUtils.formatDateTime(timestamp);
+    }
+}
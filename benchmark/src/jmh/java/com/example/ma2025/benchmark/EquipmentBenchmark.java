@@ -0,0 +1,89 @@
+package com.example.ma2025.benchmark;
+
+import com.example.ma2025.data.models.Equipment;
+import com.example.ma2025.data.models.User;
+import com.example.ma2025.utils.Constants;
+import com.example.ma2025.utils.EquipmentManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sabiranje efekata opreme iz EquipmentManager-a nad aktiviranom opremom igrača
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EquipmentBenchmark {
+
+    @Param({"3", "12"})
+    public int itemCount;
+
+    private List<Equipment> equipment;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        equipment = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            Equipment item;
+            switch (i % 4) {
+                case 0:
+                    item = Equipment.createPotion("Napitak " + i, 0.2, 50, i % 8 == 0);
+                    break;
+                case 1:
+                    item = Equipment.createClothing("Rukavice " + i, Constants.EFFECT_PP_BOOST, 0.1, 60);
+                    break;
+                case 2:
+                    item = Equipment.createClothing("Štit " + i, Constants.EFFECT_ATTACK_BOOST, 0.1, 60);
+                    break;
+                default:
+                    item = Equipment.createWeapon("Mač " + i, Constants.EFFECT_PP_BOOST, 0.05);
+                    break;
+            }
+            item.setActive(true);
+            equipment.add(item);
+        }
+
+        user = new User();
+        user.setPp(120);
+    }
+
+    @Benchmark
+    public double ppBonus() {
+        return EquipmentManager.calculatePpBonus(equipment);
+    }
+
+    @Benchmark
+    public double allBonuses() {
+        return EquipmentManager.calculatePpBonus(equipment)
+                + EquipmentManager.calculateAttackBonus(equipment)
+                + EquipmentManager.calculateCoinBonus(equipment)
+                + EquipmentManager.calculateExtraAttackChance(equipment);
+    }
+
+    @Benchmark
+    public int effectivePp() {
+        return EquipmentManager.calculateEffectivePp(user, equipment);
+    }
+
+    @Benchmark
+    public int attackSuccessRate() {
+        return EquipmentManager.calculateAttackSuccessRate(67, equipment);
+    }
+
+    @Benchmark
+    public List<Equipment> activeEquipment() {
+        return EquipmentManager.getActiveEquipment(equipment);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.ma2025.benchmark;
+
+import com.example.ma2025.utils.GameLogicUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formule za nivoe, XP i bosa iz GameLogicUtils, za nizak i visok nivo igrača
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GameLogicBenchmark {
+
+    @Param({"1", "10", "50"})
+    public int level;
+
+    private int totalXp;
+
+    @Setup
+    public void setUp() {
+        totalXp = GameLogicUtils.calculateTotalXpForLevel(level) + 1;
+    }
+
+    @Benchmark
+    public int xpForLevel() {
+        return GameLogicUtils.calculateXpForLevel(level);
+    }
+
+    @Benchmark
+    public int totalXpForLevel() {
+        return GameLogicUtils.calculateTotalXpForLevel(level);
+    }
+
+    @Benchmark
+    public int levelFromXp() {
+        return GameLogicUtils.calculateLevelFromXp(totalXp);
+    }
+
+    @Benchmark
+    public int taskXp() {
+        int difficultyXp = GameLogicUtils.calculateDifficultyXp(7, level);
+        int importanceXp = GameLogicUtils.calculateImportanceXp(3, level);
+        return GameLogicUtils.calculateTaskXp(difficultyXp, importanceXp, level);
+    }
+
+    @Benchmark
+    public int bossHp() {
+        return GameLogicUtils.calculateBossHp(level);
+    }
+}
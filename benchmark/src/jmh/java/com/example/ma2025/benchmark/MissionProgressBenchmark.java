@@ -0,0 +1,71 @@
+package com.example.ma2025.benchmark;
+
+import com.example.ma2025.data.database.entities.TaskEntity;
+import com.example.ma2025.data.models.MissionProgress;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bodovanje napretka specijalne misije: kvote po akciji i završni bonus
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MissionProgressBenchmark {
+
+    private static final String[] ACTIONS = {
+            "store_visit", "successful_attack", "easy_task", "hard_task", "message_day"
+    };
+
+    private MissionProgress progress;
+
+    @Setup
+    public void setUp() {
+        progress = new MissionProgress("benchmark-user");
+        for (int i = 0; i < 4; i++) {
+            progress.incrementStoreVisits();
+            progress.incrementSuccessfulAttacks();
+            progress.incrementEasyTasks(true);
+            progress.incrementHardTasks();
+        }
+        for (int day = 1; day <= 10; day++) {
+            progress.addMessageDay(String.format("2025-09-%02d", day));
+        }
+    }
+
+    @Benchmark
+    public int finalBonus() {
+        return progress.calculateFinalBonus();
+    }
+
+    @Benchmark
+    public int remainingQuota() {
+        int total = 0;
+        for (String action : ACTIONS) {
+            if (progress.canPerformAction(action)) {
+                total += progress.getRemainingQuota(action);
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public boolean classifyTask() {
+        return MissionProgress.isEasyAndNormal(TaskEntity.DIFFICULTY_EASY, TaskEntity.IMPORTANCE_NORMAL)
+                ^ MissionProgress.isEasyTask(TaskEntity.DIFFICULTY_HARD, TaskEntity.IMPORTANCE_IMPORTANT);
+    }
+
+    @Benchmark
+    public boolean addExistingMessageDay() {
+        // Dan koji već postoji: meri linearnu proveru liste dana
+        return progress.addMessageDay("2025-09-10");
+    }
+}